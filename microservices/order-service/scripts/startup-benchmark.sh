@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Time to first request and resident memory of the service, started the default way (java -jar) and
+# in fast-startup mode (AOT, CDS archive, lazy beans, no Flyway). Needs a build with -Pfast-startup
+# and a migrated database; the arguments after -- are passed to the service, e.g.
+#   scripts/startup-benchmark.sh -n 5 -- --spring.datasource.password=secret
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+runs=3
+port=8089
+while getopts "n:p:" option; do
+  case $option in
+    n) runs=$OPTARG ;;
+    p) port=$OPTARG ;;
+    *) exit 2 ;;
+  esac
+done
+shift $((OPTIND - 1))
+
+java=${JAVA_HOME:+$JAVA_HOME/bin/}java
+jar=$(ls target/order-service-*.jar | grep -v '\.original$' | head -1)
+fast=target/fast-startup
+if [[ ! -f $fast/application.jsa ]]; then
+  echo "$fast/application.jsa is missing, build with: mvn -Pfast-startup package" >&2
+  exit 1
+fi
+# any request the service answers; the first one initializes the lazy web and JPA beans
+url="http://localhost:$port/orders/1"
+
+# prints milliseconds until the first response and the resident set size in MB after it
+measure() {
+  local start pid status
+  start=$(date +%s%N)
+  "$@" --server.port="$port" "${service_args[@]}" > target/startup-benchmark.log 2>&1 &
+  pid=$!
+  until status=$(curl -s -o /dev/null -w '%{http_code}' "$url") && [[ $status != 000 ]]; do
+    if ! kill -0 "$pid" 2> /dev/null; then
+      echo "the service exited, see target/startup-benchmark.log" >&2
+      exit 1
+    fi
+    sleep 0.01
+  done
+  local millis=$((($(date +%s%N) - start) / 1000000))
+  local rss_kb
+  rss_kb=$(awk '/^VmRSS/ { print $2 }' "/proc/$pid/status")
+  kill "$pid"
+  wait "$pid" || true
+  echo "$millis $((rss_kb / 1024))"
+}
+
+service_args=("$@")
+report() {
+  local mode=$1
+  shift
+  for ((i = 1; i <= runs; i++)); do
+    read -r millis rss < <(measure "$@")
+    printf '%-8s run %d: first request after %5d ms, RSS %4d MB\n' "$mode" "$i" "$millis" "$rss"
+  done
+}
+
+report default "$java" -jar "$jar"
+# started in the directory of the training run, the class path must be the one the archive was made with
+report fast env -C "$fast" "$java" -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+  -Dspring.profiles.active=fast -cp 'application.jar:BOOT-INF/lib/*' \
+  project.orderservice.OrderServiceApplication
@@ -0,0 +1,173 @@
+package project.orderservice.benchmark;
+
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.orderservice.dto.DeliveryAddressRequest;
+import project.orderservice.dto.OrderItemRequest;
+import project.orderservice.dto.OrderRequest;
+import project.orderservice.dto.OrderResponse;
+import project.orderservice.model.Order;
+import project.orderservice.model.Product;
+import project.orderservice.repository.OrderFetchPlan;
+import project.orderservice.repository.ProductRepository;
+import project.orderservice.service.OrderService;
+
+/**
+ * Save, load, delete and product lookup paths of the persistence layer, on the application started
+ * by {@link BenchmarkApplication}. To use an existing database pass e.g. {@code
+ * -Djmh.args="OrderPersistenceBenchmark -jvmArgsAppend -Dspring.datasource.url=jdbc:..."}, the
+ * orders of the benchmark's products are deleted again after the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderPersistenceBenchmark {
+
+  private static final int PRODUCTS = 100;
+  private static final int ORDERS = 1_000;
+  private static final int ITEMS_PER_ORDER = 10;
+  private static final int DELETE_BATCH = 100;
+
+  private ConfigurableApplicationContext context;
+  private OrderService orderService;
+  private ProductRepository productRepository;
+  private TransactionTemplate transactionTemplate;
+  private EntityManager entityManager;
+  private List<Product> products;
+  private List<Long> orderIds;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkApplication.run("spring.main.web-application-type=none");
+    orderService = context.getBean(OrderService.class);
+    productRepository = context.getBean(ProductRepository.class);
+    transactionTemplate = context.getBean(TransactionTemplate.class);
+    entityManager = context.getBean(EntityManager.class);
+
+    List<Product> newProducts = new ArrayList<>();
+    for (int i = 0; i < PRODUCTS; i++) {
+      newProducts.add(
+          Product.builder().name("product-" + i).price(BigDecimal.valueOf(100 + i, 2)).build());
+    }
+    products = productRepository.saveAll(newProducts);
+    orderIds = orderService.createOrders(orders(ORDERS)).orderIds();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    BenchmarkApplication.deleteOrdersOfProducts(
+        context, products.stream().map(Product::getId).toList());
+    context.close();
+  }
+
+  @Benchmark
+  public Order saveOrderGraph() {
+    return orderService.createOrder(order());
+  }
+
+  @Benchmark
+  public OrderResponse findById(FetchPlanState state) {
+    return orderService.findOrder(randomOrderId(), state.fetchPlan).orElseThrow();
+  }
+
+  @Benchmark
+  public int bulkDelete(DeleteState state) {
+    return transactionTemplate.execute(
+        status -> {
+          entityManager
+              .createQuery("delete from OrderItem i where i.order.id in :ids")
+              .setParameter("ids", state.orderIds)
+              .executeUpdate();
+          return entityManager
+              .createQuery("delete from Order o where o.id in :ids")
+              .setParameter("ids", state.orderIds)
+              .executeUpdate();
+        });
+  }
+
+  @Benchmark
+  public Product productFindById() {
+    return transactionTemplate.execute(
+        status -> productRepository.findById(randomProduct().getId()).orElseThrow());
+  }
+
+  @Benchmark
+  public List<Product> productFindByName() {
+    return transactionTemplate.execute(
+        status -> productRepository.findByName(randomProduct().getName()));
+  }
+
+  @State(Scope.Benchmark)
+  public static class FetchPlanState {
+
+    @Param({"summary", "with-items", "full"})
+    private String plan;
+
+    private OrderFetchPlan fetchPlan;
+
+    @Setup
+    public void setUp() {
+      fetchPlan = OrderFetchPlan.forName(plan).orElseThrow();
+    }
+  }
+
+  /** Fresh orders for every delete, their creation is not measured. */
+  @State(Scope.Thread)
+  public static class DeleteState {
+
+    private List<Long> orderIds;
+
+    @Setup(Level.Invocation)
+    public void setUp(OrderPersistenceBenchmark benchmark) {
+      orderIds = benchmark.orderService.createOrders(benchmark.orders(DELETE_BATCH)).orderIds();
+    }
+  }
+
+  private List<OrderRequest> orders(int count) {
+    List<OrderRequest> orders = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      orders.add(order());
+    }
+    return orders;
+  }
+
+  private OrderRequest order() {
+    List<OrderItemRequest> items = new ArrayList<>(ITEMS_PER_ORDER);
+    for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+      items.add(new OrderItemRequest(randomProduct().getId(), BigDecimal.ONE));
+    }
+    return new OrderRequest(
+        new DeliveryAddressRequest("Armeana 1", "Bucuresti", "Bucuresti", "Romania", "010101"),
+        items);
+  }
+
+  private Product randomProduct() {
+    return products.get(ThreadLocalRandom.current().nextInt(products.size()));
+  }
+
+  private long randomOrderId() {
+    return orderIds.get(ThreadLocalRandom.current().nextInt(orderIds.size()));
+  }
+}
@@ -0,0 +1,76 @@
+package project.orderservice.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import project.orderservice.service.pricing.OrderPrice;
+import project.orderservice.service.pricing.PricingEngine;
+
+/**
+ * Prices one order with the long based engine and with the same rules on BigDecimal. Run with
+ * {@code mvn -Pjmh test-compile exec:exec}, the gc profiler reports the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingBenchmark {
+
+  private static final BigDecimal TAX_RATE = BigDecimal.valueOf(1900, 4);
+  private static final BigDecimal DISCOUNT_RATE = BigDecimal.valueOf(1000, 4);
+
+  @Param({"10", "1000"})
+  private int lines;
+
+  private long[] unitPrices;
+  private long[] quantities;
+  private BigDecimal[] prices;
+  private BigDecimal[] amounts;
+  private PricingEngine pricingEngine;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    unitPrices = new long[lines];
+    quantities = new long[lines];
+    prices = new BigDecimal[lines];
+    amounts = new BigDecimal[lines];
+    for (int i = 0; i < lines; i++) {
+      unitPrices[i] = random.nextLong(10_000_000);
+      quantities[i] = random.nextLong(100_000);
+      prices[i] = BigDecimal.valueOf(unitPrices[i], 2);
+      amounts[i] = BigDecimal.valueOf(quantities[i], 3);
+    }
+    pricingEngine = new PricingEngine(1900);
+  }
+
+  @Benchmark
+  public OrderPrice minorUnits() {
+    return pricingEngine.price(unitPrices, quantities, lines, 1000);
+  }
+
+  @Benchmark
+  public BigDecimal bigDecimal() {
+    BigDecimal subtotal = BigDecimal.ZERO;
+    for (int i = 0; i < lines; i++) {
+      subtotal = subtotal.add(prices[i].multiply(amounts[i]).setScale(2, RoundingMode.HALF_UP));
+    }
+    BigDecimal discount = subtotal.multiply(DISCOUNT_RATE).setScale(2, RoundingMode.HALF_UP);
+    BigDecimal discounted = subtotal.subtract(discount);
+    return discounted.add(discounted.multiply(TAX_RATE).setScale(2, RoundingMode.HALF_UP));
+  }
+}
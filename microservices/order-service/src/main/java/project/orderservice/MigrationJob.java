@@ -0,0 +1,41 @@
+package project.orderservice;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.SpringProperties;
+
+/**
+ * Migrates the database with Flyway and exits, so that the service instances can start with {@code
+ * spring.flyway.enabled=false}. Started with {@code migrate} as the first argument of the service,
+ * e.g. as an init container or a job that runs before a rollout. Only the datasource and Flyway are
+ * configured, the application context of the service is never built.
+ */
+@ImportAutoConfiguration({DataSourceAutoConfiguration.class, FlywayAutoConfiguration.class})
+public class MigrationJob {
+
+  public static final String COMMAND = "migrate";
+
+  public static void main(String[] args) {
+    // the AOT-processed classes only describe the context of the service
+    SpringProperties.setProperty("spring.aot.enabled", "false");
+    ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(MigrationJob.class)
+            .web(WebApplicationType.NONE)
+            .run(withDefaults(args));
+    System.exit(SpringApplication.exit(context));
+  }
+
+  private static String[] withDefaults(String[] args) {
+    String[] all = new String[args.length + 2];
+    System.arraycopy(args, 0, all, 0, args.length);
+    // the fast profile switches both off for the service itself
+    all[args.length] = "--spring.flyway.enabled=true";
+    all[args.length + 1] = "--spring.main.lazy-initialization=false";
+    return all;
+  }
+}
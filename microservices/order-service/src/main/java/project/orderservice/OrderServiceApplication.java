@@ -1,5 +1,6 @@
 package project.orderservice;
 
+import java.util.Arrays;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
@@ -7,6 +8,10 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class OrderServiceApplication {
 
   public static void main(String[] args) {
+    if (args.length > 0 && MigrationJob.COMMAND.equals(args[0])) {
+      MigrationJob.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
     SpringApplication.run(OrderServiceApplication.class, args);
   }
 }
@@ -0,0 +1,96 @@
+package project.orderservice.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import project.orderservice.admission.AdmissionLimiter.Permit;
+import project.orderservice.admission.AdmissionLimiter.Priority;
+
+/**
+ * Admission control of the order endpoints. Reads and writes have limiters of their own, so a slow
+ * write path does not shed the reads. Single orders, and their items, are high priority; batches
+ * and lists are low priority. A shed request is answered at once, with {@code 503} when even high
+ * priority requests are shed and {@code 429} when only low priority ones are, both with a {@code
+ * Retry-After}. The latency a limiter adapts to is the time a request held its permit, which is the
+ * repository time of these endpoints plus the wait for a pooled connection; a repository call alone
+ * would miss the pool wait, the connection is taken when the transaction begins.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+  private static final Pattern SINGLE_ORDER = Pattern.compile("/orders/\\d+(/.*)?");
+
+  private final AdmissionLimiter reads;
+  private final AdmissionLimiter writes;
+  private final String retryAfterSeconds;
+
+  public AdmissionControlFilter(
+      AdmissionLimiter reads, AdmissionLimiter writes, Duration retryAfter) {
+    this.reads = reads;
+    this.writes = writes;
+    this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+  }
+
+  public List<AdmissionLimiter> getLimiters() {
+    return List.of(reads, writes);
+  }
+
+  /** The order stream reads through R2DBC, not the connection pool. */
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String path = request.getServletPath();
+    return !(path.equals("/orders") || path.startsWith("/orders/"))
+        || path.startsWith("/orders/stream");
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+    String path = request.getServletPath();
+    Priority priority;
+    if (read) {
+      priority = SINGLE_ORDER.matcher(path).matches() ? Priority.HIGH : Priority.LOW;
+    } else {
+      priority = path.equals("/orders/batch") ? Priority.LOW : Priority.HIGH;
+    }
+    Optional<Permit> permit = (read ? reads : writes).tryAcquire(priority);
+    if (permit.isEmpty()) {
+      shed(response, priority);
+      return;
+    }
+    boolean failed = true;
+    try {
+      filterChain.doFilter(request, response);
+      failed = response.getStatus() >= 500;
+    } finally {
+      permit.get().release(failed);
+    }
+  }
+
+  private void shed(HttpServletResponse response, Priority priority) throws IOException {
+    HttpStatus status =
+        priority == Priority.HIGH ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+    response.setStatus(status.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+    response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+    response
+        .getWriter()
+        .write(
+            "{\"title\":\""
+                + status.getReasonPhrase()
+                + "\",\"status\":"
+                + status.value()
+                + ",\"detail\":\"The service is at its concurrency limit, try again later\"}");
+  }
+}
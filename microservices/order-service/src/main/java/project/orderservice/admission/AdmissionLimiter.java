@@ -0,0 +1,82 @@
+package project.orderservice.admission;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admits calls while fewer than the {@link AimdLimit} are in flight and rejects the others at once
+ * instead of queueing them. Low priority calls may only use {@code lowPriorityShare} of the limit,
+ * the rest is kept for high priority ones.
+ */
+public class AdmissionLimiter {
+
+  public enum Priority {
+    HIGH,
+    LOW
+  }
+
+  private final String name;
+  private final AimdLimit limit;
+  private final double lowPriorityShare;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LongAdder shedHigh = new LongAdder();
+  private final LongAdder shedLow = new LongAdder();
+
+  public AdmissionLimiter(String name, AimdLimit limit, double lowPriorityShare) {
+    this.name = name;
+    this.limit = limit;
+    this.lowPriorityShare = lowPriorityShare;
+  }
+
+  /** Empty when the call is shed, a permit has to be released once the call ended. */
+  public Optional<Permit> tryAcquire(Priority priority) {
+    int current = limit.getLimit();
+    int available =
+        priority == Priority.HIGH ? current : Math.max(1, (int) (current * lowPriorityShare));
+    while (true) {
+      int calls = inFlight.get();
+      if (calls >= available) {
+        (priority == Priority.HIGH ? shedHigh : shedLow).increment();
+        return Optional.empty();
+      }
+      if (inFlight.compareAndSet(calls, calls + 1)) {
+        return Optional.of(new Permit(System.nanoTime()));
+      }
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getLimit() {
+    return limit.getLimit();
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  public long getShed(Priority priority) {
+    return (priority == Priority.HIGH ? shedHigh : shedLow).sum();
+  }
+
+  public final class Permit {
+
+    private final long startNanos;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit(long startNanos) {
+      this.startNanos = startNanos;
+    }
+
+    /** Feeds the latency of the call to the limit, {@code failed} counts like a slow call. */
+    public void release(boolean failed) {
+      if (released.compareAndSet(false, true)) {
+        limit.onSample(startNanos, System.nanoTime(), inFlight.getAndDecrement(), failed);
+      }
+    }
+  }
+}
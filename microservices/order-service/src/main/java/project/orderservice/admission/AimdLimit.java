@@ -0,0 +1,57 @@
+package project.orderservice.admission;
+
+import java.time.Duration;
+
+/**
+ * A concurrency limit adjusted by additive increase and multiplicative decrease. A call slower than
+ * {@code latencyThreshold}, or failed, multiplies the limit by {@code backoffRatio}, at most once
+ * per round of calls: the calls that started before the last decrease saw the old load and are not
+ * counted again. A fast call while at least half of the limit is in use raises it by one, so an
+ * idle service does not inflate its limit.
+ */
+public class AimdLimit {
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final long latencyThresholdNanos;
+  private final double backoffRatio;
+  private volatile double limit;
+  private long lastDecrease = Long.MIN_VALUE;
+
+  public AimdLimit(
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      Duration latencyThreshold,
+      double backoffRatio) {
+    if (minLimit < 1 || minLimit > maxLimit) {
+      throw new IllegalArgumentException("Invalid limit range " + minLimit + ".." + maxLimit);
+    }
+    if (backoffRatio <= 0 || backoffRatio >= 1) {
+      throw new IllegalArgumentException("Backoff ratio must be in (0, 1): " + backoffRatio);
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.latencyThresholdNanos = latencyThreshold.toNanos();
+    this.backoffRatio = backoffRatio;
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+  }
+
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  /**
+   * @param inFlight the calls in flight when this one ended, including itself
+   */
+  public synchronized void onSample(long startNanos, long endNanos, int inFlight, boolean failed) {
+    if (failed || endNanos - startNanos > latencyThresholdNanos) {
+      if (startNanos > lastDecrease) {
+        limit = Math.max(minLimit, limit * backoffRatio);
+        lastDecrease = endNanos;
+      }
+    } else if (inFlight * 2 >= limit) {
+      limit = Math.min(maxLimit, limit + 1);
+    }
+  }
+}
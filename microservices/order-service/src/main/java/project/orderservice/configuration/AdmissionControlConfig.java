@@ -0,0 +1,78 @@
+package project.orderservice.configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import project.orderservice.admission.AdmissionControlFilter;
+import project.orderservice.admission.AdmissionLimiter;
+import project.orderservice.admission.AimdLimit;
+
+/** Adaptive admission control of the order endpoints, see {@link AdmissionControlFilter}. */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(value = "orderservice.admission.enabled", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+  @Bean
+  AdmissionControlFilter admissionControlFilter(Environment environment) {
+    return new AdmissionControlFilter(
+        limiter("read", environment),
+        limiter("write", environment),
+        environment.getProperty(
+            "orderservice.admission.retry-after", Duration.class, Duration.ofSeconds(1)));
+  }
+
+  /** First in the chain, a shed request costs no more work than necessary. */
+  @Bean
+  FilterRegistrationBean<AdmissionControlFilter> admissionControlFilterRegistration(
+      AdmissionControlFilter filter) {
+    FilterRegistrationBean<AdmissionControlFilter> registration =
+        new FilterRegistrationBean<>(filter);
+    registration.addUrlPatterns("/orders", "/orders/*");
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+    return registration;
+  }
+
+  @Bean
+  MeterBinder admissionControlMetrics(AdmissionControlFilter filter) {
+    return registry -> {
+      for (AdmissionLimiter limiter : filter.getLimiters()) {
+        Gauge.builder("admission.limit", limiter, AdmissionLimiter::getLimit)
+            .description("Concurrent requests the limiter admits")
+            .tag("budget", limiter.getName())
+            .register(registry);
+        Gauge.builder("admission.in.flight", limiter, AdmissionLimiter::getInFlight)
+            .description("Admitted requests in flight")
+            .tag("budget", limiter.getName())
+            .register(registry);
+        for (AdmissionLimiter.Priority priority : AdmissionLimiter.Priority.values()) {
+          FunctionCounter.builder("admission.shed", limiter, l -> l.getShed(priority))
+              .description("Requests rejected at the concurrency limit")
+              .tag("budget", limiter.getName())
+              .tag("priority", priority.name().toLowerCase())
+              .register(registry);
+        }
+      }
+    };
+  }
+
+  private static AdmissionLimiter limiter(String budget, Environment environment) {
+    String prefix = "orderservice.admission." + budget + ".";
+    return new AdmissionLimiter(
+        budget,
+        new AimdLimit(
+            environment.getProperty(prefix + "initial-limit", Integer.class, 20),
+            environment.getProperty(prefix + "min-limit", Integer.class, 2),
+            environment.getProperty(prefix + "max-limit", Integer.class, 200),
+            environment.getProperty(
+                prefix + "latency-threshold", Duration.class, Duration.ofMillis(250)),
+            environment.getProperty("orderservice.admission.backoff-ratio", Double.class, 0.9)),
+        environment.getProperty("orderservice.admission.low-priority-share", Double.class, 0.5));
+  }
+}
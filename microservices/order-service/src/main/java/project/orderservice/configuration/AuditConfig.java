@@ -0,0 +1,71 @@
+package project.orderservice.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.Set;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import project.orderservice.model.DeliveryAddress;
+import project.orderservice.model.Order;
+import project.orderservice.model.OrderItem;
+import project.orderservice.model.Product;
+import project.orderservice.service.audit.AuditEventListener;
+import project.orderservice.service.audit.AuditLogWriter;
+
+/**
+ * Audits the changes of orders, order items, products and delivery addresses in {@code audit_log}
+ * with Hibernate event listeners and background writers instead of Envers, whose audit inserts
+ * would run inside every saving transaction.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "orderservice.audit.enabled", havingValue = "true")
+public class AuditConfig {
+
+  @Bean
+  AuditLogWriter auditLogWriter(
+      JdbcTemplate jdbcTemplate,
+      ObjectMapper objectMapper,
+      ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${orderservice.audit.queue-capacity:10000}") int queueCapacity,
+      @Value("${orderservice.audit.batch-size:500}") int batchSize,
+      @Value("${orderservice.audit.workers:2}") int workers,
+      @Value("${orderservice.audit.poll-interval:200ms}") Duration pollInterval) {
+    return new AuditLogWriter(
+        jdbcTemplate,
+        objectMapper,
+        meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+        queueCapacity,
+        batchSize,
+        workers,
+        pollInterval);
+  }
+
+  @Bean
+  AuditEventListener auditEventListener(
+      EntityManagerFactory entityManagerFactory, AuditLogWriter auditLogWriter) {
+    AuditEventListener listener =
+        new AuditEventListener(
+            entityManagerFactory,
+            Set.of(Order.class, OrderItem.class, Product.class, DeliveryAddress.class),
+            auditLogWriter);
+    EventListenerRegistry registry =
+        entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+    registry.appendListeners(EventType.POST_INSERT, listener);
+    registry.appendListeners(EventType.POST_UPDATE, listener);
+    registry.appendListeners(EventType.POST_DELETE, listener);
+    return listener;
+  }
+}
@@ -0,0 +1,58 @@
+package project.orderservice.configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.sql.SQLException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import project.orderservice.datasource.LimitingDataSource;
+
+/**
+ * With {@code spring.threads.virtual.enabled} requests are no longer capped by the Tomcat thread
+ * pool, so the connection pool is guarded by a {@link LimitingDataSource} instead.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class DatabaseConcurrencyConfig {
+
+  @Bean
+  static BeanPostProcessor limitingDataSourcePostProcessor(Environment environment) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)) {
+          return bean;
+        }
+        return new LimitingDataSource(
+            dataSource,
+            environment.getProperty("orderservice.datasource.max-concurrency", Integer.class, 10),
+            environment.getProperty("orderservice.datasource.max-waiting", Integer.class, 1000),
+            environment.getProperty(
+                "orderservice.datasource.acquire-timeout", Duration.class, Duration.ofSeconds(5)));
+      }
+    };
+  }
+
+  @Bean
+  MeterBinder limitingDataSourceMetrics(DataSource dataSource) throws SQLException {
+    LimitingDataSource limiter = dataSource.unwrap(LimitingDataSource.class);
+    return registry -> {
+      Gauge.builder("db.limiter.active", limiter, LimitingDataSource::getActive)
+          .description("Threads holding a database permit")
+          .register(registry);
+      Gauge.builder("db.limiter.waiting", limiter, LimitingDataSource::getWaiting)
+          .description("Threads waiting for a database permit")
+          .register(registry);
+      FunctionCounter.builder("db.limiter.rejections", limiter, LimitingDataSource::getRejections)
+          .description("Connection requests rejected by the limiter")
+          .register(registry);
+    };
+  }
+}
@@ -0,0 +1,40 @@
+package project.orderservice.configuration;
+
+import java.lang.reflect.Method;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
+import project.orderservice.service.audit.AuditEventListener;
+
+/**
+ * Beans that must exist even if nothing asks for them stay eager with {@code
+ * spring.main.lazy-initialization}: the jobs with {@link Scheduled} methods, which are only
+ * scheduled once created, and the audit listener, which has to be registered before the first save.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LazyInitializationConfig {
+
+  @Bean
+  static LazyInitializationExcludeFilter eagerBeansExcludeFilter() {
+    return (beanName, beanDefinition, beanType) ->
+        beanType != null
+            && (AuditEventListener.class.isAssignableFrom(beanType)
+                || hasScheduledMethods(beanType));
+  }
+
+  private static boolean hasScheduledMethods(Class<?> beanType) {
+    return !MethodIntrospector.selectMethods(
+            beanType,
+            (MethodIntrospector.MetadataLookup<Boolean>)
+                (Method method) ->
+                    AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                            || AnnotatedElementUtils.hasAnnotation(method, Schedules.class)
+                        ? Boolean.TRUE
+                        : null)
+        .isEmpty();
+  }
+}
@@ -0,0 +1,154 @@
+package project.orderservice.configuration;
+
+import static io.r2dbc.spi.ConnectionFactoryOptions.CONNECT_TIMEOUT;
+import static io.r2dbc.spi.ConnectionFactoryOptions.PASSWORD;
+import static io.r2dbc.spi.ConnectionFactoryOptions.USER;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionFactoryProvider;
+import io.r2dbc.postgresql.client.SSLMode;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import project.orderservice.datasource.ReactiveDatabase;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC pool for the streaming read endpoints. It connects to the database of the JDBC datasource,
+ * so both paths share the schema Flyway manages, and its sessions are read only: writes stay on
+ * JPA. Spring Boot's own R2DBC auto-configuration is excluded in application.properties.
+ *
+ * <p>The JDBC url parameters that change how a session connects or behaves (TLS, schema, server
+ * options, application name) are carried over to the R2DBC options. A parameter that has no R2DBC
+ * counterpart fails the startup, the two pools would otherwise connect differently.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ReactiveDatabaseConfig {
+
+  @Bean
+  ReactiveDatabase reactiveDatabase(
+      JdbcConnectionDetails connectionDetails,
+      @Value("${orderservice.r2dbc.pool.max-size:20}") int maxSize,
+      @Value("${orderservice.r2dbc.pool.max-idle-time:30m}") Duration maxIdleTime) {
+    ConnectionFactoryOptions.Builder options = r2dbcOptions(connectionDetails.getJdbcUrl());
+    if (connectionDetails.getUsername() != null) {
+      options.option(USER, connectionDetails.getUsername());
+    }
+    if (connectionDetails.getPassword() != null) {
+      options.option(PASSWORD, connectionDetails.getPassword());
+    }
+    ConnectionPoolConfiguration configuration =
+        ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+            .name("order-service-reactive")
+            .initialSize(0)
+            .maxSize(maxSize)
+            .maxIdleTime(maxIdleTime)
+            .postAllocate(
+                connection ->
+                    Mono.from(
+                            connection
+                                .createStatement(
+                                    "SET SESSION CHARACTERISTICS AS TRANSACTION READ ONLY")
+                                .execute())
+                        .flatMap(result -> Mono.from(result.getRowsUpdated()))
+                        .then())
+            .build();
+    return new ReactiveDatabase(new ConnectionPool(configuration));
+  }
+
+  /** Parameters that only configure the JDBC driver itself, not the session. */
+  private static final Set<String> JDBC_ONLY_PARAMETERS =
+      Set.of(
+          "loggerLevel",
+          "loggerFile",
+          "reWriteBatchedInserts",
+          "prepareThreshold",
+          "preparedStatementCacheQueries",
+          "defaultRowFetchSize",
+          "loginTimeout",
+          "socketTimeout");
+
+  /**
+   * {@code jdbc:postgresql://host:port/db?params} to the options of {@code
+   * r2dbc:postgresql://host:port/db}.
+   */
+  static ConnectionFactoryOptions.Builder r2dbcOptions(String jdbcUrl) {
+    if (!jdbcUrl.startsWith("jdbc:postgresql://")) {
+      throw new IllegalStateException("Cannot derive an R2DBC url from " + jdbcUrl);
+    }
+    int query = jdbcUrl.indexOf('?');
+    String url = query < 0 ? jdbcUrl : jdbcUrl.substring(0, query);
+    ConnectionFactoryOptions.Builder options =
+        ConnectionFactoryOptions.parse("r2dbc:" + url.substring("jdbc:".length())).mutate();
+    if (query < 0) {
+      return options;
+    }
+    for (String parameter : jdbcUrl.substring(query + 1).split("&")) {
+      int equals = parameter.indexOf('=');
+      String name = equals < 0 ? parameter : parameter.substring(0, equals);
+      String value =
+          equals < 0
+              ? ""
+              : URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+      switch (name) {
+        case "sslmode" ->
+            options.option(PostgresqlConnectionFactoryProvider.SSL_MODE, SSLMode.fromValue(value));
+        case "sslrootcert" ->
+            options.option(PostgresqlConnectionFactoryProvider.SSL_ROOT_CERT, value);
+        case "sslcert" -> options.option(PostgresqlConnectionFactoryProvider.SSL_CERT, value);
+        case "sslkey" -> options.option(PostgresqlConnectionFactoryProvider.SSL_KEY, value);
+        case "sslpassword" ->
+            options.option(PostgresqlConnectionFactoryProvider.SSL_PASSWORD, value);
+        case "currentSchema" ->
+            options.option(PostgresqlConnectionFactoryProvider.CURRENT_SCHEMA, value);
+        case "ApplicationName" ->
+            options.option(PostgresqlConnectionFactoryProvider.APPLICATION_NAME, value);
+        case "options" ->
+            options.option(PostgresqlConnectionFactoryProvider.OPTIONS, options(value));
+        case "connectTimeout" ->
+            options.option(CONNECT_TIMEOUT, Duration.ofSeconds(Long.parseLong(value)));
+        case "tcpKeepAlive" ->
+            options.option(
+                PostgresqlConnectionFactoryProvider.TCP_KEEPALIVE, Boolean.parseBoolean(value));
+        default -> {
+          if (!JDBC_ONLY_PARAMETERS.contains(name)) {
+            throw new IllegalStateException(
+                "The JDBC url parameter %s has no R2DBC counterpart".formatted(name));
+          }
+        }
+      }
+    }
+    return options;
+  }
+
+  /**
+   * {@code -c search_path=app -c statement_timeout=5s} (or {@code --search_path=app}) to the server
+   * parameters it sets.
+   */
+  private static Map<String, String> options(String value) {
+    Map<String, String> parameters = new LinkedHashMap<>();
+    String[] tokens = value.trim().split("\\s+");
+    for (int i = 0; i < tokens.length; i++) {
+      String setting = tokens[i].equals("-c") && i + 1 < tokens.length ? tokens[++i] : tokens[i];
+      if (setting.startsWith("-c") || setting.startsWith("--")) {
+        setting = setting.substring(2);
+      }
+      int equals = setting.indexOf('=');
+      if (setting.startsWith("-") || equals < 1) {
+        throw new IllegalStateException("Cannot map the server options " + value);
+      }
+      parameters.put(setting.substring(0, equals), setting.substring(equals + 1));
+    }
+    return parameters;
+  }
+}
@@ -0,0 +1,129 @@
+package project.orderservice.configuration;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import project.orderservice.datasource.ReadYourWrites;
+import project.orderservice.datasource.ReadYourWritesFilter;
+import project.orderservice.datasource.ReplicaRoutingDataSource;
+
+/**
+ * Routes read-only transactions to the replicas in {@code orderservice.datasource.replicas.urls},
+ * each with its own Hikari pool configured like the primary's. Without replicas Spring Boot's
+ * single datasource stays in place.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty("orderservice.datasource.replicas.urls")
+public class ReplicaRoutingConfig {
+
+  @Bean
+  ReadYourWrites readYourWrites(
+      @Value("${orderservice.datasource.replicas.sticky-window:5s}") Duration stickyWindow) {
+    return new ReadYourWrites(stickyWindow, 100_000);
+  }
+
+  @Bean
+  ReadYourWritesFilter readYourWritesFilter(
+      @Value("${orderservice.datasource.replicas.client-header:X-Client-Id}") String header) {
+    return new ReadYourWritesFilter(header);
+  }
+
+  /** Spring Boot only defines it along with its own datasource. */
+  @Bean
+  @ConditionalOnMissingBean
+  JdbcConnectionDetails jdbcConnectionDetails(DataSourceProperties properties) {
+    return new JdbcConnectionDetails() {
+      @Override
+      public String getUsername() {
+        return properties.determineUsername();
+      }
+
+      @Override
+      public String getPassword() {
+        return properties.determinePassword();
+      }
+
+      @Override
+      public String getJdbcUrl() {
+        return properties.determineUrl();
+      }
+    };
+  }
+
+  @Bean
+  ReplicaRoutingDataSource replicaRoutingDataSource(
+      JdbcConnectionDetails connectionDetails,
+      Environment environment,
+      ReadYourWrites readYourWrites,
+      ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${orderservice.datasource.replicas.urls}") List<String> urls,
+      @Value("${orderservice.datasource.replicas.username:}") String username,
+      @Value("${orderservice.datasource.replicas.password:}") String password,
+      @Value("${orderservice.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize,
+      @Value("${orderservice.datasource.replicas.selection:ROUND_ROBIN}")
+          ReplicaRoutingDataSource.Selection selection) {
+    HikariDataSource primary =
+        DataSourceBuilder.create(getClass().getClassLoader())
+            .type(HikariDataSource.class)
+            .driverClassName(connectionDetails.getDriverClassName())
+            .url(connectionDetails.getJdbcUrl())
+            .username(connectionDetails.getUsername())
+            .password(connectionDetails.getPassword())
+            .build();
+    Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+    if (primary.getPoolName() == null) {
+      primary.setPoolName("order-service-primary");
+    }
+    meterRegistry.ifAvailable(
+        registry ->
+            primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+    List<HikariDataSource> replicas = new ArrayList<>();
+    for (int i = 0; i < urls.size(); i++) {
+      HikariConfig replica = new HikariConfig();
+      primary.copyStateTo(replica);
+      replica.setJdbcUrl(urls.get(i));
+      // the primary's credentials unless the replicas have their own
+      if (!username.isEmpty()) {
+        replica.setUsername(username);
+        replica.setPassword(password);
+      }
+      replica.setPoolName("order-service-replica-" + i);
+      replica.setMaximumPoolSize(maximumPoolSize);
+      replica.setReadOnly(true);
+      // an unreachable replica must not keep the service from starting
+      replica.setInitializationFailTimeout(-1);
+      replicas.add(new HikariDataSource(replica));
+    }
+    return new ReplicaRoutingDataSource(primary, replicas, selection, readYourWrites);
+  }
+
+  /**
+   * The lazy proxy acquires the physical connection on the first statement, when the transaction is
+   * already marked read only and the routing can see it.
+   */
+  @Bean
+  @Primary
+  DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+    return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+  }
+}
@@ -0,0 +1,31 @@
+package project.orderservice.configuration;
+
+import java.net.URI;
+import javax.cache.Caching;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate resolves a {@code hibernate.javax.cache.uri} without scheme to a class path URL, which
+ * Caffeine can only read from a directory: from inside a jar it silently falls back to its default
+ * configuration and the regions of {@code hibernate-jcache.conf} are missing. Such a URI is
+ * therefore handed to the caching provider as is, which reads it as a class path resource, and
+ * Hibernate gets the resulting cache manager.
+ */
+@Configuration(proxyBeanMethods = false)
+public class SecondLevelCacheConfig {
+
+  @Bean
+  HibernatePropertiesCustomizer classpathCacheManagerCustomizer() {
+    return properties -> {
+      if (properties.get("hibernate.javax.cache.uri") instanceof String uri
+          && URI.create(uri).getScheme() == null) {
+        properties.put(
+            "hibernate.javax.cache.cache_manager",
+            Caching.getCachingProvider((String) properties.get("hibernate.javax.cache.provider"))
+                .getCacheManager(URI.create(uri), SecondLevelCacheConfig.class.getClassLoader()));
+      }
+    };
+  }
+}
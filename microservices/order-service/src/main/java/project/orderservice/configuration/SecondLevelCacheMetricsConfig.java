@@ -0,0 +1,40 @@
+package project.orderservice.configuration;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.StreamSupport;
+import javax.cache.CacheManager;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exports hit, miss, put and eviction counters of every Hibernate second-level cache region as
+ * {@code cache.*} meters tagged with the region name.
+ */
+@Configuration
+public class SecondLevelCacheMetricsConfig {
+
+  @Bean
+  MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+    return registry -> {
+      RegionFactory regionFactory =
+          entityManagerFactory
+              .unwrap(SessionFactoryImplementor.class)
+              .getServiceRegistry()
+              .getService(RegionFactory.class);
+      if (!(regionFactory instanceof JCacheRegionFactory jcacheRegionFactory)) {
+        return;
+      }
+      CacheManager cacheManager = jcacheRegionFactory.getCacheManager();
+      List<String> regions =
+          StreamSupport.stream(cacheManager.getCacheNames().spliterator(), false).toList();
+      regions.forEach(
+          region -> JCacheMetrics.monitor(registry, cacheManager.getCache(region), List.of()));
+    };
+  }
+}
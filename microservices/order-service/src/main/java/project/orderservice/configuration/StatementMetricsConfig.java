@@ -0,0 +1,64 @@
+package project.orderservice.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import project.orderservice.monitoring.RepositoryStatementInterceptor;
+import project.orderservice.monitoring.RepositoryStatementRecorder;
+import project.orderservice.monitoring.RequestStatementFilter;
+import project.orderservice.monitoring.StatementsEndpoint;
+
+/**
+ * Statement counting for repository calls and HTTP requests. Timings come from Spring Boot: {@code
+ * spring.data.repository.invocations} per repository method and {@code
+ * hikaricp.connections.acquire} for the pool wait.
+ */
+@Configuration(proxyBeanMethods = false)
+public class StatementMetricsConfig {
+
+  @Bean
+  RepositoryStatementRecorder repositoryStatementRecorder(
+      ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${orderservice.statements.warn-threshold:20}") int warnThreshold,
+      @Value("${orderservice.statements.fail-on-budget:false}") boolean failOnBudget) {
+    return new RepositoryStatementRecorder(
+        meterRegistry.getIfAvailable(), warnThreshold, failOnBudget);
+  }
+
+  @Bean
+  static BeanPostProcessor repositoryStatementPostProcessor(
+      ObjectProvider<RepositoryStatementRecorder> recorder) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+          repositoryFactoryBean.addRepositoryFactoryCustomizer(
+              repositoryFactory ->
+                  repositoryFactory.addRepositoryProxyPostProcessor(
+                      (proxyFactory, repositoryInformation) ->
+                          proxyFactory.addAdvice(
+                              new RepositoryStatementInterceptor(
+                                  repositoryInformation.getRepositoryInterface(),
+                                  recorder::getObject))));
+        }
+        return bean;
+      }
+    };
+  }
+
+  @Bean
+  RequestStatementFilter requestStatementFilter(
+      ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${orderservice.statements.warn-threshold:20}") int warnThreshold) {
+    return new RequestStatementFilter(meterRegistry.getIfAvailable(), warnThreshold);
+  }
+
+  @Bean
+  StatementsEndpoint statementsEndpoint(RepositoryStatementRecorder recorder) {
+    return new StatementsEndpoint(recorder);
+  }
+}
@@ -0,0 +1,36 @@
+package project.orderservice.controller;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import project.orderservice.dto.AuditEntry;
+import project.orderservice.service.audit.AuditHistory;
+
+@RestController
+@RequestMapping("/audit")
+@RequiredArgsConstructor
+public class AuditController {
+
+  private final AuditHistory auditHistory;
+
+  /** The changes of an entity, newest first, e.g. {@code /audit/Order/42}. */
+  @GetMapping("/{entityType}/{id}")
+  public List<AuditEntry> getHistory(
+      @PathVariable String entityType,
+      @PathVariable long id,
+      @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+    if (!AuditHistory.ENTITY_TYPES.contains(entityType)) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Unknown entity type " + entityType);
+    }
+    return auditHistory.findHistory(entityType, id, limit);
+  }
+}
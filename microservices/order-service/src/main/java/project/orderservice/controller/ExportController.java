@@ -0,0 +1,42 @@
+package project.orderservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import project.orderservice.service.exports.ExportFormat;
+import project.orderservice.service.exports.OrderExportService;
+
+/**
+ * Downloads of all orders. The body is written on an async thread straight from the database
+ * cursor, see {@code spring.mvc.async.request-timeout} for the time a download may take.
+ */
+@RestController
+@RequestMapping("/exports")
+@RequiredArgsConstructor
+public class ExportController {
+
+  private final OrderExportService orderExportService;
+
+  @GetMapping(value = "/orders", produces = "text/csv")
+  public ResponseEntity<StreamingResponseBody> exportCsv() {
+    return download("orders.csv", ExportFormat.CSV);
+  }
+
+  @GetMapping(value = "/orders", produces = "application/x-ndjson")
+  public ResponseEntity<StreamingResponseBody> exportNdjson() {
+    return download("orders.ndjson", ExportFormat.NDJSON);
+  }
+
+  private ResponseEntity<StreamingResponseBody> download(String fileName, ExportFormat format) {
+    return ResponseEntity.ok()
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(fileName).build().toString())
+        .body(output -> orderExportService.export(format, output));
+  }
+}
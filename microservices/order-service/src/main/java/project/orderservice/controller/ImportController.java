@@ -0,0 +1,38 @@
+package project.orderservice.controller;
+
+import java.io.InputStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import project.orderservice.dto.ImportResult;
+import project.orderservice.service.imports.CopyImportService;
+import project.orderservice.service.imports.ImportFormat;
+import project.orderservice.service.imports.ImportTarget;
+
+@RestController
+@RequestMapping("/imports")
+@RequiredArgsConstructor
+public class ImportController {
+
+  private final CopyImportService copyImportService;
+
+  @PostMapping(value = "/{table}", consumes = "text/csv")
+  public ImportResult importCsv(@PathVariable String table, InputStream body) {
+    return copyImportService.importRows(target(table), ImportFormat.CSV, body);
+  }
+
+  @PostMapping(value = "/{table}", consumes = "application/x-ndjson")
+  public ImportResult importNdjson(@PathVariable String table, InputStream body) {
+    return copyImportService.importRows(target(table), ImportFormat.NDJSON, body);
+  }
+
+  private static ImportTarget target(String table) {
+    return ImportTarget.forTable(table)
+        .orElseThrow(
+            () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown table " + table));
+  }
+}
@@ -0,0 +1,199 @@
+package project.orderservice.controller;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import project.orderservice.dto.CursorPage;
+import project.orderservice.dto.OrderBatchRequest;
+import project.orderservice.dto.OrderBatchResponse;
+import project.orderservice.dto.OrderItemAmountRequest;
+import project.orderservice.dto.OrderItemLine;
+import project.orderservice.dto.OrderItemRequest;
+import project.orderservice.dto.OrderPriceResponse;
+import project.orderservice.dto.OrderRequest;
+import project.orderservice.dto.OrderResponse;
+import project.orderservice.dto.OrderSummary;
+import project.orderservice.repository.OrderFetchPlan;
+import project.orderservice.service.OrderCursor;
+import project.orderservice.service.OrderService;
+import project.orderservice.service.idempotency.IdempotencyKeyReusedException;
+import project.orderservice.service.idempotency.IdempotentOrder;
+import project.orderservice.service.idempotency.IdempotentOrderCreator;
+import project.orderservice.service.pricing.OrderPricingService;
+
+@RestController
+@RequestMapping("/orders")
+@RequiredArgsConstructor
+public class OrderController {
+
+  private final OrderService orderService;
+  private final OrderPricingService orderPricingService;
+  private final IdempotentOrderCreator idempotentOrderCreator;
+
+  /**
+   * With an {@code Idempotency-Key} the order is created once per key, a retry of the request gets
+   * the same order id back and the {@code Idempotent-Replayed} header.
+   */
+  @PostMapping
+  public ResponseEntity<Long> createOrder(
+      @RequestHeader(name = "Idempotency-Key", required = false) @Size(min = 1, max = 255)
+          String idempotencyKey,
+      @RequestBody @Valid OrderRequest request) {
+    if (idempotencyKey == null) {
+      return ResponseEntity.status(HttpStatus.CREATED)
+          .body(orderService.createOrder(request).getId());
+    }
+    IdempotentOrder order = idempotentOrderCreator.createOrder(idempotencyKey, request);
+    return ResponseEntity.status(HttpStatus.CREATED)
+        .header("Idempotent-Replayed", String.valueOf(order.replayed()))
+        .body(order.orderId());
+  }
+
+  @PostMapping("/batch")
+  @ResponseStatus(HttpStatus.CREATED)
+  public OrderBatchResponse createOrders(@RequestBody @Valid OrderBatchRequest request) {
+    return orderService.createOrders(request.orders());
+  }
+
+  @GetMapping("/{id}")
+  public OrderResponse getOrder(
+      @PathVariable Long id, @RequestParam(defaultValue = "full") String plan) {
+    return orderService
+        .findOrder(id, fetchPlan(plan))
+        .orElseThrow(
+            () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order " + id + " not found"));
+  }
+
+  @GetMapping
+  public Page<OrderResponse> getOrders(
+      @RequestParam(defaultValue = "summary") String plan,
+      @PageableDefault(size = 50, sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+    return orderService.findOrders(fetchPlan(plan), pageable);
+  }
+
+  @GetMapping("/summaries")
+  public Page<OrderSummary> getOrderSummaries(
+      @PageableDefault(size = 50, sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+    return orderService.findOrderSummaries(pageable);
+  }
+
+  @GetMapping("/largest")
+  public List<OrderSummary> getLargestOrders(
+      @RequestParam(defaultValue = "0") BigDecimal minTotal,
+      @RequestParam(defaultValue = "50") @Min(1) @Max(1000) int size) {
+    return orderService.findLargestOrders(minTotal, size);
+  }
+
+  /** Orders created in {@code [from, to)}, {@code to} defaults to now. */
+  @GetMapping("/created")
+  public List<OrderSummary> getOrdersCreatedBetween(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          OffsetDateTime to,
+      @RequestParam(defaultValue = "50") @Min(1) @Max(1000) int size) {
+    return orderService.findOrdersCreatedBetween(
+        from, Objects.requireNonNullElseGet(to, OffsetDateTime::now), size);
+  }
+
+  @GetMapping("/history")
+  public CursorPage<OrderSummary> getOrderHistory(
+      @RequestParam(required = false) Long deliveryAddressId,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "50") @Min(1) @Max(1000) int size) {
+    OrderCursor position =
+        cursor == null ? OrderCursor.first(deliveryAddressId) : decodeCursor(cursor);
+    if (!Objects.equals(position.deliveryAddressId(), deliveryAddressId)) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Cursor belongs to another delivery address");
+    }
+    return orderService.findOrderHistory(position, size);
+  }
+
+  @GetMapping("/{id}/items")
+  public List<OrderItemLine> getOrderLines(@PathVariable Long id) {
+    return orderService.findOrderLines(id);
+  }
+
+  @PostMapping("/{id}/items")
+  public OrderResponse addOrderItem(
+      @PathVariable Long id, @RequestBody @Valid OrderItemRequest request) {
+    return orderService
+        .addOrderItem(id, request)
+        .orElseThrow(
+            () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order " + id + " not found"));
+  }
+
+  @PutMapping("/{id}/items/{itemId}")
+  public OrderResponse changeOrderItemAmount(
+      @PathVariable Long id,
+      @PathVariable Long itemId,
+      @RequestBody @Valid OrderItemAmountRequest request) {
+    return orderService
+        .changeOrderItemAmount(id, itemId, request.amount())
+        .orElseThrow(
+            () ->
+                new ResponseStatusException(
+                    HttpStatus.NOT_FOUND, "Order " + id + " has no item " + itemId));
+  }
+
+  /** An update that still conflicted after its last retry, the client may send it again. */
+  @ExceptionHandler(ConcurrencyFailureException.class)
+  public ProblemDetail handleConflict(ConcurrencyFailureException e) {
+    return ProblemDetail.forStatusAndDetail(
+        HttpStatus.CONFLICT, "The order was changed concurrently, try again");
+  }
+
+  @ExceptionHandler(IdempotencyKeyReusedException.class)
+  public ProblemDetail handleReusedKey(IdempotencyKeyReusedException e) {
+    return ProblemDetail.forStatusAndDetail(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage());
+  }
+
+  @GetMapping("/{id}/price")
+  public OrderPriceResponse getOrderPrice(
+      @PathVariable Long id,
+      @RequestParam(defaultValue = "0") @Min(0) @Max(10_000) int discountBasisPoints) {
+    return orderPricingService
+        .priceOrder(id, discountBasisPoints)
+        .orElseThrow(
+            () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order " + id + " not found"));
+  }
+
+  private static OrderCursor decodeCursor(String cursor) {
+    return OrderCursor.decode(cursor)
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor"));
+  }
+
+  private static OrderFetchPlan fetchPlan(String plan) {
+    return OrderFetchPlan.forName(plan)
+        .orElseThrow(
+            () ->
+                new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown fetch plan " + plan));
+  }
+}
@@ -0,0 +1,42 @@
+package project.orderservice.controller;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import project.orderservice.dto.OrderDetails;
+import project.orderservice.dto.OrderSummary;
+import project.orderservice.service.ReactiveOrderReader;
+import reactor.core.publisher.Flux;
+
+/**
+ * Streams orders as NDJSON or Server-Sent Events, depending on the Accept header, while the rows
+ * arrive. Spring MVC requests the next element only once the previous one is written, so a slow
+ * client slows down the query instead of filling memory.
+ */
+@RestController
+@RequestMapping("/orders/stream")
+@RequiredArgsConstructor
+public class OrderStreamController {
+
+  private final ReactiveOrderReader reactiveOrderReader;
+
+  @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+  public Flux<OrderSummary> streamOrderSummaries(
+      @RequestParam(required = false) Long deliveryAddressId) {
+    return reactiveOrderReader.streamSummaries(deliveryAddressId);
+  }
+
+  @GetMapping(
+      value = "/details",
+      produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+  public Flux<OrderDetails> streamOrderDetails(
+      @RequestParam @NotEmpty @Size(max = 1_000) List<Long> ids) {
+    return reactiveOrderReader.streamDetails(ids);
+  }
+}
@@ -0,0 +1,29 @@
+package project.orderservice.controller;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import project.orderservice.dto.ProductSearchHit;
+import project.orderservice.service.search.ProductSearchService;
+
+@RestController
+@RequestMapping("/products")
+@RequiredArgsConstructor
+public class ProductController {
+
+  private final ProductSearchService productSearchService;
+
+  /** Products whose name has words starting with the words of {@code q}, or similar to them. */
+  @GetMapping("/search")
+  public List<ProductSearchHit> search(
+      @RequestParam @NotBlank String q,
+      @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+    return productSearchService.search(q, limit);
+  }
+}
@@ -0,0 +1,64 @@
+package project.orderservice.controller;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.time.LocalDate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import project.orderservice.dto.CitySales;
+import project.orderservice.dto.ProductSales;
+import project.orderservice.dto.ProductSalesDay;
+import project.orderservice.dto.SalesReport;
+import project.orderservice.service.reporting.SalesReports;
+
+/** Sales by UTC day, e.g. {@code /reports/cities?from=2024-01-01&to=2024-12-31}. */
+@RestController
+@RequestMapping("/reports")
+@RequiredArgsConstructor
+public class ReportController {
+
+  private final SalesReports salesReports;
+
+  /** The sales of one product per day, days without sales are left out. */
+  @GetMapping("/products/{productId}/daily")
+  public SalesReport<ProductSalesDay> getProductDays(
+      @PathVariable long productId,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    checkRange(from, to);
+    return salesReports.productDays(productId, from, to);
+  }
+
+  /** The products with the highest revenue. */
+  @GetMapping("/products")
+  public SalesReport<ProductSales> getTopProducts(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @RequestParam(defaultValue = "20") @Min(1) @Max(1000) int limit) {
+    checkRange(from, to);
+    return salesReports.topProducts(from, to, limit);
+  }
+
+  /** The cities with the highest revenue, with their number of orders. */
+  @GetMapping("/cities")
+  public SalesReport<CitySales> getTopCities(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+    checkRange(from, to);
+    return salesReports.topCities(from, to, limit);
+  }
+
+  private static void checkRange(LocalDate from, LocalDate to) {
+    if (to.isBefore(from)) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "to is before from");
+    }
+  }
+}
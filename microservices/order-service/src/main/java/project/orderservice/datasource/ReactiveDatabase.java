@@ -0,0 +1,30 @@
+package project.orderservice.datasource;
+
+import io.r2dbc.pool.ConnectionPool;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * The R2DBC pool of the read-only reactive path. It is deliberately not registered as a {@code
+ * ConnectionFactory} bean: one in the context switches off the JDBC DataSource auto-configuration
+ * that JPA and Flyway run on.
+ */
+public class ReactiveDatabase implements DisposableBean {
+
+  private final ConnectionPool connectionPool;
+  private final DatabaseClient databaseClient;
+
+  public ReactiveDatabase(ConnectionPool connectionPool) {
+    this.connectionPool = connectionPool;
+    this.databaseClient = DatabaseClient.create(connectionPool);
+  }
+
+  public DatabaseClient client() {
+    return databaseClient;
+  }
+
+  @Override
+  public void destroy() {
+    connectionPool.dispose();
+  }
+}
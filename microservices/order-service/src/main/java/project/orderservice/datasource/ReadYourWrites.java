@@ -0,0 +1,51 @@
+package project.orderservice.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Remembers which clients committed a write in the last {@code window}, so their reads go to the
+ * primary until the replicas have caught up. A client is named by {@link #callAs}, for HTTP
+ * requests from a request header; without a name the current thread is the client, which covers a
+ * request that writes and then reads on its own thread.
+ */
+public class ReadYourWrites {
+
+  private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+
+  private final Duration window;
+  private final Cache<String, Boolean> recentWriters;
+
+  public ReadYourWrites(Duration window, long maximumClients) {
+    this.window = window;
+    this.recentWriters =
+        Caffeine.newBuilder().expireAfterWrite(window).maximumSize(maximumClients).build();
+  }
+
+  public static <T> T callAs(String client, Callable<T> action) throws Exception {
+    String previous = CLIENT.get();
+    CLIENT.set(client);
+    try {
+      return action.call();
+    } finally {
+      CLIENT.set(previous);
+    }
+  }
+
+  public String currentClient() {
+    String client = CLIENT.get();
+    return client != null ? client : "thread-" + Thread.currentThread().threadId();
+  }
+
+  public void recordWrite(String client) {
+    if (!window.isZero()) {
+      recentWriters.put(client, Boolean.TRUE);
+    }
+  }
+
+  public boolean isWithinWindow(String client) {
+    return recentWriters.getIfPresent(client) != null;
+  }
+}
@@ -0,0 +1,41 @@
+package project.orderservice.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/** Names the client of a request for {@link ReadYourWrites} after the value of a header. */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  private final String clientHeader;
+
+  public ReadYourWritesFilter(String clientHeader) {
+    this.clientHeader = clientHeader;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String client = request.getHeader(clientHeader);
+    if (client == null || client.isBlank()) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    try {
+      ReadYourWrites.callAs(
+          "client-" + client,
+          () -> {
+            filterChain.doFilter(request, response);
+            return null;
+          });
+    } catch (ServletException | IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ServletException(e);
+    }
+  }
+}
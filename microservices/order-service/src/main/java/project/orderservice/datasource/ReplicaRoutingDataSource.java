@@ -0,0 +1,100 @@
+package project.orderservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends the connections of read-only transactions to a replica and everything else to the primary.
+ * The decision is made when the connection is acquired, so it has to sit behind a {@link
+ * org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction manager opens
+ * a connection before the transaction is marked read only. A committed read-write transaction keeps
+ * the reads of its client on the primary for the {@link ReadYourWrites} window.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+  public enum Selection {
+    ROUND_ROBIN,
+    /** The replica with the fewest active and waiting connections in its pool. */
+    LEAST_LOADED
+  }
+
+  private static final String PRIMARY = "primary";
+
+  private final HikariDataSource primary;
+  private final List<HikariDataSource> replicas;
+  private final Selection selection;
+  private final ReadYourWrites readYourWrites;
+  private final AtomicInteger next = new AtomicInteger();
+
+  public ReplicaRoutingDataSource(
+      HikariDataSource primary,
+      List<HikariDataSource> replicas,
+      Selection selection,
+      ReadYourWrites readYourWrites) {
+    this.primary = primary;
+    this.replicas = List.copyOf(replicas);
+    this.selection = selection;
+    this.readYourWrites = readYourWrites;
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    for (int i = 0; i < this.replicas.size(); i++) {
+      targets.put(i, this.replicas.get(i));
+    }
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    setLenientFallback(false);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      if (TransactionSynchronizationManager.isSynchronizationActive()) {
+        String client = readYourWrites.currentClient();
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+              @Override
+              public void afterCommit() {
+                readYourWrites.recordWrite(client);
+              }
+            });
+      }
+      return PRIMARY;
+    }
+    if (replicas.isEmpty() || readYourWrites.isWithinWindow(readYourWrites.currentClient())) {
+      return PRIMARY;
+    }
+    return switch (selection) {
+      case ROUND_ROBIN -> Math.floorMod(next.getAndIncrement(), replicas.size());
+      case LEAST_LOADED -> leastLoaded();
+    };
+  }
+
+  @Override
+  public void close() {
+    replicas.forEach(HikariDataSource::close);
+    primary.close();
+  }
+
+  private int leastLoaded() {
+    int best = 0;
+    int bestLoad = Integer.MAX_VALUE;
+    for (int i = 0; i < replicas.size(); i++) {
+      var pool = replicas.get(i).getHikariPoolMXBean();
+      int load =
+          pool == null ? 0 : pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+      if (load < bestLoad) {
+        best = i;
+        bestLoad = load;
+      }
+    }
+    return best;
+  }
+}
@@ -0,0 +1,10 @@
+package project.orderservice.dto;
+
+import java.time.OffsetDateTime;
+
+public record ArchiveResult(
+    OffsetDateTime cutoff,
+    long ordersArchived,
+    long itemsArchived,
+    int chunks,
+    long durationMillis) {}
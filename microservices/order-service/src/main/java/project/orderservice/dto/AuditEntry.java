@@ -0,0 +1,8 @@
+package project.orderservice.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record AuditEntry(
+    UUID transactionId, String operation, JsonNode changes, OffsetDateTime changedAt) {}
@@ -0,0 +1,5 @@
+package project.orderservice.dto;
+
+import java.math.BigDecimal;
+
+public record CitySales(String city, long orderCount, long itemCount, BigDecimal revenue) {}
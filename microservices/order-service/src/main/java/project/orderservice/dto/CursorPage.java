@@ -0,0 +1,6 @@
+package project.orderservice.dto;
+
+import java.util.List;
+
+/** A page of a keyset scroll. {@code nextCursor} is null on the last page. */
+public record CursorPage<T>(List<T> content, String nextCursor) {}
@@ -0,0 +1,4 @@
+package project.orderservice.dto;
+
+public record DeliveryAddressRequest(
+    String street, String city, String state, String country, String postalCode) {}
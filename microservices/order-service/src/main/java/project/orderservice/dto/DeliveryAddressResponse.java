@@ -0,0 +1,17 @@
+package project.orderservice.dto;
+
+import project.orderservice.model.DeliveryAddress;
+
+public record DeliveryAddressResponse(
+    Long id, String street, String city, String state, String country, String postalCode) {
+
+  public static DeliveryAddressResponse from(DeliveryAddress address) {
+    return new DeliveryAddressResponse(
+        address.getId(),
+        address.getStreet(),
+        address.getCity(),
+        address.getState(),
+        address.getCountry(),
+        address.getPostalCode());
+  }
+}
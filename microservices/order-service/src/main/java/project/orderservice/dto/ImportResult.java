@@ -0,0 +1,10 @@
+package project.orderservice.dto;
+
+public record ImportResult(
+    String table,
+    long rowsCopied,
+    long rowsRejected,
+    long rowsMerged,
+    long bytesRead,
+    long durationMillis,
+    double rowsPerSecond) {}
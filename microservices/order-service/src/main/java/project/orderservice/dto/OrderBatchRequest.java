@@ -0,0 +1,8 @@
+package project.orderservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record OrderBatchRequest(@NotEmpty @Size(max = 10_000) List<@Valid OrderRequest> orders) {}
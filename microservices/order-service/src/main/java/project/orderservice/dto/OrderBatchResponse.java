@@ -0,0 +1,5 @@
+package project.orderservice.dto;
+
+import java.util.List;
+
+public record OrderBatchResponse(int orderCount, int itemCount, List<Long> orderIds) {}
@@ -0,0 +1,11 @@
+package project.orderservice.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/** An order with its items, as streamed by the reactive read path. */
+public record OrderDetails(Long id, String city, List<Line> items) {
+
+  public record Line(
+      Long id, Long productId, String productName, BigDecimal amount, BigDecimal price) {}
+}
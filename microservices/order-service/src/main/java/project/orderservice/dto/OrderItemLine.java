@@ -0,0 +1,20 @@
+package project.orderservice.dto;
+
+import java.math.BigDecimal;
+
+/** Interface projection of an order item joined with its product. */
+public interface OrderItemLine {
+  Long getId();
+
+  Long getOrderId();
+
+  Long getProductId();
+
+  String getProductName();
+
+  BigDecimal getAmount();
+
+  BigDecimal getPrice();
+
+  BigDecimal getLineTotal();
+}
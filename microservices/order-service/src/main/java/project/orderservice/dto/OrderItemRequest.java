@@ -0,0 +1,10 @@
+package project.orderservice.dto;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.math.BigDecimal;
+
+public record OrderItemRequest(
+    @NotNull Long productId,
+    @NotNull @Positive @Digits(integer = 15, fraction = 3) BigDecimal amount) {}
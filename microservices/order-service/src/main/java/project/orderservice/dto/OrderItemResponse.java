@@ -0,0 +1,20 @@
+package project.orderservice.dto;
+
+import java.math.BigDecimal;
+import project.orderservice.model.OrderItem;
+import project.orderservice.model.Product;
+
+/** An order item. Product name and price are only set when the product was fetched. */
+public record OrderItemResponse(
+    Long id, BigDecimal amount, Long productId, String productName, BigDecimal productPrice) {
+
+  public static OrderItemResponse from(OrderItem item, boolean withProduct) {
+    Product product = item.getProduct();
+    return new OrderItemResponse(
+        item.getId(),
+        item.getAmount(),
+        product.getId(),
+        withProduct ? product.getName() : null,
+        withProduct ? product.getPrice() : null);
+  }
+}
@@ -0,0 +1,18 @@
+package project.orderservice.dto;
+
+import java.math.BigDecimal;
+import project.orderservice.service.pricing.Money;
+import project.orderservice.service.pricing.OrderPrice;
+
+public record OrderPriceResponse(
+    Long orderId, BigDecimal subtotal, BigDecimal discount, BigDecimal tax, BigDecimal total) {
+
+  public static OrderPriceResponse from(Long orderId, OrderPrice price) {
+    return new OrderPriceResponse(
+        orderId,
+        new Money(price.subtotal()).toBigDecimal(),
+        new Money(price.discount()).toBigDecimal(),
+        new Money(price.tax()).toBigDecimal(),
+        new Money(price.total()).toBigDecimal());
+  }
+}
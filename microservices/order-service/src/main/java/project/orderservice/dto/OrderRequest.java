@@ -0,0 +1,10 @@
+package project.orderservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+public record OrderRequest(
+    @NotNull @Valid DeliveryAddressRequest deliveryAddress,
+    @NotEmpty List<@Valid OrderItemRequest> items) {}
@@ -0,0 +1,23 @@
+package project.orderservice.dto;
+
+import java.util.Comparator;
+import java.util.List;
+import project.orderservice.model.Order;
+import project.orderservice.repository.OrderFetchPlan;
+
+/** An order rendered with the given fetch plan. Items are null for the summary plan. */
+public record OrderResponse(
+    Long id, DeliveryAddressResponse deliveryAddress, List<OrderItemResponse> items) {
+
+  public static OrderResponse from(Order order, OrderFetchPlan plan) {
+    List<OrderItemResponse> items =
+        plan == OrderFetchPlan.SUMMARY
+            ? null
+            : order.getOrderItemList().stream()
+                .map(item -> OrderItemResponse.from(item, plan == OrderFetchPlan.FULL))
+                .sorted(Comparator.comparing(OrderItemResponse::id))
+                .toList();
+    return new OrderResponse(
+        order.getId(), DeliveryAddressResponse.from(order.getDeliveryAddress()), items);
+  }
+}
@@ -0,0 +1,12 @@
+package project.orderservice.dto;
+
+import java.math.BigDecimal;
+
+/** List view of an order, read from the precomputed totals without loading any entity. */
+public record OrderSummary(Long id, String city, Long itemCount, BigDecimal total) {
+
+  public OrderSummary {
+    // guards summaries built from an aggregate, where SUM over no items is NULL
+    total = total == null ? BigDecimal.ZERO : total;
+  }
+}
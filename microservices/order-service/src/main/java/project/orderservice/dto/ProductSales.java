@@ -0,0 +1,6 @@
+package project.orderservice.dto;
+
+import java.math.BigDecimal;
+
+public record ProductSales(
+    long productId, String name, long itemCount, BigDecimal quantity, BigDecimal revenue) {}
@@ -0,0 +1,7 @@
+package project.orderservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record ProductSalesDay(
+    LocalDate day, long productId, long itemCount, BigDecimal quantity, BigDecimal revenue) {}
@@ -0,0 +1,7 @@
+package project.orderservice.dto;
+
+import java.math.BigDecimal;
+
+/** A product found by a search, {@code fuzzy} when only the similarity of a misspelling matched. */
+public record ProductSearchHit(
+    Long id, String name, BigDecimal price, double score, boolean fuzzy) {}
@@ -0,0 +1,12 @@
+package project.orderservice.dto;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Sales of the days {@code from} to {@code to}, both included. Changes committed after {@code
+ * refreshedAt} may be missing.
+ */
+public record SalesReport<T>(
+    LocalDate from, LocalDate to, OffsetDateTime refreshedAt, List<T> rows) {}
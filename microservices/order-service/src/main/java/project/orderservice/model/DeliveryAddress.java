@@ -16,7 +16,11 @@ import lombok.*;
 public class DeliveryAddress {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "delivery_address_seq")
+  @SequenceGenerator(
+      name = "delivery_address_seq",
+      sequenceName = "delivery_address_delivery_address_id_seq",
+      allocationSize = 50)
   @Column(name = "delivery_address_id")
   private Long id;
 
@@ -35,6 +39,10 @@ public class DeliveryAddress {
   @Column(name = "postal_code")
   private String postalCode;
 
+  /** SHA-256 of the normalized address, null until the row was deduplicated. */
+  @Column(name = "address_hash")
+  private String addressHash;
+
   @OneToMany(mappedBy = "deliveryAddress", fetch = FetchType.LAZY, orphanRemoval = true)
   @EqualsAndHashCode.Exclude
   @ToString.Exclude
@@ -3,12 +3,27 @@ package project.orderservice.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.HashSet;
 import java.util.Set;
 import lombok.*;
 
 @Entity
 @Table(name = "orders")
+@NamedEntityGraph(name = "Order.summary", attributeNodes = @NamedAttributeNode("deliveryAddress"))
+@NamedEntityGraph(
+    name = "Order.withItems",
+    attributeNodes = {@NamedAttributeNode("deliveryAddress"), @NamedAttributeNode("orderItemList")})
+@NamedEntityGraph(
+    name = "Order.full",
+    attributeNodes = {
+      @NamedAttributeNode("deliveryAddress"),
+      @NamedAttributeNode(value = "orderItemList", subgraph = "Order.full.items")
+    },
+    subgraphs =
+        @NamedSubgraph(name = "Order.full.items", attributeNodes = @NamedAttributeNode("product")))
 @Getter
 @Setter
 @ToString
@@ -18,10 +33,16 @@ import lombok.*;
 public class Order {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+  @SequenceGenerator(name = "orders_seq", sequenceName = "orders_order_id_seq", allocationSize = 50)
   @Column(name = "order_id")
   private Long id;
 
+  /** Bumped by every change of the order or its items, see OrderService#addOrderItem. */
+  @Version
+  @Column(name = "version")
+  private Long version;
+
   @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
   @JoinColumn(name = "delivery_address_id")
   @NotNull
@@ -38,6 +59,25 @@ public class Order {
   @NotEmpty
   private Set<OrderItem> orderItemList = new HashSet<>();
 
+  /** Maintained by database triggers on order_item and product, as of the last load. */
+  @Column(name = "order_total", precision = 18, scale = 2, insertable = false, updatable = false)
+  private BigDecimal orderTotal;
+
+  @Column(name = "item_count", insertable = false, updatable = false)
+  private Integer itemCount;
+
+  /** The partition key, set on persist. The items copy it for their FK to the order. */
+  @Column(name = "created_at", updatable = false)
+  private OffsetDateTime createdAt;
+
+  @PrePersist
+  void initCreatedAt() {
+    if (createdAt == null) {
+      // the precision of timestamptz, so the value read back equals the one the items copied
+      createdAt = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+  }
+
   public void addOrderItem(OrderItem orderItem) {
     orderItemList.add(orderItem);
     orderItem.setOrder(this);
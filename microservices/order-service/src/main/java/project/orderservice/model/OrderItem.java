@@ -3,6 +3,8 @@ package project.orderservice.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 import lombok.*;
 
 @Entity
@@ -15,19 +17,53 @@ import lombok.*;
 @Builder
 public class OrderItem {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+  @SequenceGenerator(
+      name = "order_item_seq",
+      sequenceName = "order_item_order_item_id_seq",
+      allocationSize = 50)
   @Column(name = "order_item_id")
   private Long id;
 
-  @Column(name = "amount")
+  @Version
+  @Column(name = "version")
+  private Long version;
+
+  @Column(name = "amount", precision = 18, scale = 3)
   private BigDecimal amount;
 
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "order_id")
   private Order order;
 
+  /** Creation time of the order, the partition key of order_item and part of its FK. */
+  @Column(name = "order_created_at")
+  private OffsetDateTime orderCreatedAt;
+
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "product_id")
   @NotNull
   private Product product;
+
+  @PrePersist
+  @PreUpdate
+  void copyOrderCreatedAt() {
+    if (order != null) {
+      if (order.getCreatedAt() == null) {
+        if (order.getId() != null) {
+          // any other time would not match the FK to the order
+          throw new IllegalStateException(
+              "Order %s of item %s is not loaded, its creation time is unknown"
+                  .formatted(order.getId(), id));
+        }
+        // the new order takes its creation time now and keeps it when it is persisted
+        order.initCreatedAt();
+      }
+      orderCreatedAt = order.getCreatedAt();
+    } else if (orderCreatedAt == null) {
+      // without an order there is no FK to match, the time only picks the partition; the order's
+      // time replaces it when the item is added to an order
+      orderCreatedAt = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+  }
 }
@@ -0,0 +1,41 @@
+package project.orderservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/** An event waiting in the outbox. Written through JPA, read and deleted by the relay over JDBC. */
+@Entity
+@Table(name = "outbox_event")
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OutboxEvent {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+  @SequenceGenerator(
+      name = "outbox_event_seq",
+      sequenceName = "outbox_event_outbox_event_id_seq",
+      allocationSize = 50)
+  @Column(name = "outbox_event_id")
+  private Long id;
+
+  @Column(name = "aggregate_type")
+  private String aggregateType;
+
+  @Column(name = "aggregate_id")
+  private Long aggregateId;
+
+  @Column(name = "event_type")
+  private String eventType;
+
+  /** The event as JSON text. */
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(name = "payload")
+  private String payload;
+}
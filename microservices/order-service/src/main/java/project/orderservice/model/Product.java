@@ -3,9 +3,13 @@ package project.orderservice.model;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "product")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
 @Getter
 @Setter
 @ToString
@@ -15,13 +19,17 @@ import lombok.*;
 public class Product {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+  @SequenceGenerator(
+      name = "product_seq",
+      sequenceName = "product_product_id_seq",
+      allocationSize = 50)
   @Column(name = "product_id")
   private Long id;
 
   @Column(name = "name")
   private String name;
 
-  @Column(name = "price")
+  @Column(name = "price", precision = 18, scale = 2)
   private BigDecimal price;
 }
@@ -0,0 +1,47 @@
+package project.orderservice.monitoring;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+/** Repository proxy advice that hands the statement counts of each call to the recorder. */
+public class RepositoryStatementInterceptor implements MethodInterceptor {
+
+  private final String repository;
+  private final Supplier<RepositoryStatementRecorder> recorder;
+  private final Map<Method, Optional<Integer>> budgets = new ConcurrentHashMap<>();
+
+  public RepositoryStatementInterceptor(
+      Class<?> repositoryInterface, Supplier<RepositoryStatementRecorder> recorder) {
+    this.repository = repositoryInterface.getSimpleName();
+    this.recorder = recorder;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    long queries = StatementCounter.queries();
+    long statements = StatementCounter.statements();
+    Object result = invocation.proceed();
+    Method method = invocation.getMethod();
+    recorder
+        .get()
+        .record(
+            repository,
+            method.getName(),
+            StatementCounter.queries() - queries,
+            StatementCounter.statements() - statements,
+            budgets.computeIfAbsent(method, RepositoryStatementInterceptor::budget).orElse(null));
+    return result;
+  }
+
+  private static Optional<Integer> budget(Method method) {
+    return Optional.ofNullable(
+            AnnotatedElementUtils.findMergedAnnotation(method, StatementBudget.class))
+        .map(StatementBudget::value);
+  }
+}
@@ -0,0 +1,100 @@
+package project.orderservice.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects the queries and statements of every repository method call, as {@code
+ * repository.queries} and {@code repository.statements} meters and as totals for the {@code
+ * statements} actuator endpoint, and enforces {@link StatementBudget}s.
+ */
+@Slf4j
+public class RepositoryStatementRecorder {
+
+  private final MeterRegistry meterRegistry;
+  private final int warnThreshold;
+  private final boolean failOnBudget;
+  private final Map<String, MethodStatistics> statistics = new ConcurrentHashMap<>();
+
+  public RepositoryStatementRecorder(
+      MeterRegistry meterRegistry, int warnThreshold, boolean failOnBudget) {
+    this.meterRegistry = meterRegistry;
+    this.warnThreshold = warnThreshold;
+    this.failOnBudget = failOnBudget;
+  }
+
+  /** Records one call; {@code budget} is null when the method has none. */
+  void record(String repository, String method, long queries, long statements, Integer budget) {
+    String name = repository + "." + method;
+    statistics.computeIfAbsent(name, key -> new MethodStatistics(budget)).add(queries, statements);
+    if (meterRegistry != null) {
+      summary("repository.queries", repository, method).record(queries);
+      summary("repository.statements", repository, method).record(statements);
+    }
+
+    if (budget != null && queries > budget) {
+      if (meterRegistry != null) {
+        Counter.builder("repository.queries.over.budget")
+            .tag("repository", repository)
+            .tag("method", method)
+            .register(meterRegistry)
+            .increment();
+      }
+      log.warn("{} ran {} queries, its budget is {}", name, queries, budget);
+      if (failOnBudget) {
+        throw new StatementBudgetExceededException(name, queries, budget);
+      }
+    } else if (budget == null && queries > warnThreshold) {
+      log.warn("Possible N+1 select: {} ran {} queries", name, queries);
+    }
+  }
+
+  public Map<String, MethodStatements> statistics() {
+    Map<String, MethodStatements> snapshot = new TreeMap<>();
+    statistics.forEach((name, method) -> snapshot.put(name, method.snapshot()));
+    return snapshot;
+  }
+
+  private DistributionSummary summary(String name, String repository, String method) {
+    return DistributionSummary.builder(name)
+        .baseUnit("statements")
+        .tag("repository", repository)
+        .tag("method", method)
+        .register(meterRegistry);
+  }
+
+  public record MethodStatements(
+      long calls, long queries, long statements, long maxQueries, Integer budget) {}
+
+  private static final class MethodStatistics {
+
+    private final Integer budget;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAccumulator maxQueries = new LongAccumulator(Math::max, 0);
+
+    private MethodStatistics(Integer budget) {
+      this.budget = budget;
+    }
+
+    private void add(long queryCount, long statementCount) {
+      calls.increment();
+      queries.add(queryCount);
+      statements.add(statementCount);
+      maxQueries.accumulate(queryCount);
+    }
+
+    private MethodStatements snapshot() {
+      return new MethodStatements(
+          calls.sum(), queries.sum(), statements.sum(), maxQueries.get(), budget);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package project.orderservice.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records the statements of every HTTP request as {@code http.server.requests.statements} and warns
+ * about requests whose query count hints at an N+1 select.
+ */
+@Slf4j
+public class RequestStatementFilter extends OncePerRequestFilter {
+
+  private final MeterRegistry meterRegistry;
+  private final int warnThreshold;
+
+  public RequestStatementFilter(MeterRegistry meterRegistry, int warnThreshold) {
+    this.meterRegistry = meterRegistry;
+    this.warnThreshold = warnThreshold;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    long queries = StatementCounter.queries();
+    long statements = StatementCounter.statements();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      long requestQueries = StatementCounter.queries() - queries;
+      if (meterRegistry != null) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("http.server.requests.statements")
+            .baseUnit("statements")
+            .tag("method", request.getMethod())
+            .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+            .register(meterRegistry)
+            .record(StatementCounter.statements() - statements);
+      }
+      if (requestQueries > warnThreshold) {
+        log.warn(
+            "Possible N+1 select: {} {} ran {} queries",
+            request.getMethod(),
+            request.getRequestURI(),
+            requestQueries);
+      }
+    }
+  }
+}
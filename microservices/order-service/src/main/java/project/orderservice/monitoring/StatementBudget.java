@@ -0,0 +1,20 @@
+package project.orderservice.monitoring;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of queries a repository method may run, including the lazy loads it triggers
+ * before it returns. Calls over budget are logged and counted, and fail when {@code
+ * orderservice.statements.fail-on-budget} is set, as it is in the repository tests.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+
+  int value();
+}
@@ -0,0 +1,8 @@
+package project.orderservice.monitoring;
+
+public class StatementBudgetExceededException extends IllegalStateException {
+
+  public StatementBudgetExceededException(String method, long queries, int budget) {
+    super(method + " ran " + queries + " queries, its budget is " + budget);
+  }
+}
@@ -0,0 +1,44 @@
+package project.orderservice.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread. Registered through {@code
+ * hibernate.session_factory.statement_inspector}, so Hibernate creates the instance and the counts
+ * are kept in a thread local. Counters only grow; callers compare two readings. Statements issued
+ * with a plain JdbcTemplate are not seen.
+ */
+public class StatementCounter implements StatementInspector {
+
+  private static final ThreadLocal<Counts> COUNTS = ThreadLocal.withInitial(Counts::new);
+
+  @Override
+  public String inspect(String sql) {
+    Counts counts = COUNTS.get();
+    counts.statements++;
+    String start = sql.stripLeading();
+    if (start.regionMatches(true, 0, "select", 0, 6)
+        || start.regionMatches(true, 0, "with", 0, 4)) {
+      counts.queries++;
+    }
+    return sql;
+  }
+
+  /** All statements prepared on this thread so far. */
+  public static long statements() {
+    return COUNTS.get().statements;
+  }
+
+  /**
+   * Queries prepared on this thread so far. Budgets and N+1 warnings use queries only, so the
+   * inserts of an auto flush are not charged to the query that triggered it.
+   */
+  public static long queries() {
+    return COUNTS.get().queries;
+  }
+
+  private static final class Counts {
+    private long statements;
+    private long queries;
+  }
+}
@@ -0,0 +1,21 @@
+package project.orderservice.monitoring;
+
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/** {@code /actuator/statements}: query and statement totals per repository method. */
+@Endpoint(id = "statements")
+public class StatementsEndpoint {
+
+  private final RepositoryStatementRecorder recorder;
+
+  public StatementsEndpoint(RepositoryStatementRecorder recorder) {
+    this.recorder = recorder;
+  }
+
+  @ReadOperation
+  public Map<String, RepositoryStatementRecorder.MethodStatements> statements() {
+    return recorder.statistics();
+  }
+}
@@ -0,0 +1,28 @@
+package project.orderservice.repository;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/** How much of the order graph is loaded together with the {@code orders} rows. */
+public enum OrderFetchPlan {
+  /** The order and its delivery address. */
+  SUMMARY("summary"),
+  /** The summary plus the order items, without their products. */
+  WITH_ITEMS("with-items"),
+  /** The whole graph: address, items and the product of every item. */
+  FULL("full");
+
+  private final String planName;
+
+  OrderFetchPlan(String planName) {
+    this.planName = planName;
+  }
+
+  public String planName() {
+    return planName;
+  }
+
+  public static Optional<OrderFetchPlan> forName(String planName) {
+    return Arrays.stream(values()).filter(plan -> plan.planName.equals(planName)).findFirst();
+  }
+}
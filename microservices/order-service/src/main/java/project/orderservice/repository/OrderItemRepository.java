@@ -1,6 +1,30 @@
 package project.orderservice.repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+import project.orderservice.dto.OrderItemLine;
 import project.orderservice.model.OrderItem;
+import project.orderservice.monitoring.StatementBudget;
 
-public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {}
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+  @StatementBudget(1)
+  @Transactional(readOnly = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query(
+      """
+      select i.id as id, o.id as orderId, p.id as productId, p.name as productName,
+             i.amount as amount, p.price as price, round(i.amount * p.price, 2) as lineTotal
+      from OrderItem i
+      join i.order o
+      join i.product p
+      where o.id = :orderId
+      order by i.id
+      """)
+  List<OrderItemLine> findLinesByOrderId(Long orderId);
+}
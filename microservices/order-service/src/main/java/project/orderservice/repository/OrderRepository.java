@@ -1,6 +1,168 @@
 package project.orderservice.repository;
 
+import jakarta.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+import project.orderservice.dto.OrderSummary;
 import project.orderservice.model.Order;
+import project.orderservice.monitoring.StatementBudget;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {}
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+  @EntityGraph("Order.summary")
+  @StatementBudget(1)
+  Optional<Order> findSummaryById(Long id);
+
+  @EntityGraph("Order.withItems")
+  @StatementBudget(1)
+  Optional<Order> findWithItemsById(Long id);
+
+  @EntityGraph("Order.full")
+  @StatementBudget(1)
+  Optional<Order> findFullById(Long id);
+
+  @EntityGraph("Order.summary")
+  @StatementBudget(1)
+  List<Order> findSummaryByIdIn(Collection<Long> ids);
+
+  @EntityGraph("Order.withItems")
+  @StatementBudget(1)
+  List<Order> findWithItemsByIdIn(Collection<Long> ids);
+
+  @EntityGraph("Order.full")
+  @StatementBudget(1)
+  List<Order> findFullByIdIn(Collection<Long> ids);
+
+  @StatementBudget(2)
+  @Query(value = "select o.id from Order o", countQuery = "select count(o) from Order o")
+  Page<Long> findIdPage(Pageable pageable);
+
+  @StatementBudget(2)
+  @Transactional(readOnly = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query(
+      value =
+          """
+          select new project.orderservice.dto.OrderSummary(
+              o.id, a.city, cast(o.itemCount as Long), o.orderTotal)
+          from Order o
+          left join o.deliveryAddress a
+          """,
+      countQuery = "select count(o) from Order o")
+  Page<OrderSummary> findSummaries(Pageable pageable);
+
+  @StatementBudget(1)
+  @Transactional(readOnly = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query(
+      """
+      select new project.orderservice.dto.OrderSummary(
+          o.id, a.city, cast(o.itemCount as Long), o.orderTotal)
+      from Order o
+      left join o.deliveryAddress a
+      where o.id in :ids
+      """)
+  List<OrderSummary> findSummariesByIdIn(Collection<Long> ids);
+
+  /** Largest orders first, served by the index on the precomputed total. */
+  @StatementBudget(1)
+  @Transactional(readOnly = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query(
+      """
+      select new project.orderservice.dto.OrderSummary(
+          o.id, a.city, cast(o.itemCount as Long), o.orderTotal)
+      from Order o
+      left join o.deliveryAddress a
+      where o.orderTotal > :minTotal
+      order by o.orderTotal desc, o.id desc
+      """)
+  List<OrderSummary> findSummariesByOrderTotalGreaterThan(BigDecimal minTotal, Limit limit);
+
+  /**
+   * Orders created in {@code [from, to)}, newest first. The bounds are on the partition key, so
+   * only the partitions of the months in the range are scanned.
+   */
+  @StatementBudget(1)
+  @Transactional(readOnly = true)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Query(
+      """
+      select new project.orderservice.dto.OrderSummary(
+          o.id, a.city, cast(o.itemCount as Long), o.orderTotal)
+      from Order o
+      left join o.deliveryAddress a
+      where o.createdAt >= :from and o.createdAt < :to
+      order by o.createdAt desc, o.id desc
+      """)
+  List<OrderSummary> findSummariesCreatedBetween(
+      OffsetDateTime from, OffsetDateTime to, Limit limit);
+
+  /** Keyset page of order ids, newest first, without OFFSET and without a count query. */
+  @StatementBudget(1)
+  @Query("select o.id from Order o where o.id < :beforeId order by o.id desc")
+  List<Long> findIdsBefore(long beforeId, Limit limit);
+
+  @StatementBudget(1)
+  @Query(
+      """
+      select o.id from Order o
+      where o.deliveryAddress.id = :deliveryAddressId and o.id < :beforeId
+      order by o.id desc
+      """)
+  List<Long> findIdsByDeliveryAddressBefore(Long deliveryAddressId, long beforeId, Limit limit);
+
+  @StatementBudget(1)
+  default Optional<Order> findById(Long id, OrderFetchPlan plan) {
+    return switch (plan) {
+      case SUMMARY -> findSummaryById(id);
+      case WITH_ITEMS -> findWithItemsById(id);
+      case FULL -> findFullById(id);
+    };
+  }
+
+  /**
+   * Pages through orders loading the given plan in two queries. Applying LIMIT/OFFSET to a
+   * collection fetch join would either cut an order's items or make Hibernate page in memory, so
+   * the page is selected on ids first and the graph is then fetched for exactly those ids.
+   */
+  @StatementBudget(3)
+  default Page<Order> findAll(OrderFetchPlan plan, Pageable pageable) {
+    Page<Long> ids = findIdPage(pageable);
+    if (ids.isEmpty()) {
+      return ids.<Order>map(id -> null);
+    }
+    List<Order> orders =
+        switch (plan) {
+          case SUMMARY -> findSummaryByIdIn(ids.getContent());
+          case WITH_ITEMS -> findWithItemsByIdIn(ids.getContent());
+          case FULL -> findFullByIdIn(ids.getContent());
+        };
+    // the IN query does not keep the order of the id page, and misses the orders deleted or
+    // archived since the ids were selected
+    Map<Long, Order> ordersById =
+        orders.stream().collect(Collectors.toMap(Order::getId, Function.identity()));
+    List<Order> content = ids.stream().map(ordersById::get).filter(Objects::nonNull).toList();
+    return new PageImpl<>(
+        content,
+        ids.getPageable(),
+        ids.getTotalElements() - (ids.getNumberOfElements() - content.size()));
+  }
+}
@@ -1,6 +1,19 @@
 package project.orderservice.repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import project.orderservice.model.Product;
+import project.orderservice.monitoring.StatementBudget;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {}
+/**
+ * Products are in the second-level cache, {@code findById} is served from it after the first load.
+ */
+public interface ProductRepository extends JpaRepository<Product, Long> {
+
+  @StatementBudget(1)
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  List<Product> findByName(String name);
+}
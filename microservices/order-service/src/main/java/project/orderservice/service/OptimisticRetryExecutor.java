@@ -0,0 +1,85 @@
+package project.orderservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs an update in a transaction of its own and runs it again in a new one when it lost an
+ * optimistic lock, or another concurrency conflict, to a concurrent transaction. Between attempts
+ * it backs off exponentially with full jitter, so the writers of a hot order spread out instead of
+ * colliding again. The last conflict is rethrown once {@code max-attempts} is reached.
+ */
+@Slf4j
+@Component
+public class OptimisticRetryExecutor {
+
+  private final TransactionTemplate transactionTemplate;
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+  private final Counter retries;
+  private final Counter exhausted;
+
+  public OptimisticRetryExecutor(
+      TransactionTemplate transactionTemplate,
+      ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${orderservice.retry.max-attempts:5}") int maxAttempts,
+      @Value("${orderservice.retry.initial-backoff:10ms}") Duration initialBackoff,
+      @Value("${orderservice.retry.max-backoff:500ms}") Duration maxBackoff) {
+    this.transactionTemplate = transactionTemplate;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+    MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    this.retries =
+        Counter.builder("optimistic.retries")
+            .description("Transactions run again after a concurrency conflict")
+            .register(registry);
+    this.exhausted =
+        Counter.builder("optimistic.retries.exhausted")
+            .description("Transactions that still conflicted after the last attempt")
+            .register(registry);
+  }
+
+  public <T> T execute(TransactionCallback<T> action) {
+    // a conflict marks an enclosing transaction rollback-only, running again inside it is useless
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      throw new IllegalStateException("Retried updates must not run in an existing transaction");
+    }
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transactionTemplate.execute(action);
+      } catch (ConcurrencyFailureException e) {
+        if (attempt >= maxAttempts) {
+          exhausted.increment();
+          throw e;
+        }
+        retries.increment();
+        log.debug("Attempt {} conflicted, retrying: {}", attempt, e.getMessage());
+        backOff(attempt);
+      }
+    }
+  }
+
+  private void backOff(int attempt) {
+    long ceiling =
+        Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted between retries", e);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package project.orderservice.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.orderservice.dto.ArchiveResult;
+
+/**
+ * Moves orders created before a cutoff, with their items, to the archive tables. Every chunk of
+ * {@code chunkSize} orders is deleted and archived by one statement in its own transaction, so
+ * locks are held for one chunk and the WAL is written in small steps, spread out by {@code pause}.
+ * A run that is interrupted or stops at {@code maxChunksPerRun} loses no work, the next run picks
+ * up the orders that are still old enough.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderArchiver {
+
+  /**
+   * The FK from order_item to orders is checked at the end of the statement, when the items of the
+   * chunk are gone as well. Orders locked by other transactions are skipped until the next chunk.
+   */
+  private static final String ARCHIVE_CHUNK =
+      """
+      WITH chunk AS (
+          SELECT order_id FROM orders
+          WHERE created_at < ?
+          ORDER BY created_at
+          LIMIT ?
+          FOR UPDATE SKIP LOCKED),
+      deleted_items AS (
+          DELETE FROM order_item i USING chunk c
+          WHERE i.order_id = c.order_id
+          RETURNING i.order_item_id, i.product_id, i.order_id, i.amount),
+      archived_items AS (
+          INSERT INTO order_item_archive (order_item_id, product_id, order_id, amount, price)
+          SELECT d.order_item_id, d.product_id, d.order_id, d.amount, p.price
+          FROM deleted_items d
+          LEFT JOIN product p ON p.product_id = d.product_id
+          RETURNING 1),
+      deleted_orders AS (
+          DELETE FROM orders o USING chunk c
+          WHERE o.order_id = c.order_id
+          RETURNING o.order_id, o.delivery_address_id, o.order_total, o.item_count, o.created_at),
+      archived_orders AS (
+          INSERT INTO orders_archive (order_id, delivery_address_id, order_total, item_count, created_at)
+          SELECT order_id, delivery_address_id, order_total, item_count, created_at
+          FROM deleted_orders
+          RETURNING 1)
+      SELECT (SELECT count(*) FROM archived_orders) AS orders,
+             (SELECT count(*) FROM archived_items) AS items
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${orderservice.archive.retention:730d}")
+  private Duration retention;
+
+  @Value("${orderservice.archive.chunk-size:1000}")
+  private int chunkSize;
+
+  @Value("${orderservice.archive.max-chunks-per-run:1000}")
+  private int maxChunksPerRun;
+
+  @Value("${orderservice.archive.pause:200ms}")
+  private Duration pause;
+
+  @Value("${orderservice.archive.lock-timeout:2s}")
+  private Duration lockTimeout;
+
+  @Scheduled(cron = "${orderservice.archive.cron:-}")
+  public ArchiveResult archive() {
+    return archiveOlderThan(OffsetDateTime.now().minus(retention));
+  }
+
+  public ArchiveResult archiveOlderThan(OffsetDateTime cutoff) {
+    long start = System.nanoTime();
+    long orders = 0;
+    long items = 0;
+    int chunks = 0;
+    while (chunks < maxChunksPerRun) {
+      Map<String, Object> archived =
+          transactionTemplate.execute(
+              status -> {
+                // a chunk waiting on a row lock fails instead of queueing the writers behind it
+                jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeout.toMillis());
+                // archived orders stay in the sales rollups, see V16
+                jdbcTemplate.execute("SET LOCAL orderservice.rollup_deltas = off");
+                return jdbcTemplate.queryForMap(ARCHIVE_CHUNK, cutoff, chunkSize);
+              });
+      long chunkOrders = ((Number) archived.get("orders")).longValue();
+      if (chunkOrders == 0) {
+        break;
+      }
+      orders += chunkOrders;
+      items += ((Number) archived.get("items")).longValue();
+      chunks++;
+      if (!pause.isZero()) {
+        try {
+          Thread.sleep(pause);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
+    ArchiveResult result =
+        new ArchiveResult(
+            cutoff, orders, items, chunks, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    log.info("Archive finished: {}", result);
+    return result;
+  }
+}
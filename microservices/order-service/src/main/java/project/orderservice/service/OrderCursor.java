@@ -0,0 +1,41 @@
+package project.orderservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Position in the order history, newest first: the next page starts below {@code beforeId}. The
+ * token is opaque to clients and bound to the delivery address filter it was created for.
+ */
+public record OrderCursor(Long deliveryAddressId, long beforeId) {
+
+  private static final String VERSION = "o1";
+
+  public static OrderCursor first(Long deliveryAddressId) {
+    return new OrderCursor(deliveryAddressId, Long.MAX_VALUE);
+  }
+
+  public static Optional<OrderCursor> decode(String token) {
+    try {
+      String[] parts =
+          new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", -1);
+      if (parts.length != 3 || !VERSION.equals(parts[0])) {
+        return Optional.empty();
+      }
+      Long deliveryAddressId = parts[1].isEmpty() ? null : Long.valueOf(parts[1]);
+      return Optional.of(new OrderCursor(deliveryAddressId, Long.parseLong(parts[2])));
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+
+  public String encode() {
+    String value =
+        VERSION + ":" + Objects.toString(deliveryAddressId, "") + ":" + Long.toString(beforeId);
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,104 @@
+package project.orderservice.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the monthly partitions of orders and order_item ahead of time and detaches the expired
+ * ones, with the functions of the V10 migration. New rows never have to fall back to the default
+ * partition, which would have to be scanned whenever a partition is created for their month. When
+ * the maintainer was late nonetheless, the partition takes the rows of its month out of the default
+ * partition (V18), which blocks the writes of the default partition meanwhile.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderPartitionMaintainer {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${orderservice.partitions.months-ahead:3}")
+  private int monthsAhead;
+
+  /** Months kept attached before the current one, 0 keeps every partition. */
+  @Value("${orderservice.partitions.retention-months:0}")
+  private int retentionMonths;
+
+  @Value("${orderservice.partitions.drop-detached:false}")
+  private boolean dropDetached;
+
+  @Value("${orderservice.partitions.lock-timeout:5s}")
+  private Duration lockTimeout;
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "${orderservice.partitions.maintenance-cron:-}")
+  public void maintain() {
+    createPartitions();
+    if (retentionMonths > 0) {
+      detachPartitionsBefore(
+          YearMonth.now(ZoneOffset.UTC)
+              .minusMonths(retentionMonths)
+              .atDay(1)
+              .atStartOfDay()
+              .atOffset(ZoneOffset.UTC));
+    }
+  }
+
+  /**
+   * Creates the partitions of the current and the next {@code monthsAhead} months, also those of
+   * the audit log. Audit partitions are never detached here, their retention is up to the auditors.
+   */
+  public int createPartitions() {
+    Integer created =
+        transactionTemplate.execute(
+            status -> {
+              // moving rows out of the default partition waits for its writers, like DETACH below
+              jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeout.toMillis());
+              return jdbcTemplate.queryForObject(
+                  "SELECT create_order_partitions(now(), ?) + create_audit_log_partitions(now(), ?)",
+                  Integer.class,
+                  monthsAhead + 1,
+                  monthsAhead + 1);
+            });
+    if (created != null && created > 0) {
+      log.info("Created {} order and audit log partitions", created);
+    }
+    return created == null ? 0 : created;
+  }
+
+  /**
+   * Detaches the partitions of the months that end on or before {@code before}, and drops them when
+   * {@code drop-detached} is set. Returns the names of the detached tables.
+   */
+  public List<String> detachPartitionsBefore(OffsetDateTime before) {
+    List<String> detached =
+        transactionTemplate.execute(
+            status -> {
+              // DETACH locks the whole table, give up instead of queueing every query behind it
+              jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeout.toMillis());
+              return jdbcTemplate.queryForList(
+                  "SELECT * FROM detach_order_partitions(?)", String.class, before);
+            });
+    if (detached.isEmpty()) {
+      return detached;
+    }
+    log.info("Detached order partitions {}", detached);
+    if (dropDetached) {
+      detached.forEach(table -> jdbcTemplate.execute("DROP TABLE " + table));
+    }
+    return detached;
+  }
+}
@@ -0,0 +1,204 @@
+package project.orderservice.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.orderservice.dto.CursorPage;
+import project.orderservice.dto.OrderBatchResponse;
+import project.orderservice.dto.OrderItemLine;
+import project.orderservice.dto.OrderItemRequest;
+import project.orderservice.dto.OrderRequest;
+import project.orderservice.dto.OrderResponse;
+import project.orderservice.dto.OrderSummary;
+import project.orderservice.model.DeliveryAddress;
+import project.orderservice.model.Order;
+import project.orderservice.model.OrderItem;
+import project.orderservice.model.Product;
+import project.orderservice.repository.OrderFetchPlan;
+import project.orderservice.repository.OrderItemRepository;
+import project.orderservice.repository.OrderRepository;
+import project.orderservice.service.address.DeliveryAddressStore;
+import project.orderservice.service.outbox.OutboxWriter;
+
+@Service
+@RequiredArgsConstructor
+public class OrderService {
+
+  private final EntityManager entityManager;
+  private final OrderRepository orderRepository;
+  private final OrderItemRepository orderItemRepository;
+  private final OutboxWriter outboxWriter;
+  private final OptimisticRetryExecutor optimisticRetryExecutor;
+  private final DeliveryAddressStore deliveryAddressStore;
+
+  @Value("${orderservice.batch.flush-size:1000}")
+  private int flushSize;
+
+  @Transactional
+  public Order createOrder(OrderRequest request) {
+    return persist(request);
+  }
+
+  /**
+   * Persists all orders in one transaction. Inserts are grouped into JDBC batches by Hibernate, and
+   * the persistence context is flushed and cleared every {@code flushSize} orders so its size stays
+   * bounded no matter how many orders are sent.
+   */
+  @Transactional
+  public OrderBatchResponse createOrders(List<OrderRequest> requests) {
+    List<Long> orderIds = new ArrayList<>(requests.size());
+    int itemCount = 0;
+    for (OrderRequest request : requests) {
+      Order order = persist(request);
+      orderIds.add(order.getId());
+      itemCount += order.getOrderItemList().size();
+      if (orderIds.size() % flushSize == 0) {
+        entityManager.flush();
+        entityManager.clear();
+      }
+    }
+    return new OrderBatchResponse(orderIds.size(), itemCount, orderIds);
+  }
+
+  /**
+   * Adds the amount to the order's line of the product, or a new line for it. The order's version
+   * is incremented even when only an item changes, so concurrent changes of one order conflict and
+   * the loser runs again on the new state instead of overwriting it.
+   */
+  public Optional<OrderResponse> addOrderItem(Long orderId, OrderItemRequest request) {
+    return optimisticRetryExecutor.execute(
+        status ->
+            findForUpdate(orderId)
+                .map(
+                    order -> {
+                      order.getOrderItemList().stream()
+                          .filter(item -> item.getProduct().getId().equals(request.productId()))
+                          .findFirst()
+                          .ifPresentOrElse(
+                              item -> item.setAmount(item.getAmount().add(request.amount())),
+                              () -> {
+                                OrderItem item =
+                                    OrderItem.builder()
+                                        .product(
+                                            entityManager.getReference(
+                                                Product.class, request.productId()))
+                                        .amount(request.amount())
+                                        .build();
+                                order.addOrderItem(item);
+                                entityManager.persist(item);
+                              });
+                      return OrderResponse.from(order, OrderFetchPlan.WITH_ITEMS);
+                    }));
+  }
+
+  /** Sets the amount of an order item, empty when the order has no such item. */
+  public Optional<OrderResponse> changeOrderItemAmount(
+      Long orderId, Long orderItemId, BigDecimal amount) {
+    return optimisticRetryExecutor.execute(
+        status ->
+            findForUpdate(orderId)
+                .flatMap(
+                    order ->
+                        order.getOrderItemList().stream()
+                            .filter(item -> item.getId().equals(orderItemId))
+                            .findFirst()
+                            .map(
+                                item -> {
+                                  item.setAmount(amount);
+                                  return OrderResponse.from(order, OrderFetchPlan.WITH_ITEMS);
+                                })));
+  }
+
+  @Transactional(readOnly = true)
+  public Optional<OrderResponse> findOrder(Long id, OrderFetchPlan plan) {
+    return orderRepository.findById(id, plan).map(order -> OrderResponse.from(order, plan));
+  }
+
+  @Transactional(readOnly = true)
+  public Page<OrderResponse> findOrders(OrderFetchPlan plan, Pageable pageable) {
+    return orderRepository.findAll(plan, pageable).map(order -> OrderResponse.from(order, plan));
+  }
+
+  @Transactional(readOnly = true)
+  public Page<OrderSummary> findOrderSummaries(Pageable pageable) {
+    return orderRepository.findSummaries(pageable);
+  }
+
+  @Transactional(readOnly = true)
+  public List<OrderSummary> findLargestOrders(BigDecimal minTotal, int size) {
+    return orderRepository.findSummariesByOrderTotalGreaterThan(minTotal, Limit.of(size));
+  }
+
+  @Transactional(readOnly = true)
+  public List<OrderSummary> findOrdersCreatedBetween(
+      OffsetDateTime from, OffsetDateTime to, int size) {
+    return orderRepository.findSummariesCreatedBetween(from, to, Limit.of(size));
+  }
+
+  /** Scrolls the order history, newest first, optionally for a single delivery address. */
+  @Transactional(readOnly = true)
+  public CursorPage<OrderSummary> findOrderHistory(OrderCursor cursor, int size) {
+    // one extra id tells whether there is a next page
+    Limit limit = Limit.of(size + 1);
+    List<Long> ids =
+        cursor.deliveryAddressId() == null
+            ? orderRepository.findIdsBefore(cursor.beforeId(), limit)
+            : orderRepository.findIdsByDeliveryAddressBefore(
+                cursor.deliveryAddressId(), cursor.beforeId(), limit);
+    boolean hasNext = ids.size() > size;
+    List<Long> pageIds = hasNext ? ids.subList(0, size) : ids;
+
+    List<OrderSummary> summaries =
+        pageIds.isEmpty()
+            ? List.of()
+            : orderRepository.findSummariesByIdIn(pageIds).stream()
+                .sorted(Comparator.comparing(OrderSummary::id).reversed())
+                .toList();
+    String nextCursor =
+        hasNext
+            ? new OrderCursor(cursor.deliveryAddressId(), pageIds.get(size - 1)).encode()
+            : null;
+    return new CursorPage<>(summaries, nextCursor);
+  }
+
+  @Transactional(readOnly = true)
+  public List<OrderItemLine> findOrderLines(Long orderId) {
+    return orderItemRepository.findLinesByOrderId(orderId);
+  }
+
+  private Optional<Order> findForUpdate(Long orderId) {
+    return Optional.ofNullable(
+        entityManager.find(Order.class, orderId, LockModeType.OPTIMISTIC_FORCE_INCREMENT));
+  }
+
+  private Order persist(OrderRequest request) {
+    // the row of an equal address is reused, it is only loaded when the address is read
+    DeliveryAddress deliveryAddress =
+        entityManager.getReference(
+            DeliveryAddress.class, deliveryAddressStore.upsert(request.deliveryAddress()));
+    Order order =
+        Order.builder().deliveryAddress(deliveryAddress).orderItemList(new HashSet<>()).build();
+    for (OrderItemRequest itemRequest : request.items()) {
+      // a reference is enough to set the FK, the product row is never selected
+      Product product = entityManager.getReference(Product.class, itemRequest.productId());
+      order.addOrderItem(OrderItem.builder().product(product).amount(itemRequest.amount()).build());
+    }
+    entityManager.persist(order);
+    order.getOrderItemList().forEach(entityManager::persist);
+    outboxWriter.orderCreated(order);
+    return order;
+  }
+}
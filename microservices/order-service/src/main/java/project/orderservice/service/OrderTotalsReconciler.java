@@ -0,0 +1,77 @@
+package project.orderservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Recomputes the precomputed order totals from the order items and repairs the orders whose stored
+ * values drifted, e.g. after triggers were disabled for a manual data fix. Orders are processed in
+ * id ranges of {@code chunkSize}, each range in its own transaction, so row locks stay short.
+ *
+ * <p>The orders of a range are locked before their totals are computed. The repair statement then
+ * sees every item change whose trigger already updated one of them, and the changes that commit
+ * later wait for the lock and add their difference to the repaired total. Without the lock a
+ * concurrent change would only be rechecked against the order row, and the total computed from the
+ * older snapshot would overwrite it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderTotalsReconciler {
+
+  private static final String LOCK_RANGE =
+      "SELECT order_id FROM orders WHERE order_id > ? AND order_id <= ? ORDER BY order_id FOR UPDATE";
+
+  private static final String REPAIR_RANGE =
+      """
+      UPDATE orders o
+      SET order_total = t.order_total, item_count = t.item_count
+      FROM (SELECT r.order_id,
+                   coalesce(sum(coalesce(round(i.amount * p.price, 2), 0)), 0) AS order_total,
+                   count(i.order_item_id) AS item_count
+            FROM orders r
+            LEFT JOIN order_item i ON i.order_id = r.order_id
+            LEFT JOIN product p ON p.product_id = i.product_id
+            WHERE r.order_id > ? AND r.order_id <= ?
+            GROUP BY r.order_id) t
+      WHERE o.order_id = t.order_id
+        AND (o.order_total <> t.order_total OR o.item_count <> t.item_count)
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${orderservice.totals.reconcile-chunk-size:10000}")
+  private long chunkSize;
+
+  /** Returns the number of repaired orders. */
+  @Scheduled(cron = "${orderservice.totals.reconcile-cron:-}")
+  public long reconcile() {
+    Long maxId = jdbcTemplate.queryForObject("SELECT max(order_id) FROM orders", Long.class);
+    if (maxId == null) {
+      return 0;
+    }
+    long repaired = 0;
+    for (long from = 0; from < maxId; from += chunkSize) {
+      long lower = from;
+      Integer updated =
+          transactionTemplate.execute(
+              status -> {
+                jdbcTemplate.queryForList(LOCK_RANGE, Long.class, lower, lower + chunkSize);
+                return jdbcTemplate.update(REPAIR_RANGE, lower, lower + chunkSize);
+              });
+      repaired += updated == null ? 0 : updated;
+    }
+    if (repaired > 0) {
+      log.warn("Repaired the totals of {} orders", repaired);
+    } else {
+      log.info("Order totals are consistent up to order {}", maxId);
+    }
+    return repaired;
+  }
+}
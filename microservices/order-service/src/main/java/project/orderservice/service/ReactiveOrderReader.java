@@ -0,0 +1,111 @@
+package project.orderservice.service;
+
+import io.r2dbc.spi.Readable;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import project.orderservice.datasource.ReactiveDatabase;
+import project.orderservice.dto.OrderDetails;
+import project.orderservice.dto.OrderSummary;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking order reads over R2DBC. Rows are fetched {@code fetchSize} at a time through a
+ * portal, so a slow subscriber holds back the query instead of buffering the whole result.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveOrderReader {
+
+  private static final String SUMMARIES =
+      """
+      SELECT o.order_id, a.city, o.item_count, o.order_total
+      FROM orders o
+      LEFT JOIN delivery_address a ON a.delivery_address_id = o.delivery_address_id
+      """;
+
+  private static final String DETAILS =
+      """
+      SELECT o.order_id, a.city, i.order_item_id, i.product_id, p.name, i.amount, p.price
+      FROM orders o
+      LEFT JOIN delivery_address a ON a.delivery_address_id = o.delivery_address_id
+      LEFT JOIN order_item i ON i.order_id = o.order_id
+      LEFT JOIN product p ON p.product_id = i.product_id
+      WHERE o.order_id = ANY(:ids)
+      ORDER BY o.order_id, i.order_item_id
+      """;
+
+  private final ReactiveDatabase reactiveDatabase;
+
+  @Value("${orderservice.r2dbc.fetch-size:256}")
+  private int fetchSize;
+
+  /** Order summaries, newest first, optionally of one delivery address. */
+  public Flux<OrderSummary> streamSummaries(Long deliveryAddressId) {
+    DatabaseClient.GenericExecuteSpec query =
+        deliveryAddressId == null
+            ? client().sql(SUMMARIES + "ORDER BY o.order_id DESC")
+            : client()
+                .sql(SUMMARIES + "WHERE o.delivery_address_id = :id ORDER BY o.order_id DESC")
+                .bind("id", deliveryAddressId);
+    return query
+        .filter(statement -> statement.fetchSize(fetchSize))
+        .map(
+            row ->
+                new OrderSummary(
+                    row.get("order_id", Long.class),
+                    row.get("city", String.class),
+                    row.get("item_count", Long.class),
+                    row.get("order_total", BigDecimal.class)))
+        .all();
+  }
+
+  /**
+   * Orders with their items in id order, from a single query. Each order is emitted as soon as the
+   * rows of the next one arrive.
+   */
+  public Flux<OrderDetails> streamDetails(Collection<Long> orderIds) {
+    return client()
+        .sql(DETAILS)
+        .bind("ids", orderIds.toArray(Long[]::new))
+        .filter(statement -> statement.fetchSize(fetchSize))
+        .map(ReactiveOrderReader::detailRow)
+        .all()
+        .bufferUntilChanged(DetailRow::orderId)
+        .map(ReactiveOrderReader::toOrderDetails);
+  }
+
+  private DatabaseClient client() {
+    return reactiveDatabase.client();
+  }
+
+  private static DetailRow detailRow(Readable row) {
+    Long itemId = row.get("order_item_id", Long.class);
+    return new DetailRow(
+        row.get("order_id", Long.class),
+        row.get("city", String.class),
+        itemId == null
+            ? null
+            : new OrderDetails.Line(
+                itemId,
+                row.get("product_id", Long.class),
+                row.get("name", String.class),
+                row.get("amount", BigDecimal.class),
+                row.get("price", BigDecimal.class)));
+  }
+
+  private static OrderDetails toOrderDetails(List<DetailRow> rows) {
+    DetailRow first = rows.get(0);
+    // an order without items comes as a single row without an item
+    List<OrderDetails.Line> items =
+        rows.stream().map(DetailRow::line).filter(Objects::nonNull).toList();
+    return new OrderDetails(first.orderId(), first.city(), items);
+  }
+
+  private record DetailRow(Long orderId, String city, OrderDetails.Line line) {}
+}
@@ -0,0 +1,228 @@
+package project.orderservice.service.address;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.orderservice.service.audit.AuditEventListener;
+import project.orderservice.service.audit.AuditedChange;
+import project.orderservice.service.audit.AuditedChange.Operation;
+import project.orderservice.service.audit.AuditedChange.ValueChange;
+
+/**
+ * Hashes the delivery addresses from before V15 and merges their duplicates, {@code batchSize}
+ * unhashed rows per transaction. The first row of an address, or the one already hashed, keeps its
+ * id and gets the normalized fields; the orders and archived orders of the other rows are repointed
+ * to it and the other rows are deleted. Rows locked by other transactions are skipped until the
+ * next run, a run that fails loses no work. The updated and deleted addresses and the repointed
+ * orders are audited.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeliveryAddressMerger {
+
+  private static final String LOCK_CHUNK =
+      """
+      SELECT delivery_address_id, street, city, state, country, postal_code
+      FROM delivery_address
+      WHERE address_hash IS NULL
+      ORDER BY delivery_address_id
+      LIMIT ?
+      FOR UPDATE SKIP LOCKED
+      """;
+  private static final String FIND_HASHED =
+      """
+      SELECT address_hash, delivery_address_id FROM delivery_address
+      WHERE address_hash = ANY(?::char(64)[])
+      """;
+  private static final String HASH =
+      """
+      UPDATE delivery_address
+      SET street = ?, city = ?, state = ?, country = ?, postal_code = ?, address_hash = ?
+      WHERE delivery_address_id = ?
+      """;
+  private static final String REPOINT_ORDERS =
+      """
+      UPDATE orders o SET delivery_address_id = m.survivor
+      FROM unnest(?::int[], ?::int[]) AS m(duplicate, survivor)
+      WHERE o.delivery_address_id = m.duplicate
+      RETURNING o.order_id, m.duplicate, m.survivor
+      """;
+  private static final String REPOINT_ARCHIVED_ORDERS =
+      """
+      UPDATE orders_archive o SET delivery_address_id = m.survivor
+      FROM unnest(?::int[], ?::int[]) AS m(duplicate, survivor)
+      WHERE o.delivery_address_id = m.duplicate
+      """;
+  private static final String DELETE_DUPLICATES =
+      "DELETE FROM delivery_address WHERE delivery_address_id = ANY(?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectProvider<AuditEventListener> auditEventListener;
+
+  @Value("${orderservice.address.merge-batch-size:1000}")
+  private int batchSize;
+
+  @Value("${orderservice.address.merge-pause:100ms}")
+  private Duration pause;
+
+  @Value("${orderservice.address.lock-timeout:2s}")
+  private Duration lockTimeout;
+
+  /** Returns the number of merged, i.e. deleted, duplicates. */
+  @Scheduled(cron = "${orderservice.address.merge-cron:-}")
+  public long merge() {
+    long hashed = 0;
+    long merged = 0;
+    while (true) {
+      Chunk chunk;
+      try {
+        chunk =
+            transactionTemplate.execute(
+                status -> {
+                  // repointing waits for no order locked by a request, the chunk fails instead
+                  jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeout.toMillis());
+                  return mergeChunk();
+                });
+      } catch (DuplicateKeyException e) {
+        // an order inserted one of the addresses meanwhile, the next attempt merges into its row
+        log.debug("Address hashed concurrently, retrying the chunk: {}", e.getMessage());
+        continue;
+      }
+      if (chunk.rows() == 0) {
+        break;
+      }
+      hashed += chunk.rows() - chunk.duplicates();
+      merged += chunk.duplicates();
+      if (!pause.isZero()) {
+        try {
+          Thread.sleep(pause);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
+    log.info("Hashed {} delivery addresses and merged {} duplicates", hashed, merged);
+    return merged;
+  }
+
+  private Chunk mergeChunk() {
+    List<Row> rows =
+        jdbcTemplate.query(
+            LOCK_CHUNK,
+            (rs, rowNum) ->
+                new Row(
+                    rs.getLong(1),
+                    NormalizedAddress.properties(
+                        rs.getString(2),
+                        rs.getString(3),
+                        rs.getString(4),
+                        rs.getString(5),
+                        rs.getString(6),
+                        null),
+                    NormalizedAddress.of(
+                        rs.getString(2),
+                        rs.getString(3),
+                        rs.getString(4),
+                        rs.getString(5),
+                        rs.getString(6))),
+            batchSize);
+    AuditEventListener audit = auditEventListener.getIfAvailable();
+    Map<String, List<Row>> rowsByHash = new LinkedHashMap<>();
+    rows.forEach(
+        row ->
+            rowsByHash.computeIfAbsent(row.address().hash(), hash -> new ArrayList<>()).add(row));
+
+    Map<String, Long> survivors = new HashMap<>();
+    jdbcTemplate.query(
+        FIND_HASHED,
+        rs -> {
+          survivors.put(rs.getString(1), rs.getLong(2));
+        },
+        (Object) rowsByHash.keySet().toArray(String[]::new));
+
+    List<Object[]> hashes = new ArrayList<>();
+    List<Row> duplicates = new ArrayList<>();
+    List<Long> survivorIds = new ArrayList<>();
+    rowsByHash.forEach(
+        (hash, addressRows) -> {
+          Long survivor = survivors.get(hash);
+          int first = 0;
+          if (survivor == null) {
+            Row row = addressRows.get(first++);
+            NormalizedAddress address = row.address();
+            survivor = row.id();
+            hashes.add(
+                new Object[] {
+                  address.street(),
+                  address.city(),
+                  address.state(),
+                  address.country(),
+                  address.postalCode(),
+                  hash,
+                  survivor
+                });
+            if (audit != null) {
+              audit.record(
+                  "DeliveryAddress",
+                  survivor,
+                  Operation.UPDATE,
+                  AuditedChange.changes(row.stored(), address.properties()));
+            }
+          }
+          for (Row duplicate : addressRows.subList(first, addressRows.size())) {
+            duplicates.add(duplicate);
+            survivorIds.add(survivor);
+          }
+        });
+    jdbcTemplate.batchUpdate(HASH, hashes);
+    if (!duplicates.isEmpty()) {
+      Long[] duplicateIds = duplicates.stream().map(Row::id).toArray(Long[]::new);
+      Long[] survivingIds = survivorIds.toArray(Long[]::new);
+      jdbcTemplate.query(
+          REPOINT_ORDERS,
+          rs -> {
+            if (audit != null) {
+              audit.record(
+                  "Order",
+                  rs.getLong(1),
+                  Operation.UPDATE,
+                  Map.of("deliveryAddress", new ValueChange(rs.getLong(2), rs.getLong(3))));
+            }
+          },
+          duplicateIds,
+          survivingIds);
+      jdbcTemplate.update(REPOINT_ARCHIVED_ORDERS, duplicateIds, survivingIds);
+      jdbcTemplate.update(DELETE_DUPLICATES, (Object) duplicateIds);
+      if (audit != null) {
+        duplicates.forEach(
+            duplicate ->
+                audit.record(
+                    "DeliveryAddress",
+                    duplicate.id(),
+                    Operation.DELETE,
+                    AuditedChange.changes(duplicate.stored(), null)));
+      }
+    }
+    return new Chunk(rows.size(), duplicates.size());
+  }
+
+  /** {@code stored} holds the fields as read, by property name. */
+  private record Row(long id, Map<String, Object> stored, NormalizedAddress address) {}
+
+  private record Chunk(int rows, int duplicates) {}
+}
@@ -0,0 +1,129 @@
+package project.orderservice.service.address;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import project.orderservice.dto.DeliveryAddressRequest;
+import project.orderservice.service.audit.AuditEventListener;
+import project.orderservice.service.audit.AuditedChange;
+import project.orderservice.service.audit.AuditedChange.Operation;
+
+/**
+ * The delivery_address rows by the hash of their normalized address. A new address is inserted
+ * once, every later order with an equal address gets the id of that row. The ids of recently used
+ * addresses are kept in a bounded LRU cache, so a returning customer costs no statement at all.
+ * Cached rows must not be deleted while the service runs, the merge job only deletes rows that were
+ * never hashed. A new row is audited like the ones Hibernate inserts.
+ */
+@Component
+public class DeliveryAddressStore {
+
+  /** A conflicting row is locked by nothing and returns nothing, unlike DO UPDATE. */
+  private static final String INSERT =
+      """
+      INSERT INTO delivery_address (street, city, state, country, postal_code, address_hash)
+      VALUES (?, ?, ?, ?, ?, ?)
+      ON CONFLICT (address_hash) DO NOTHING
+      RETURNING delivery_address_id
+      """;
+
+  private static final String FIND =
+      "SELECT delivery_address_id FROM delivery_address WHERE address_hash = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectProvider<AuditEventListener> auditEventListener;
+  private final Cache<String, Long> addressIds;
+
+  public DeliveryAddressStore(
+      JdbcTemplate jdbcTemplate,
+      ObjectProvider<AuditEventListener> auditEventListener,
+      @Value("${orderservice.address.cache-size:10000}") long cacheSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.auditEventListener = auditEventListener;
+    this.addressIds = Caffeine.newBuilder().maximumSize(cacheSize).build();
+  }
+
+  /**
+   * The id of the row of this address, inserted in the caller's transaction if there is none yet.
+   * While the transaction of a concurrent insert of the same address is open, this waits for it.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public Long upsert(DeliveryAddressRequest request) {
+    NormalizedAddress address = NormalizedAddress.of(request);
+    String hash = address.hash();
+    Long cached = addressIds.getIfPresent(hash);
+    if (cached != null) {
+      return cached;
+    }
+    Map<String, Long> inserted = insertedInTransaction();
+    Long id = inserted.get(hash);
+    if (id != null) {
+      return id;
+    }
+    id =
+        jdbcTemplate.query(
+            INSERT,
+            rs -> rs.next() ? rs.getLong(1) : null,
+            address.street(),
+            address.city(),
+            address.state(),
+            address.country(),
+            address.postalCode(),
+            hash);
+    if (id != null) {
+      // cached once committed, a rolled back row must not be handed out
+      inserted.put(hash, id);
+      long insertedId = id;
+      auditEventListener.ifAvailable(
+          writer ->
+              writer.record(
+                  "DeliveryAddress",
+                  insertedId,
+                  Operation.INSERT,
+                  AuditedChange.changes(null, address.properties())));
+      return id;
+    }
+    // a new statement, it sees the row of the conflicting transaction that has committed meanwhile
+    id = jdbcTemplate.queryForObject(FIND, Long.class, hash);
+    addressIds.put(hash, id);
+    return id;
+  }
+
+  /** Forgets every address, needed when rows were deleted behind the service's back. */
+  public void clearCache() {
+    addressIds.invalidateAll();
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Long> insertedInTransaction() {
+    Map<String, Long> inserted =
+        (Map<String, Long>) TransactionSynchronizationManager.getResource(this);
+    if (inserted == null) {
+      Map<String, Long> transactionInserts = new HashMap<>();
+      TransactionSynchronizationManager.bindResource(this, transactionInserts);
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              addressIds.putAll(transactionInserts);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+              TransactionSynchronizationManager.unbindResourceIfPossible(DeliveryAddressStore.this);
+            }
+          });
+      inserted = transactionInserts;
+    }
+    return inserted;
+  }
+}
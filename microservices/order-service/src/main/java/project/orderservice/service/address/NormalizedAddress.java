@@ -0,0 +1,103 @@
+package project.orderservice.service.address;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import project.orderservice.dto.DeliveryAddressRequest;
+
+/**
+ * A delivery address as it is stored: Unicode NFKC, trimmed, inner whitespace collapsed to one
+ * space, blank fields as null and the country in upper case. Its {@link #hash()} additionally
+ * ignores case and the spaces and dashes of the postal code, so "Armeana 1" in "iasi" and "Armeana
+ * 1" in "Iasi" are the same address.
+ */
+public record NormalizedAddress(
+    String street, String city, String state, String country, String postalCode) {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final Pattern POSTAL_CODE_SEPARATORS = Pattern.compile("[\\s-]");
+  // cannot appear in a normalized field, so different splits of the same text never collide
+  private static final char FIELD_SEPARATOR = '\u001F';
+
+  public static NormalizedAddress of(
+      String street, String city, String state, String country, String postalCode) {
+    String normalizedCountry = normalize(country);
+    return new NormalizedAddress(
+        normalize(street),
+        normalize(city),
+        normalize(state),
+        normalizedCountry == null ? null : normalizedCountry.toUpperCase(Locale.ROOT),
+        normalize(postalCode));
+  }
+
+  public static NormalizedAddress of(DeliveryAddressRequest request) {
+    return of(
+        request.street(), request.city(), request.state(), request.country(), request.postalCode());
+  }
+
+  /** The fields and the hash by the property names of {@code DeliveryAddress}. */
+  public Map<String, Object> properties() {
+    return properties(street, city, state, country, postalCode, hash());
+  }
+
+  static Map<String, Object> properties(
+      String street,
+      String city,
+      String state,
+      String country,
+      String postalCode,
+      String addressHash) {
+    Map<String, Object> properties = new LinkedHashMap<>();
+    properties.put("street", street);
+    properties.put("city", city);
+    properties.put("state", state);
+    properties.put("country", country);
+    properties.put("postalCode", postalCode);
+    properties.put("addressHash", addressHash);
+    return properties;
+  }
+
+  /** Hex of the SHA-256 of the case folded fields, the key of the {@code address_hash} index. */
+  public String hash() {
+    String key =
+        String.join(
+            String.valueOf(FIELD_SEPARATOR),
+            fold(street),
+            fold(city),
+            fold(state),
+            fold(country),
+            postalCode == null
+                ? ""
+                : POSTAL_CODE_SEPARATORS.matcher(fold(postalCode)).replaceAll(""));
+    try {
+      return HexFormat.of()
+          .formatHex(
+              MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private static String normalize(String value) {
+    if (value == null) {
+      return null;
+    }
+    String normalized =
+        WHITESPACE
+            .matcher(
+                Normalizer.normalize(value, Normalizer.Form.NFKC).replace(FIELD_SEPARATOR, ' '))
+            .replaceAll(" ")
+            .strip();
+    return normalized.isEmpty() ? null : normalized;
+  }
+
+  private static String fold(String value) {
+    return value == null ? "" : value.toLowerCase(Locale.ROOT);
+  }
+}
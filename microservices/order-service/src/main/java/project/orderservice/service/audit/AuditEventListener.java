@@ -0,0 +1,214 @@
+package project.orderservice.service.audit;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.internal.ForeignKeys;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.Type;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import project.orderservice.service.audit.AuditedChange.Operation;
+import project.orderservice.service.audit.AuditedChange.ValueChange;
+
+/**
+ * Captures the changes of the audited entities as Hibernate flushes them and hands them to the
+ * {@link AuditLogWriter} when their transaction completes, so rolled back changes are never
+ * audited. The save path only copies the changed values, the JSON and the inserts are left to the
+ * writers. Changes made with SQL, like imports and archiving, are not captured; code that has to
+ * audit them {@link #record records} them in its transaction.
+ */
+public class AuditEventListener
+    implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+  private final EntityManagerFactory entityManagerFactory;
+  private final Set<Class<?>> auditedTypes;
+  private final AuditLogWriter auditLogWriter;
+  private final Map<SharedSessionContractImplementor, TransactionChanges> pending =
+      new ConcurrentHashMap<>();
+
+  public AuditEventListener(
+      EntityManagerFactory entityManagerFactory,
+      Set<Class<?>> auditedTypes,
+      AuditLogWriter auditLogWriter) {
+    this.entityManagerFactory = entityManagerFactory;
+    this.auditedTypes = auditedTypes;
+    this.auditLogWriter = auditLogWriter;
+  }
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    capture(
+        event.getSession(),
+        event.getPersister(),
+        event.getId(),
+        Operation.INSERT,
+        null,
+        event.getState());
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    capture(
+        event.getSession(),
+        event.getPersister(),
+        event.getId(),
+        Operation.UPDATE,
+        event.getOldState(),
+        event.getState());
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    capture(
+        event.getSession(),
+        event.getPersister(),
+        event.getId(),
+        Operation.DELETE,
+        event.getDeletedState(),
+        null);
+  }
+
+  /**
+   * Audits a change that the current transaction made with SQL. It is handed over with the changes
+   * Hibernate flushes in the same transaction, under the same transaction id.
+   */
+  public void record(
+      String entityType, long entityId, Operation operation, Map<String, ValueChange> changes) {
+    EntityManager entityManager =
+        EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+    if (entityManager == null) {
+      throw new IllegalStateException(
+          "A change of %s %s is recorded outside a transaction".formatted(entityType, entityId));
+    }
+    if (changes.isEmpty()) {
+      return;
+    }
+    EventSource session = entityManager.unwrap(EventSource.class);
+    TransactionChanges transaction = pending.computeIfAbsent(session, key -> register(session));
+    transaction.changes.add(
+        new AuditedChange(
+            transaction.transactionId,
+            entityType,
+            entityId,
+            operation,
+            changes,
+            OffsetDateTime.now()));
+  }
+
+  @Override
+  public boolean requiresPostCommitHandling(EntityPersister persister) {
+    return false;
+  }
+
+  private void capture(
+      EventSource session,
+      EntityPersister persister,
+      Object id,
+      Operation operation,
+      Object[] before,
+      Object[] after) {
+    if (!auditedTypes.contains(persister.getMappedClass())) {
+      return;
+    }
+    String[] names = persister.getPropertyNames();
+    Type[] types = persister.getPropertyTypes();
+    Map<String, ValueChange> changes = new LinkedHashMap<>();
+    for (int i = 0; i < names.length; i++) {
+      if (types[i].isCollectionType()) {
+        continue;
+      }
+      Object oldValue = before == null ? null : before[i];
+      Object newValue = after == null ? null : after[i];
+      if (oldValue == null && newValue == null) {
+        continue;
+      }
+      // an update without the old state, e.g. of a merged entity, records every value
+      if (operation == Operation.UPDATE && before != null && types[i].isEqual(oldValue, newValue)) {
+        continue;
+      }
+      changes.put(
+          names[i],
+          new ValueChange(value(oldValue, types[i], session), value(newValue, types[i], session)));
+    }
+    if (changes.isEmpty()) {
+      return;
+    }
+    TransactionChanges transaction = pending.computeIfAbsent(session, key -> register(session));
+    transaction.changes.add(
+        new AuditedChange(
+            transaction.transactionId,
+            persister.getMappedClass().getSimpleName(),
+            ((Number) id).longValue(),
+            operation,
+            changes,
+            OffsetDateTime.now()));
+  }
+
+  private TransactionChanges register(EventSource session) {
+    TransactionChanges changes = new TransactionChanges();
+    session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) changes);
+    session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) changes);
+    return changes;
+  }
+
+  /** Associated entities are recorded by their id. */
+  private static Object value(Object value, Type type, SharedSessionContractImplementor session) {
+    if (value != null && type instanceof EntityType entityType) {
+      return ForeignKeys.getEntityIdentifierIfNotUnsaved(
+          entityType.getAssociatedEntityName(), value, session);
+    }
+    return value;
+  }
+
+  /**
+   * The changes of one transaction. Hibernate flushes before it runs the completion processes, so
+   * the changes of the flush at commit are already here.
+   */
+  private class TransactionChanges
+      implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+    private final UUID transactionId = UUID.randomUUID();
+    private final List<AuditedChange> changes = new ArrayList<>();
+    private boolean reserved;
+
+    @Override
+    public void doBeforeTransactionCompletion(SessionImplementor session) {
+      reserved = auditLogWriter.tryReserve(changes.size());
+      if (!reserved) {
+        session.doWork(connection -> auditLogWriter.writeInline(connection, changes));
+      }
+    }
+
+    @Override
+    public void doAfterTransactionCompletion(
+        boolean success, SharedSessionContractImplementor session) {
+      pending.remove(session);
+      if (reserved) {
+        if (success) {
+          auditLogWriter.enqueue(changes);
+        } else {
+          auditLogWriter.release(changes.size());
+        }
+      }
+    }
+  }
+}
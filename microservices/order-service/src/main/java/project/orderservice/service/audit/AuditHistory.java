@@ -0,0 +1,58 @@
+package project.orderservice.service.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.orderservice.dto.AuditEntry;
+
+/** Reads the audit trail of one entity, newest change first. */
+@Service
+@RequiredArgsConstructor
+public class AuditHistory {
+
+  public static final Set<String> ENTITY_TYPES =
+      Set.of("Order", "OrderItem", "Product", "DeliveryAddress");
+
+  private static final String FIND_HISTORY =
+      """
+      SELECT transaction_id, operation, changes::text, changed_at
+      FROM audit_log
+      WHERE entity_type = ? AND entity_id = ?
+      ORDER BY changed_at DESC, audit_log_id DESC
+      LIMIT ?
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+
+  @Transactional(readOnly = true)
+  public List<AuditEntry> findHistory(String entityType, long entityId, int limit) {
+    return jdbcTemplate.query(
+        FIND_HISTORY,
+        (rs, rowNum) ->
+            new AuditEntry(
+                rs.getObject("transaction_id", UUID.class),
+                rs.getString("operation"),
+                toJson(rs.getString("changes")),
+                rs.getObject("changed_at", OffsetDateTime.class)),
+        entityType,
+        entityId,
+        limit);
+  }
+
+  private JsonNode toJson(String changes) {
+    try {
+      return objectMapper.readTree(changes);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Invalid audit changes " + changes, e);
+    }
+  }
+}
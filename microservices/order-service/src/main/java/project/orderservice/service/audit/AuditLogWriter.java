@@ -0,0 +1,212 @@
+package project.orderservice.service.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Appends the captured changes to {@code audit_log} off the save path. A committing transaction
+ * reserves places in the queue for its changes and hands them over after the commit, {@code
+ * workers} threads write them in batches of up to {@code batchSize} rows. A failed batch is retried
+ * until it is written, its places stay taken meanwhile.
+ *
+ * <p>When the queue has no room, or its {@code capacity} is 0, the changes are inserted on the
+ * connection of the committing transaction instead, like an outbox: they commit with the change or
+ * not at all, and the save pays for the inserts. Changes in the queue are lost when the process
+ * dies before writing them, only a graceful shutdown waits for them.
+ */
+@Slf4j
+public class AuditLogWriter implements SmartLifecycle {
+
+  private static final String INSERT =
+      """
+      INSERT INTO audit_log (transaction_id, entity_type, entity_id, operation, changes, changed_at)
+      VALUES (?, ?, ?, ?, ?::jsonb, ?)
+      """;
+
+  private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+  private static final Duration RETRY_INTERVAL = Duration.ofSeconds(1);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+  private final int capacity;
+  private final int batchSize;
+  private final int workers;
+  private final Duration pollInterval;
+
+  private final BlockingQueue<AuditedChange> queue = new LinkedBlockingQueue<>();
+  private final Semaphore places;
+
+  private final Counter written;
+  private final Counter writtenInline;
+  private final Counter failures;
+
+  private final List<Thread> workerThreads = new ArrayList<>();
+  private volatile boolean running;
+
+  public AuditLogWriter(
+      JdbcTemplate jdbcTemplate,
+      ObjectMapper objectMapper,
+      MeterRegistry registry,
+      int capacity,
+      int batchSize,
+      int workers,
+      Duration pollInterval) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.objectMapper = objectMapper;
+    this.capacity = capacity;
+    this.batchSize = batchSize;
+    this.workers = workers;
+    this.pollInterval = pollInterval;
+    this.places = new Semaphore(capacity);
+    Gauge.builder("audit.pending", this, AuditLogWriter::pending)
+        .description("Changes reserved or queued and not yet written")
+        .register(registry);
+    this.written =
+        Counter.builder("audit.written")
+            .description("Changes written by the background writers")
+            .register(registry);
+    this.writtenInline =
+        Counter.builder("audit.written.inline")
+            .description("Changes written in the committing transaction, the queue was full")
+            .register(registry);
+    this.failures =
+        Counter.builder("audit.write.failures")
+            .description("Batches that failed and are retried")
+            .register(registry);
+  }
+
+  /** Changes that were reserved or queued and are not written yet. */
+  public int pending() {
+    return capacity - places.availablePermits();
+  }
+
+  /** False when the queue has no room for the changes of a transaction. */
+  boolean tryReserve(int changes) {
+    return places.tryAcquire(changes);
+  }
+
+  void enqueue(List<AuditedChange> changes) {
+    queue.addAll(changes);
+  }
+
+  /** Returns the places of a transaction that rolled back. */
+  void release(int changes) {
+    places.release(changes);
+  }
+
+  /** Inserts the changes in one batch on the connection of the committing transaction. */
+  void writeInline(Connection connection, List<AuditedChange> changes) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+      for (AuditedChange change : changes) {
+        Object[] row = row(change);
+        for (int i = 0; i < row.length; i++) {
+          statement.setObject(i + 1, row[i]);
+        }
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+    writtenInline.increment(changes.size());
+  }
+
+  private void drain() {
+    List<AuditedChange> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      AuditedChange first;
+      try {
+        first = queue.poll(pollInterval.toNanos(), TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (first == null) {
+        continue;
+      }
+      batch.add(first);
+      queue.drainTo(batch, batchSize - 1);
+      write(batch);
+      batch.clear();
+    }
+  }
+
+  private void write(List<AuditedChange> batch) {
+    List<Object[]> rows = batch.stream().map(this::row).toList();
+    while (true) {
+      try {
+        jdbcTemplate.batchUpdate(INSERT, rows);
+        written.increment(batch.size());
+        break;
+      } catch (RuntimeException e) {
+        failures.increment();
+        if (!running) {
+          log.error(
+              "Writing {} audit changes failed during shutdown, they are lost", rows.size(), e);
+          break;
+        }
+        log.warn("Writing {} audit changes failed, retrying in {}", rows.size(), RETRY_INTERVAL, e);
+        LockSupport.parkNanos(RETRY_INTERVAL.toNanos());
+      }
+    }
+    places.release(batch.size());
+  }
+
+  private Object[] row(AuditedChange change) {
+    try {
+      return new Object[] {
+        change.transactionId(),
+        change.entityType(),
+        change.entityId(),
+        change.operation().name(),
+        objectMapper.writeValueAsString(change.changes()),
+        change.changedAt()
+      };
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize " + change, e);
+    }
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    for (int i = 0; i < workers; i++) {
+      workerThreads.add(Thread.ofVirtual().name("audit-log-writer-" + i).start(this::drain));
+    }
+  }
+
+  /** The workers write what is queued before they end. */
+  @Override
+  public void stop() {
+    running = false;
+    for (Thread worker : workerThreads) {
+      try {
+        worker.join(SHUTDOWN_TIMEOUT);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    workerThreads.clear();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+}
@@ -0,0 +1,49 @@
+package project.orderservice.service.audit;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * The change of one entity captured at flush time. {@code changes} holds the changed properties,
+ * all of them for inserts and deletes, associations by the id of the associated entity.
+ */
+public record AuditedChange(
+    UUID transactionId,
+    String entityType,
+    long entityId,
+    Operation operation,
+    Map<String, ValueChange> changes,
+    OffsetDateTime changedAt) {
+
+  public enum Operation {
+    INSERT,
+    UPDATE,
+    DELETE
+  }
+
+  /** Inserts have no {@code before}, deletes no {@code after}. */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public record ValueChange(Object before, Object after) {}
+
+  /**
+   * The properties that differ between two states, by property name. An inserted row has no {@code
+   * before}, a deleted one no {@code after}.
+   */
+  public static Map<String, ValueChange> changes(Map<String, ?> before, Map<String, ?> after) {
+    Map<String, ValueChange> changes = new LinkedHashMap<>();
+    (before != null ? before : after)
+        .forEach(
+            (name, ignored) -> {
+              Object oldValue = before == null ? null : before.get(name);
+              Object newValue = after == null ? null : after.get(name);
+              if (!Objects.equals(oldValue, newValue)) {
+                changes.put(name, new ValueChange(oldValue, newValue));
+              }
+            });
+    return changes;
+  }
+}
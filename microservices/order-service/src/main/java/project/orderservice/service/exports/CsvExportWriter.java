@@ -0,0 +1,73 @@
+package project.orderservice.service.exports;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/** RFC 4180 CSV, the dialect {@code COPY ... WITH (FORMAT csv)} reads back. */
+class CsvExportWriter implements ExportWriter {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final Writer writer;
+
+  CsvExportWriter(OutputStream output) {
+    this.writer =
+        new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+  }
+
+  @Override
+  public void begin() throws IOException {
+    writeLine(ExportRow.COLUMNS);
+  }
+
+  @Override
+  public void write(ExportRow row, boolean firstOfOrder) throws IOException {
+    writeLine(row.values());
+  }
+
+  @Override
+  public void end() throws IOException {
+    writer.flush();
+  }
+
+  private void writeLine(List<?> values) throws IOException {
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) {
+        writer.write(',');
+      }
+      writeValue(values.get(i));
+    }
+    writer.write('\n');
+  }
+
+  private void writeValue(Object value) throws IOException {
+    if (value == null) {
+      return;
+    }
+    String text = value instanceof BigDecimal number ? number.toPlainString() : value.toString();
+    if (text.isEmpty() || needsQuotes(text)) {
+      // an unquoted empty field would be read back as null
+      writer.write('"');
+      writer.write(text.replace("\"", "\"\""));
+      writer.write('"');
+    } else {
+      writer.write(text);
+    }
+  }
+
+  private static boolean needsQuotes(String text) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+        return true;
+      }
+    }
+    return false;
+  }
+}
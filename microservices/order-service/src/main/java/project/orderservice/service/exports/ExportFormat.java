@@ -0,0 +1,11 @@
+package project.orderservice.service.exports;
+
+public enum ExportFormat {
+  /**
+   * Comma separated values with a header line, one line per order item. An order without items gets
+   * one line with empty item columns.
+   */
+  CSV,
+  /** One JSON object per order, with its items nested. */
+  NDJSON
+}
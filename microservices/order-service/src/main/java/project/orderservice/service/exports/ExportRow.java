@@ -0,0 +1,76 @@
+package project.orderservice.service.exports;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/** One row of the export query: an order item with its order, delivery address and product. */
+record ExportRow(
+    Long orderId,
+    BigDecimal orderTotal,
+    String street,
+    String city,
+    String state,
+    String country,
+    String postalCode,
+    Long orderItemId,
+    Long productId,
+    String productName,
+    BigDecimal amount,
+    BigDecimal price) {
+
+  static final List<String> COLUMNS =
+      List.of(
+          "order_id",
+          "order_total",
+          "street",
+          "city",
+          "state",
+          "country",
+          "postal_code",
+          "order_item_id",
+          "product_id",
+          "product_name",
+          "amount",
+          "price");
+
+  static ExportRow of(ResultSet resultSet) throws SQLException {
+    return new ExportRow(
+        resultSet.getLong(1),
+        resultSet.getBigDecimal(2),
+        resultSet.getString(3),
+        resultSet.getString(4),
+        resultSet.getString(5),
+        resultSet.getString(6),
+        resultSet.getString(7),
+        nullableLong(resultSet, 8),
+        nullableLong(resultSet, 9),
+        resultSet.getString(10),
+        resultSet.getBigDecimal(11),
+        resultSet.getBigDecimal(12));
+  }
+
+  private static Long nullableLong(ResultSet resultSet, int column) throws SQLException {
+    long value = resultSet.getLong(column);
+    return resultSet.wasNull() ? null : value;
+  }
+
+  /** The values in the order of {@link #COLUMNS}, with nulls. */
+  List<Object> values() {
+    return Arrays.asList(
+        orderId,
+        orderTotal,
+        street,
+        city,
+        state,
+        country,
+        postalCode,
+        orderItemId,
+        productId,
+        productName,
+        amount,
+        price);
+  }
+}
@@ -0,0 +1,15 @@
+package project.orderservice.service.exports;
+
+import java.io.IOException;
+
+/** Writes the rows of the export query, which arrive ordered by order id, to an output stream. */
+interface ExportWriter {
+
+  void begin() throws IOException;
+
+  /** {@code firstOfOrder} is set for the first row of every order. */
+  void write(ExportRow row, boolean firstOfOrder) throws IOException;
+
+  /** Flushes, but does not close, the output stream. */
+  void end() throws IOException;
+}
@@ -0,0 +1,68 @@
+package project.orderservice.service.exports;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes every order as one JSON object with its items nested. Only the current order is open, the
+ * generator writes through its own small buffer.
+ */
+class NdjsonExportWriter implements ExportWriter {
+
+  private final JsonGenerator generator;
+  private boolean orderOpen;
+
+  NdjsonExportWriter(ObjectMapper objectMapper, OutputStream output) throws IOException {
+    this.generator = objectMapper.getFactory().createGenerator(output);
+    // orders are separated by the newline written after each, not by the default space
+    generator.setRootValueSeparator(null);
+  }
+
+  @Override
+  public void begin() {}
+
+  @Override
+  public void write(ExportRow row, boolean firstOfOrder) throws IOException {
+    if (firstOfOrder) {
+      closeOrder();
+      generator.writeStartObject();
+      generator.writeNumberField("id", row.orderId());
+      generator.writeNumberField("total", row.orderTotal());
+      generator.writeObjectFieldStart("deliveryAddress");
+      generator.writeStringField("street", row.street());
+      generator.writeStringField("city", row.city());
+      generator.writeStringField("state", row.state());
+      generator.writeStringField("country", row.country());
+      generator.writeStringField("postalCode", row.postalCode());
+      generator.writeEndObject();
+      generator.writeArrayFieldStart("items");
+      orderOpen = true;
+    }
+    if (row.orderItemId() != null) {
+      generator.writeStartObject();
+      generator.writeNumberField("id", row.orderItemId());
+      generator.writeObjectField("productId", row.productId());
+      generator.writeStringField("productName", row.productName());
+      generator.writeNumberField("amount", row.amount());
+      generator.writeNumberField("price", row.price());
+      generator.writeEndObject();
+    }
+  }
+
+  @Override
+  public void end() throws IOException {
+    closeOrder();
+    generator.flush();
+  }
+
+  private void closeOrder() throws IOException {
+    if (orderOpen) {
+      generator.writeEndArray();
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+      orderOpen = false;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package project.orderservice.service.exports;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Command line export, e.g. {@code java -jar order-service.jar
+ * --spring.main.web-application-type=none --orderservice.export.file=orders.csv
+ * --orderservice.export.format=CSV}. Without a web server the application stops once the file is
+ * written.
+ */
+@Component
+@ConditionalOnProperty("orderservice.export.file")
+@RequiredArgsConstructor
+public class OrderExportRunner implements ApplicationRunner {
+
+  private final OrderExportService orderExportService;
+
+  @Value("${orderservice.export.file}")
+  private Path file;
+
+  @Value("${orderservice.export.format:CSV}")
+  private ExportFormat format;
+
+  @Override
+  public void run(ApplicationArguments args) throws Exception {
+    try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(file))) {
+      orderExportService.export(format, output);
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package project.orderservice.service.exports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Exports all orders with their items, products and delivery addresses. The rows are read through a
+ * server-side cursor, {@code fetchSize} at a time, and written to the output stream as they arrive.
+ * No entities are loaded, so the heap does not grow with the number of orders.
+ */
+@Slf4j
+@Service
+public class OrderExportService {
+
+  private static final String ORDERS_WITH_ITEMS =
+      """
+      SELECT o.order_id, o.order_total, a.street, a.city, a.state, a.country, a.postal_code,
+             i.order_item_id, i.product_id, p.name, i.amount, p.price
+      FROM orders o
+      LEFT JOIN delivery_address a ON a.delivery_address_id = o.delivery_address_id
+      LEFT JOIN order_item i ON i.order_id = o.order_id
+      LEFT JOIN product p ON p.product_id = i.product_id
+      ORDER BY o.order_id, i.order_item_id
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+
+  public OrderExportService(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      ObjectMapper objectMapper,
+      @Value("${orderservice.export.fetch-size:1000}") int fetchSize) {
+    // own template, the fetch size must not apply to the other queries
+    this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+    this.jdbcTemplate.setFetchSize(fetchSize);
+    // the PostgreSQL driver only uses a cursor when auto-commit is off
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+    this.objectMapper = objectMapper;
+  }
+
+  /** Returns the number of exported orders. The output stream is flushed but not closed. */
+  public long export(ExportFormat format, OutputStream output) {
+    long start = System.nanoTime();
+    Long orders =
+        transactionTemplate.execute(
+            status -> {
+              try {
+                ExportWriter writer =
+                    switch (format) {
+                      case CSV -> new CsvExportWriter(output);
+                      case NDJSON -> new NdjsonExportWriter(objectMapper, output);
+                    };
+                writer.begin();
+                OrderCountingHandler handler = new OrderCountingHandler(writer);
+                jdbcTemplate.query(ORDERS_WITH_ITEMS, handler);
+                writer.end();
+                return handler.orders;
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+    log.info(
+        "Exported {} orders as {} in {} ms",
+        orders,
+        format,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    return orders;
+  }
+
+  private static final class OrderCountingHandler implements RowCallbackHandler {
+
+    private final ExportWriter writer;
+    private Long orderId;
+    private long orders;
+
+    private OrderCountingHandler(ExportWriter writer) {
+      this.writer = writer;
+    }
+
+    @Override
+    public void processRow(ResultSet resultSet) throws SQLException {
+      ExportRow row = ExportRow.of(resultSet);
+      boolean firstOfOrder = !row.orderId().equals(orderId);
+      if (firstOfOrder) {
+        orderId = row.orderId();
+        orders++;
+      }
+      try {
+        writer.write(row, firstOfOrder);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package project.orderservice.service.idempotency;
+
+public class IdempotencyKeyReusedException extends IllegalStateException {
+
+  public IdempotencyKeyReusedException(String key) {
+    super("Idempotency key " + key + " was already used for a different request");
+  }
+}
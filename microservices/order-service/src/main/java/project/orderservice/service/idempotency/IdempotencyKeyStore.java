@@ -0,0 +1,108 @@
+package project.orderservice.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The idempotency keys of order submissions, in the {@code idempotency_key} table with the hash of
+ * the request they were first used with. Keys completed by this instance are also kept in a bounded
+ * LRU cache, so a retry that arrives here is answered without a transaction or a round trip.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+  private static final String CLAIM =
+      "INSERT INTO idempotency_key (idempotency_key, request_hash) VALUES (?, ?) ON CONFLICT DO NOTHING";
+  private static final String FIND =
+      "SELECT request_hash, order_id FROM idempotency_key WHERE idempotency_key = ?";
+  private static final String COMPLETE =
+      "UPDATE idempotency_key SET order_id = ? WHERE idempotency_key = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+  private final Cache<String, Completed> completedKeys;
+
+  public IdempotencyKeyStore(
+      JdbcTemplate jdbcTemplate,
+      ObjectMapper objectMapper,
+      @Value("${orderservice.idempotency.ttl:24h}") Duration ttl,
+      @Value("${orderservice.idempotency.cache-size:10000}") long cacheSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.objectMapper = objectMapper;
+    this.completedKeys = Caffeine.newBuilder().maximumSize(cacheSize).expireAfterWrite(ttl).build();
+  }
+
+  /** SHA-256 of the JSON of the request, a retry has to send the same request. */
+  public String fingerprint(Object request) {
+    try {
+      byte[] json = objectMapper.writeValueAsBytes(request);
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+    } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Cannot fingerprint " + request, e);
+    }
+  }
+
+  /** The order of a key this instance completed recently. */
+  public Optional<Long> findCached(String key, String fingerprint) {
+    return Optional.ofNullable(completedKeys.getIfPresent(key))
+        .map(completed -> completed.orderId(key, fingerprint));
+  }
+
+  /**
+   * Inserts the key in the caller's transaction. Empty when the key is new and the caller creates
+   * the order, otherwise the order of the earlier request. While the transaction of a concurrent
+   * request with the same key is still open, the insert waits for its outcome.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public Optional<Long> claim(String key, String fingerprint) {
+    if (jdbcTemplate.update(CLAIM, key, fingerprint) == 1) {
+      return Optional.empty();
+    }
+    Completed completed =
+        jdbcTemplate.query(
+            FIND, rs -> rs.next() ? new Completed(rs.getString(1), rs.getLong(2)) : null, key);
+    if (completed == null) {
+      throw new ConcurrencyFailureException("Idempotency key " + key + " expired meanwhile");
+    }
+    completedKeys.put(key, completed);
+    return Optional.of(completed.orderId(key, fingerprint));
+  }
+
+  /** Records the order created for a claimed key, the cache learns it once the order committed. */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void complete(String key, String fingerprint, Long orderId) {
+    jdbcTemplate.update(COMPLETE, orderId, key);
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            completedKeys.put(key, new Completed(fingerprint, orderId));
+          }
+        });
+  }
+
+  private record Completed(String fingerprint, long orderId) {
+
+    long orderId(String key, String requestFingerprint) {
+      if (!fingerprint.equals(requestFingerprint)) {
+        throw new IdempotencyKeyReusedException(key);
+      }
+      return orderId;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package project.orderservice.service.idempotency;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Deletes the idempotency keys older than the TTL, oldest first in batches of {@code batchSize}.
+ * Every batch is one autocommitted statement, so it holds its row locks briefly, and keys that a
+ * request is still waiting on are skipped until the next run.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyKeySweeper {
+
+  private static final String DELETE_BATCH =
+      """
+      DELETE FROM idempotency_key
+      WHERE idempotency_key IN (
+          SELECT idempotency_key FROM idempotency_key
+          WHERE created_at < ?
+          ORDER BY created_at
+          LIMIT ?
+          FOR UPDATE SKIP LOCKED)
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Value("${orderservice.idempotency.ttl:24h}")
+  private Duration ttl;
+
+  @Value("${orderservice.idempotency.sweep-batch-size:1000}")
+  private int batchSize;
+
+  @Scheduled(cron = "${orderservice.idempotency.sweep-cron:-}")
+  public long sweep() {
+    return sweepCreatedBefore(OffsetDateTime.now().minus(ttl));
+  }
+
+  /** Returns the number of deleted keys. */
+  public long sweepCreatedBefore(OffsetDateTime cutoff) {
+    long deleted = 0;
+    int batch;
+    do {
+      batch = jdbcTemplate.update(DELETE_BATCH, cutoff, batchSize);
+      deleted += batch;
+    } while (batch == batchSize);
+    log.info("Swept {} idempotency keys created before {}", deleted, cutoff);
+    return deleted;
+  }
+}
@@ -0,0 +1,6 @@
+package project.orderservice.service.idempotency;
+
+/**
+ * The order created for an idempotency key, {@code replayed} when an earlier request created it.
+ */
+public record IdempotentOrder(Long orderId, boolean replayed) {}
@@ -0,0 +1,41 @@
+package project.orderservice.service.idempotency;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.orderservice.dto.OrderRequest;
+import project.orderservice.service.OrderService;
+
+/**
+ * Creates an order at most once per idempotency key. The key is claimed in the transaction that
+ * inserts the order, so a request either commits both or neither, and a retry gets the original
+ * order back instead of running the inserts again.
+ */
+@Service
+@RequiredArgsConstructor
+public class IdempotentOrderCreator {
+
+  private final IdempotencyKeyStore idempotencyKeyStore;
+  private final OrderService orderService;
+  private final TransactionTemplate transactionTemplate;
+
+  public IdempotentOrder createOrder(String key, OrderRequest request) {
+    String fingerprint = idempotencyKeyStore.fingerprint(request);
+    return idempotencyKeyStore
+        .findCached(key, fingerprint)
+        .map(orderId -> new IdempotentOrder(orderId, true))
+        .orElseGet(
+            () ->
+                transactionTemplate.execute(
+                    status ->
+                        idempotencyKeyStore
+                            .claim(key, fingerprint)
+                            .map(orderId -> new IdempotentOrder(orderId, true))
+                            .orElseGet(
+                                () -> {
+                                  Long orderId = orderService.createOrder(request).getId();
+                                  idempotencyKeyStore.complete(key, fingerprint, orderId);
+                                  return new IdempotentOrder(orderId, false);
+                                })));
+  }
+}
@@ -0,0 +1,86 @@
+package project.orderservice.service.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.orderservice.dto.ImportResult;
+
+/**
+ * Bulk loads rows with {@code COPY FROM STDIN} into a temporary staging table, drops the rows whose
+ * FKs do not resolve and merges the rest into the real table. The input is streamed through the
+ * driver, so the file size does not affect the heap.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CopyImportService {
+
+  private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+  private final EntityManagerFactory entityManagerFactory;
+
+  @Transactional
+  public ImportResult importRows(ImportTarget target, ImportFormat format, InputStream input) {
+    jdbcTemplate.execute(target.createStagingSql());
+
+    ProgressInputStream progress = new ProgressInputStream(input, target.table());
+    long copied =
+        jdbcTemplate.execute(
+            (ConnectionCallback<Long>)
+                connection -> {
+                  CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+                  try {
+                    return switch (format) {
+                      case CSV ->
+                          copyManager.copyIn(target.copySql(true), progress, COPY_BUFFER_SIZE);
+                      case NDJSON ->
+                          copyManager.copyIn(
+                              target.copySql(false),
+                              new NdjsonCsvReader(
+                                  new InputStreamReader(progress, StandardCharsets.UTF_8),
+                                  target.columns(),
+                                  objectMapper),
+                              COPY_BUFFER_SIZE);
+                    };
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+
+    // temporary tables are never analyzed by autovacuum, the anti-joins below need statistics
+    jdbcTemplate.execute("ANALYZE " + target.stagingTable());
+    int rejected = target.rejectOrphansSql().map(jdbcTemplate::update).orElse(0);
+    target.deleteMovedRowsSql().ifPresent(jdbcTemplate::update);
+    int merged = jdbcTemplate.update(target.mergeSql());
+    jdbcTemplate.query(target.syncSequenceSql(), resultSet -> {});
+    // the merge bypasses Hibernate, cached products and query results may now be stale
+    entityManagerFactory.getCache().evictAll();
+
+    long durationMillis = progress.elapsedMillis();
+    ImportResult result =
+        new ImportResult(
+            target.table(),
+            copied,
+            rejected,
+            merged,
+            progress.bytesRead(),
+            durationMillis,
+            copied * 1000D / Math.max(durationMillis, 1));
+    log.info("Import finished: {}", result);
+    return result;
+  }
+}
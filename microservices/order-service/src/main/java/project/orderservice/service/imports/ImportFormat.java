@@ -0,0 +1,8 @@
+package project.orderservice.service.imports;
+
+public enum ImportFormat {
+  /** Comma separated values with a header line, streamed to COPY as is. */
+  CSV,
+  /** One JSON object per line, converted to CSV on the fly. */
+  NDJSON
+}
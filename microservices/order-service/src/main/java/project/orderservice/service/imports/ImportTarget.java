@@ -0,0 +1,174 @@
+package project.orderservice.service.imports;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/** The tables that can be bulk loaded, with the columns an import file has to provide. */
+public enum ImportTarget {
+  PRODUCT("product", List.of("product_id", "name", "price"), List.of(), null, false),
+  // an order that is imported again keeps its creation time, a new one is created now
+  ORDERS(
+      "orders",
+      List.of("order_id", "delivery_address_id"),
+      List.of(new ForeignKey("delivery_address_id", "delivery_address")),
+      new PartitionKey("created_at", "coalesce(p.created_at, now())"),
+      true),
+  // an item is stored in the partition of its order
+  ORDER_ITEM(
+      "order_item",
+      List.of("order_item_id", "product_id", "order_id", "amount"),
+      List.of(new ForeignKey("product_id", "product"), new ForeignKey("order_id", "orders")),
+      new PartitionKey("order_created_at", "coalesce(p.created_at, now())"),
+      true);
+
+  private final String table;
+  private final List<String> columns;
+
+  /** The FKs of this table, every one references the column of the same name in its parent. */
+  private final List<ForeignKey> foreignKeys;
+
+  /** The partition key of a partitioned table, null for a plain table. */
+  private final PartitionKey partitionKey;
+
+  /** Whether the entity of the table is optimistically locked by a version column. */
+  private final boolean versioned;
+
+  ImportTarget(
+      String table,
+      List<String> columns,
+      List<ForeignKey> foreignKeys,
+      PartitionKey partitionKey,
+      boolean versioned) {
+    this.table = table;
+    this.columns = columns;
+    this.foreignKeys = foreignKeys;
+    this.partitionKey = partitionKey;
+    this.versioned = versioned;
+  }
+
+  public static Optional<ImportTarget> forTable(String table) {
+    return Arrays.stream(values()).filter(target -> target.table.equals(table)).findFirst();
+  }
+
+  public String table() {
+    return table;
+  }
+
+  public List<String> columns() {
+    return columns;
+  }
+
+  String stagingTable() {
+    return table + "_staging";
+  }
+
+  /** The PK of every table is its first column. */
+  private String primaryKey() {
+    return columns.get(0);
+  }
+
+  String createStagingSql() {
+    // defaults are copied so columns missing from the file get the same values as in the real table
+    String create =
+        "CREATE TEMP TABLE %s (LIKE %s INCLUDING DEFAULTS) ON COMMIT DROP"
+            .formatted(stagingTable(), table);
+    if (partitionKey == null) {
+      return create;
+    }
+    // the partition key is not part of the file, it is filled in by the merge
+    return create
+        + "; ALTER TABLE %s ALTER COLUMN %s DROP NOT NULL"
+            .formatted(stagingTable(), partitionKey.column());
+  }
+
+  String copySql(boolean header) {
+    return "COPY %s (%s) FROM STDIN WITH (FORMAT csv, HEADER %s)"
+        .formatted(stagingTable(), String.join(", ", columns), header);
+  }
+
+  /** Deletes, in one anti-join per parent, every staged row whose FK points to a missing row. */
+  Optional<String> rejectOrphansSql() {
+    if (foreignKeys.isEmpty()) {
+      return Optional.empty();
+    }
+    String orphans =
+        foreignKeys.stream()
+            .map(
+                key ->
+                    "(s.%1$s IS NOT NULL AND NOT EXISTS (SELECT 1 FROM %2$s p WHERE p.%1$s = s.%1$s))"
+                        .formatted(key.column(), key.parentTable()))
+            .collect(Collectors.joining(" OR "));
+    return Optional.of("DELETE FROM %s s WHERE %s".formatted(stagingTable(), orphans));
+  }
+
+  /**
+   * Deletes the rows that are imported again with another partition key, i.e. items moved to an
+   * order created at another time. The key is part of the PK, so the upsert would not find the old
+   * row and would insert a second one with the same id.
+   */
+  Optional<String> deleteMovedRowsSql() {
+    if (partitionKey == null) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        """
+        DELETE FROM %1$s t
+        USING %2$s s JOIN orders p ON p.order_id = s.order_id
+        WHERE t.%3$s = s.%3$s AND t.%4$s <> p.created_at
+        """
+            .formatted(table, stagingTable(), primaryKey(), partitionKey.column()));
+  }
+
+  /**
+   * Upserts the staged rows. When a key is repeated in the file the last occurrence wins. The
+   * partition key of a partitioned table is taken from the order with the same order_id, which is
+   * the row itself for orders and the parent for order items. An updated row of a versioned table
+   * gets a new version, so a JPA update that read the old row fails.
+   */
+  String mergeSql() {
+    String insertColumns = String.join(", ", columns);
+    String selectColumns =
+        columns.stream().map(column -> "s." + column).collect(Collectors.joining(", "));
+    String conflictColumns = primaryKey();
+    String source = stagingTable() + " s";
+    if (partitionKey != null) {
+      insertColumns += ", " + partitionKey.column();
+      selectColumns += ", " + partitionKey.value();
+      conflictColumns += ", " + partitionKey.column();
+      source += " LEFT JOIN orders p ON p.order_id = s.order_id";
+    }
+    String updates =
+        columns.stream()
+            .skip(1)
+            .map(column -> column + " = EXCLUDED." + column)
+            .collect(Collectors.joining(", "));
+    if (versioned) {
+      updates += ", version = %s.version + 1".formatted(table);
+    }
+    return """
+        INSERT INTO %1$s (%2$s)
+        SELECT DISTINCT ON (s.%3$s) %4$s FROM %5$s ORDER BY s.%3$s, s.ctid DESC
+        ON CONFLICT (%6$s) DO UPDATE SET %7$s
+        """
+        .formatted(
+            table, insertColumns, primaryKey(), selectColumns, source, conflictColumns, updates);
+  }
+
+  /** Moves the id sequence past the imported ids so the pooled optimizer never hands them out. */
+  String syncSequenceSql() {
+    return """
+        SELECT setval(s.seq, m.max_id)
+        FROM (SELECT pg_get_serial_sequence('%1$s', '%2$s') AS seq) s,
+             (SELECT max(%2$s) AS max_id FROM %1$s) m
+        WHERE m.max_id > coalesce(pg_sequence_last_value(s.seq::regclass), 0)
+        """
+        .formatted(table, primaryKey());
+  }
+
+  private record ForeignKey(String column, String parentTable) {}
+
+  /** {@code value} is an SQL expression over the staged row {@code s} and its order {@code p}. */
+  private record PartitionKey(String column, String value) {}
+}
@@ -0,0 +1,104 @@
+package project.orderservice.service.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.cfg.JsonNodeFeature;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Turns newline delimited JSON into the CSV accepted by {@code COPY ... (FORMAT csv)}, one line at
+ * a time, so only the row being converted is ever held in memory.
+ */
+final class NdjsonCsvReader extends Reader {
+
+  private final BufferedReader lines;
+  private final List<String> columns;
+  private final ObjectReader jsonReader;
+  private final StringBuilder row = new StringBuilder();
+  private int position;
+  private long lineNumber;
+
+  NdjsonCsvReader(Reader ndjson, List<String> columns, ObjectMapper objectMapper) {
+    this.lines = new BufferedReader(ndjson);
+    this.columns = columns;
+    // prices and amounts must keep their exact value and scale
+    this.jsonReader =
+        objectMapper
+            .reader()
+            .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .without(JsonNodeFeature.STRIP_TRAILING_BIGDECIMAL_ZEROES);
+  }
+
+  @Override
+  public int read(char[] buffer, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (position == row.length() && !nextRow()) {
+      return -1;
+    }
+    int count = Math.min(length, row.length() - position);
+    row.getChars(position, position + count, buffer, offset);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public void close() throws IOException {
+    lines.close();
+  }
+
+  private boolean nextRow() throws IOException {
+    String line;
+    do {
+      line = lines.readLine();
+      if (line == null) {
+        return false;
+      }
+      lineNumber++;
+    } while (line.isBlank());
+
+    JsonNode node;
+    try {
+      node = jsonReader.readTree(line);
+    } catch (JsonProcessingException e) {
+      throw new IOException("Invalid JSON on line " + lineNumber, e);
+    }
+    if (!node.isObject()) {
+      throw new IOException("Expected a JSON object on line " + lineNumber);
+    }
+
+    row.setLength(0);
+    position = 0;
+    for (int i = 0; i < columns.size(); i++) {
+      if (i > 0) {
+        row.append(',');
+      }
+      appendValue(node.get(columns.get(i)));
+    }
+    row.append('\n');
+    return true;
+  }
+
+  private void appendValue(JsonNode value) {
+    // an unquoted empty field is read as NULL by COPY, a quoted one as an empty string
+    if (value == null || value.isNull()) {
+      return;
+    }
+    String text;
+    if (value.isNumber() && !value.isIntegralNumber()) {
+      text = value.decimalValue().toPlainString();
+    } else if (value.isValueNode()) {
+      text = value.asText();
+    } else {
+      text = value.toString();
+    }
+    row.append('"').append(text.replace("\"", "\"\"")).append('"');
+  }
+}
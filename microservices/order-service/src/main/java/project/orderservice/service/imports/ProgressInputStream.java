@@ -0,0 +1,71 @@
+package project.orderservice.service.imports;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import lombok.extern.slf4j.Slf4j;
+
+/** Counts the bytes handed to COPY and logs the throughput every {@value #REPORT_EVERY_MIB} MiB. */
+@Slf4j
+final class ProgressInputStream extends FilterInputStream {
+
+  private static final long REPORT_EVERY_MIB = 64;
+  private static final long MIB = 1 << 20;
+
+  private final String table;
+  private final long startNanos = System.nanoTime();
+  private long bytesRead;
+  private long nextReport = REPORT_EVERY_MIB * MIB;
+
+  ProgressInputStream(InputStream in, String table) {
+    super(in);
+    this.table = table;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int b = super.read();
+    if (b >= 0) {
+      count(1);
+    }
+    return b;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws IOException {
+    int read = super.read(buffer, offset, length);
+    count(read);
+    return read;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = super.skip(n);
+    count(skipped);
+    return skipped;
+  }
+
+  long bytesRead() {
+    return bytesRead;
+  }
+
+  long elapsedMillis() {
+    return (System.nanoTime() - startNanos) / 1_000_000;
+  }
+
+  private void count(long n) {
+    if (n <= 0) {
+      return;
+    }
+    bytesRead += n;
+    if (bytesRead >= nextReport) {
+      nextReport += REPORT_EVERY_MIB * MIB;
+      double seconds = Math.max(elapsedMillis(), 1) / 1000D;
+      log.info(
+          "Import into {}: {} MiB read, {} MiB/s",
+          table,
+          bytesRead / MIB,
+          String.format("%.1f", bytesRead / (double) MIB / seconds));
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package project.orderservice.service.outbox;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Posts every batch as one JSON array to the event endpoint of the Fulfillment Service. The relay
+ * publishes while it holds the locks of the batch and a database connection, so the connect and
+ * read timeouts bound how long a hanging Fulfillment Service can keep them.
+ */
+@Component
+@ConditionalOnProperty(name = "orderservice.outbox.transport", havingValue = "http")
+public class HttpOutboxTransport implements OutboxTransport {
+
+  private final RestClient restClient;
+
+  public HttpOutboxTransport(
+      RestClient.Builder restClientBuilder,
+      @Value("${orderservice.outbox.http.url}") String url,
+      @Value("${orderservice.outbox.http.connect-timeout:2s}") Duration connectTimeout,
+      @Value("${orderservice.outbox.http.read-timeout:10s}") Duration readTimeout) {
+    this.restClient =
+        restClientBuilder
+            .baseUrl(url)
+            .requestFactory(
+                ClientHttpRequestFactories.get(
+                    ClientHttpRequestFactorySettings.DEFAULTS
+                        .withConnectTimeout(connectTimeout)
+                        .withReadTimeout(readTimeout)))
+            .build();
+  }
+
+  @Override
+  public void publish(List<OutboxMessage> messages) {
+    restClient
+        .post()
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(messages)
+        .retrieve()
+        .toBodilessEntity();
+  }
+}
@@ -0,0 +1,34 @@
+package project.orderservice.service.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the published events in memory, for tests and for running without a Fulfillment Service.
+ */
+@Component
+@ConditionalOnProperty(
+    name = "orderservice.outbox.transport",
+    havingValue = "in-memory",
+    matchIfMissing = true)
+public class InMemoryOutboxTransport implements OutboxTransport {
+
+  private final ConcurrentLinkedQueue<OutboxMessage> published = new ConcurrentLinkedQueue<>();
+
+  @Override
+  public void publish(List<OutboxMessage> messages) {
+    published.addAll(messages);
+  }
+
+  /** Returns and forgets the events published so far. */
+  public List<OutboxMessage> drain() {
+    List<OutboxMessage> messages = new ArrayList<>();
+    for (OutboxMessage message; (message = published.poll()) != null; ) {
+      messages.add(message);
+    }
+    return messages;
+  }
+}
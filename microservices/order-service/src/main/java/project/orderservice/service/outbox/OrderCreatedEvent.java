@@ -0,0 +1,30 @@
+package project.orderservice.service.outbox;
+
+import java.math.BigDecimal;
+import java.util.List;
+import project.orderservice.model.DeliveryAddress;
+import project.orderservice.model.Order;
+
+/** Payload of the {@code OrderCreated} event, everything the Fulfillment Service needs to ship. */
+public record OrderCreatedEvent(long orderId, Address deliveryAddress, List<Item> items) {
+
+  public record Address(
+      String street, String city, String state, String country, String postalCode) {}
+
+  public record Item(long orderItemId, long productId, BigDecimal amount) {}
+
+  static OrderCreatedEvent of(Order order) {
+    DeliveryAddress address = order.getDeliveryAddress();
+    return new OrderCreatedEvent(
+        order.getId(),
+        new Address(
+            address.getStreet(),
+            address.getCity(),
+            address.getState(),
+            address.getCountry(),
+            address.getPostalCode()),
+        order.getOrderItemList().stream()
+            .map(item -> new Item(item.getId(), item.getProduct().getId(), item.getAmount()))
+            .toList());
+  }
+}
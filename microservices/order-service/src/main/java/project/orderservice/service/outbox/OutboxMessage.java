@@ -0,0 +1,16 @@
+package project.orderservice.service.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import java.time.OffsetDateTime;
+
+/**
+ * An outbox event as handed to a transport. The id is unique per event, so a consumer can drop the
+ * events it receives again after a relay failed between publishing and committing.
+ */
+public record OutboxMessage(
+    long id,
+    String aggregateType,
+    long aggregateId,
+    String eventType,
+    @JsonRawValue String payload,
+    OffsetDateTime createdAt) {}
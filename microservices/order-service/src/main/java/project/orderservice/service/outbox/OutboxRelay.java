@@ -0,0 +1,184 @@
+package project.orderservice.service.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves events from the outbox to the {@link OutboxTransport}. Every batch is locked with {@code
+ * FOR UPDATE SKIP LOCKED}, published and deleted in one transaction, so concurrent workers, also in
+ * other instances, never pick the same event. An event is delivered again only when the relay fails
+ * after publishing and before committing.
+ *
+ * <p>The transaction stays open while the batch is published. {@code transaction-timeout} caps it
+ * with {@code idle_in_transaction_session_timeout}: when publishing takes longer, Postgres ends the
+ * session, the batch is rolled back and its locks and connection are freed for the next attempt.
+ *
+ * <p>{@code workers} threads poll while the application runs. A worker that finds a full batch
+ * continues right away, otherwise it sleeps {@code poll-interval}.
+ */
+@Slf4j
+@Service
+public class OutboxRelay implements SmartLifecycle {
+
+  private static final String LOCK_BATCH =
+      """
+      SELECT outbox_event_id, aggregate_type, aggregate_id, event_type, payload::text, created_at,
+             extract(epoch FROM clock_timestamp() - created_at) * 1000 AS lag_millis
+      FROM outbox_event
+      ORDER BY outbox_event_id
+      LIMIT ?
+      FOR UPDATE SKIP LOCKED
+      """;
+
+  private static final String LIMIT_IDLE_IN_TRANSACTION =
+      "SELECT set_config('idle_in_transaction_session_timeout', ?, true)";
+
+  private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+  private static final String DELETE_BATCH =
+      "DELETE FROM outbox_event WHERE outbox_event_id = ANY(?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final OutboxTransport transport;
+  private final int batchSize;
+  private final int workers;
+  private final Duration pollInterval;
+  private final Duration transactionTimeout;
+
+  private final DistributionSummary batchSizes;
+  private final Timer lag;
+  private final Counter failures;
+
+  private final List<Thread> workerThreads = new ArrayList<>();
+  private volatile boolean running;
+
+  public OutboxRelay(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      OutboxTransport transport,
+      ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${orderservice.outbox.batch-size:100}") int batchSize,
+      @Value("${orderservice.outbox.workers:2}") int workers,
+      @Value("${orderservice.outbox.poll-interval:1s}") Duration pollInterval,
+      @Value("${orderservice.outbox.transaction-timeout:30s}") Duration transactionTimeout) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.transport = transport;
+    this.batchSize = batchSize;
+    this.workers = workers;
+    this.pollInterval = pollInterval;
+    this.transactionTimeout = transactionTimeout;
+    MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    this.batchSizes =
+        DistributionSummary.builder("outbox.batch.size")
+            .description("Events per published batch")
+            .register(registry);
+    this.lag =
+        Timer.builder("outbox.lag")
+            .description("Time from writing an event to publishing it")
+            .register(registry);
+    this.failures =
+        Counter.builder("outbox.publish.failures")
+            .description("Batches left in the outbox because relaying failed")
+            .register(registry);
+  }
+
+  /** Publishes at most one batch and returns its size, 0 when nothing was pending. */
+  public int relayBatch() {
+    Integer published =
+        transactionTemplate.execute(
+            status -> {
+              jdbcTemplate.queryForObject(
+                  LIMIT_IDLE_IN_TRANSACTION,
+                  String.class,
+                  String.valueOf(transactionTimeout.toMillis()));
+              List<Long> lagMillis = new ArrayList<>(batchSize);
+              List<OutboxMessage> messages =
+                  jdbcTemplate.query(
+                      LOCK_BATCH,
+                      (resultSet, rowNum) -> {
+                        lagMillis.add(resultSet.getLong("lag_millis"));
+                        return new OutboxMessage(
+                            resultSet.getLong("outbox_event_id"),
+                            resultSet.getString("aggregate_type"),
+                            resultSet.getLong("aggregate_id"),
+                            resultSet.getString("event_type"),
+                            resultSet.getString("payload"),
+                            resultSet.getObject("created_at", OffsetDateTime.class));
+                      },
+                      batchSize);
+              if (messages.isEmpty()) {
+                return 0;
+              }
+              transport.publish(messages);
+              jdbcTemplate.update(
+                  DELETE_BATCH,
+                  (Object) messages.stream().map(OutboxMessage::id).toArray(Long[]::new));
+              lagMillis.forEach(millis -> lag.record(millis, TimeUnit.MILLISECONDS));
+              batchSizes.record(messages.size());
+              return messages.size();
+            });
+    return published == null ? 0 : published;
+  }
+
+  private void poll() {
+    while (running) {
+      int published = 0;
+      try {
+        published = relayBatch();
+      } catch (RuntimeException e) {
+        failures.increment();
+        log.warn("Relaying the outbox failed, retrying in {}", pollInterval, e);
+      }
+      if (published < batchSize) {
+        // woken up early by stop(); an interrupt would close the connection of a running batch
+        LockSupport.parkNanos(pollInterval.toNanos());
+      }
+    }
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    for (int i = 0; i < workers; i++) {
+      workerThreads.add(Thread.ofVirtual().name("outbox-relay-" + i).start(this::poll));
+    }
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    workerThreads.forEach(LockSupport::unpark);
+    for (Thread worker : workerThreads) {
+      try {
+        worker.join(SHUTDOWN_TIMEOUT);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    workerThreads.clear();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+}
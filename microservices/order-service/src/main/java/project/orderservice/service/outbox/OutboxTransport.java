@@ -0,0 +1,12 @@
+package project.orderservice.service.outbox;
+
+import java.util.List;
+
+/**
+ * Delivers a batch of outbox events to the Fulfillment Service. The events of a batch are removed
+ * from the outbox only when this returns, an exception leaves the whole batch for the next poll.
+ */
+public interface OutboxTransport {
+
+  void publish(List<OutboxMessage> messages);
+}
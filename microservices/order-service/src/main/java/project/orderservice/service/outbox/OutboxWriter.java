@@ -0,0 +1,46 @@
+package project.orderservice.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import project.orderservice.model.Order;
+import project.orderservice.model.OutboxEvent;
+
+/**
+ * Adds events to the outbox. The event is persisted in the caller's transaction, so it is committed
+ * together with the order or not at all.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+  static final String ORDER = "Order";
+  static final String ORDER_CREATED = "OrderCreated";
+
+  private final EntityManager entityManager;
+  private final ObjectMapper objectMapper;
+
+  /** The items of the order must already be persisted, their ids are part of the event. */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void orderCreated(Order order) {
+    entityManager.persist(
+        OutboxEvent.builder()
+            .aggregateType(ORDER)
+            .aggregateId(order.getId())
+            .eventType(ORDER_CREATED)
+            .payload(toJson(OrderCreatedEvent.of(order)))
+            .build());
+  }
+
+  private String toJson(Object event) {
+    try {
+      return objectMapper.writeValueAsString(event);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize " + event, e);
+    }
+  }
+}
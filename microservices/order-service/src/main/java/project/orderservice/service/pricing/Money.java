@@ -0,0 +1,33 @@
+package project.orderservice.service.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money as a count of minor units (cents), matching the {@code numeric(18,2)} price
+ * and total columns. Conversions are exact: a value with more than two decimals or more than
+ * eighteen digits is rejected with an {@link ArithmeticException} instead of being rounded.
+ */
+public record Money(long minorUnits) {
+
+  public static final int SCALE = 2;
+  public static final int PRECISION = 18;
+  public static final Money ZERO = new Money(0);
+
+  public static Money of(BigDecimal value) {
+    return new Money(unscaled(value, SCALE, PRECISION));
+  }
+
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(minorUnits, SCALE);
+  }
+
+  static long unscaled(BigDecimal value, int scale, int precision) {
+    BigDecimal scaled = value.setScale(scale, RoundingMode.UNNECESSARY);
+    if (scaled.precision() > precision) {
+      throw new ArithmeticException(
+          value + " does not fit numeric(" + precision + "," + scale + ")");
+    }
+    return scaled.unscaledValue().longValueExact();
+  }
+}
@@ -0,0 +1,4 @@
+package project.orderservice.service.pricing;
+
+/** Price breakdown of an order, every value in minor units. */
+public record OrderPrice(long subtotal, long discount, long tax, long total) {}
@@ -0,0 +1,23 @@
+package project.orderservice.service.pricing;
+
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.orderservice.dto.OrderPriceResponse;
+import project.orderservice.repository.OrderRepository;
+
+@Service
+@RequiredArgsConstructor
+public class OrderPricingService {
+
+  private final OrderRepository orderRepository;
+  private final PricingEngine pricingEngine;
+
+  @Transactional(readOnly = true)
+  public Optional<OrderPriceResponse> priceOrder(Long id, int discountBasisPoints) {
+    return orderRepository
+        .findFullById(id)
+        .map(order -> OrderPriceResponse.from(id, pricingEngine.price(order, discountBasisPoints)));
+  }
+}
@@ -0,0 +1,94 @@
+package project.orderservice.service.pricing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import project.orderservice.model.Order;
+import project.orderservice.model.OrderItem;
+
+/**
+ * Prices orders on {@code long} minor units instead of {@link java.math.BigDecimal}, so pricing a
+ * large order allocates nothing but its result. Rounding is always HALF_UP, which is what
+ * PostgreSQL's {@code round(numeric, 2)} does, and happens at fixed points:
+ *
+ * <ul>
+ *   <li>every line total is rounded to cents, like the order totals maintained by the database,
+ *   <li>the discount is taken from the subtotal and rounded once,
+ *   <li>the tax is taken from the discounted subtotal and rounded once.
+ * </ul>
+ *
+ * Arithmetic overflow throws an {@link ArithmeticException}.
+ */
+@Service
+public class PricingEngine {
+
+  static final long QUANTITY_UNIT = 1_000;
+  static final int BASIS_POINTS = 10_000;
+
+  private final int taxRateBasisPoints;
+
+  public PricingEngine(
+      @Value("${orderservice.pricing.tax-rate-basis-points:1900}") int taxRateBasisPoints) {
+    this.taxRateBasisPoints = checkBasisPoints(taxRateBasisPoints);
+  }
+
+  /** Unit price in minor units times a quantity in thousandths, rounded to minor units. */
+  public static long lineTotal(long unitPrice, long quantity) {
+    return divideHalfUp(Math.multiplyExact(unitPrice, quantity), QUANTITY_UNIT);
+  }
+
+  public static long subtotal(long[] unitPrices, long[] quantities, int lines) {
+    long subtotal = 0;
+    for (int i = 0; i < lines; i++) {
+      subtotal = Math.addExact(subtotal, lineTotal(unitPrices[i], quantities[i]));
+    }
+    return subtotal;
+  }
+
+  /** The given share of an amount, in basis points (1/100 of a percent), rounded. */
+  public static long percentage(long amount, int basisPoints) {
+    return divideHalfUp(Math.multiplyExact(amount, basisPoints), BASIS_POINTS);
+  }
+
+  public OrderPrice price(
+      long[] unitPrices, long[] quantities, int lines, int discountBasisPoints) {
+    long subtotal = subtotal(unitPrices, quantities, lines);
+    long discount = percentage(subtotal, checkBasisPoints(discountBasisPoints));
+    long tax = percentage(subtotal - discount, taxRateBasisPoints);
+    return new OrderPrice(subtotal, discount, tax, Math.addExact(subtotal - discount, tax));
+  }
+
+  /** Prices an order whose items and products are loaded. */
+  public OrderPrice price(Order order, int discountBasisPoints) {
+    int lines = order.getOrderItemList().size();
+    long[] unitPrices = new long[lines];
+    long[] quantities = new long[lines];
+    int line = 0;
+    for (OrderItem item : order.getOrderItemList()) {
+      // a missing price or amount prices the line at zero, as the database totals do
+      unitPrices[line] =
+          item.getProduct().getPrice() == null
+              ? 0
+              : Money.of(item.getProduct().getPrice()).minorUnits();
+      quantities[line] = item.getAmount() == null ? 0 : Quantity.of(item.getAmount()).thousandths();
+      line++;
+    }
+    return price(unitPrices, quantities, lines, discountBasisPoints);
+  }
+
+  static long divideHalfUp(long dividend, long divisor) {
+    long quotient = dividend / divisor;
+    long remainder = dividend % divisor;
+    if (Math.abs(remainder) * 2 >= divisor) {
+      quotient += Long.signum(dividend);
+    }
+    return quotient;
+  }
+
+  private static int checkBasisPoints(int basisPoints) {
+    if (basisPoints < 0 || basisPoints > BASIS_POINTS) {
+      throw new IllegalArgumentException(
+          "Basis points must be between 0 and 10000: " + basisPoints);
+    }
+    return basisPoints;
+  }
+}
@@ -0,0 +1,21 @@
+package project.orderservice.service.pricing;
+
+import java.math.BigDecimal;
+
+/**
+ * An order item amount as a count of thousandths, matching the {@code numeric(18,3)} amount column.
+ * Conversions are exact, like {@link Money}.
+ */
+public record Quantity(long thousandths) {
+
+  public static final int SCALE = 3;
+  public static final int PRECISION = 18;
+
+  public static Quantity of(BigDecimal value) {
+    return new Quantity(Money.unscaled(value, SCALE, PRECISION));
+  }
+
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(thousandths, SCALE);
+  }
+}
@@ -0,0 +1,122 @@
+package project.orderservice.service.reporting;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.orderservice.dto.CitySales;
+import project.orderservice.dto.ProductSales;
+import project.orderservice.dto.ProductSalesDay;
+import project.orderservice.dto.SalesReport;
+
+/**
+ * Sales reports read from the daily rollups kept by {@link SalesRollupRefresher}. A year of sales
+ * is at most 366 rows per product or city, so no report touches the orders or their items.
+ */
+@Service
+@RequiredArgsConstructor
+public class SalesReports {
+
+  private static final String REFRESHED_AT =
+      "SELECT refreshed_at FROM sales_rollup_watermark WHERE id = 1";
+
+  private static final String PRODUCT_DAYS =
+      """
+      SELECT day, product_id, item_count, quantity, revenue
+      FROM product_sales_daily
+      WHERE product_id = ? AND day BETWEEN ? AND ?
+      ORDER BY day
+      """;
+
+  /** The product names are read for the top rows only. */
+  private static final String TOP_PRODUCTS =
+      """
+      SELECT s.product_id, p.name, s.item_count, s.quantity, s.revenue
+      FROM (SELECT product_id, sum(item_count) AS item_count, sum(quantity) AS quantity,
+                   sum(revenue) AS revenue
+            FROM product_sales_daily
+            WHERE day BETWEEN ? AND ?
+            GROUP BY product_id
+            ORDER BY revenue DESC, product_id
+            LIMIT ?) s
+      LEFT JOIN product p ON p.product_id = s.product_id
+      ORDER BY s.revenue DESC, s.product_id
+      """;
+
+  private static final String TOP_CITIES =
+      """
+      SELECT city, sum(order_count) AS order_count, sum(item_count) AS item_count,
+             sum(revenue) AS revenue
+      FROM city_sales_daily
+      WHERE day BETWEEN ? AND ?
+      GROUP BY city
+      ORDER BY revenue DESC, city
+      LIMIT ?
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Transactional(readOnly = true)
+  public SalesReport<ProductSalesDay> productDays(long productId, LocalDate from, LocalDate to) {
+    return report(
+        from,
+        to,
+        jdbcTemplate.query(
+            PRODUCT_DAYS,
+            (rs, rowNum) ->
+                new ProductSalesDay(
+                    rs.getObject("day", LocalDate.class),
+                    rs.getLong("product_id"),
+                    rs.getLong("item_count"),
+                    rs.getBigDecimal("quantity"),
+                    rs.getBigDecimal("revenue")),
+            productId,
+            from,
+            to));
+  }
+
+  @Transactional(readOnly = true)
+  public SalesReport<ProductSales> topProducts(LocalDate from, LocalDate to, int limit) {
+    return report(
+        from,
+        to,
+        jdbcTemplate.query(
+            TOP_PRODUCTS,
+            (rs, rowNum) ->
+                new ProductSales(
+                    rs.getLong("product_id"),
+                    rs.getString("name"),
+                    rs.getLong("item_count"),
+                    rs.getBigDecimal("quantity"),
+                    rs.getBigDecimal("revenue")),
+            from,
+            to,
+            limit));
+  }
+
+  @Transactional(readOnly = true)
+  public SalesReport<CitySales> topCities(LocalDate from, LocalDate to, int limit) {
+    return report(
+        from,
+        to,
+        jdbcTemplate.query(
+            TOP_CITIES,
+            (rs, rowNum) ->
+                new CitySales(
+                    rs.getString("city"),
+                    rs.getLong("order_count"),
+                    rs.getLong("item_count"),
+                    rs.getBigDecimal("revenue")),
+            from,
+            to,
+            limit));
+  }
+
+  private <T> SalesReport<T> report(LocalDate from, LocalDate to, List<T> rows) {
+    return new SalesReport<>(
+        from, to, jdbcTemplate.queryForObject(REFRESHED_AT, OffsetDateTime.class), rows);
+  }
+}
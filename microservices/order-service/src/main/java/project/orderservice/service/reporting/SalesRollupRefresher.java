@@ -0,0 +1,93 @@
+package project.orderservice.service.reporting;
+
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Folds the sales deltas written by the triggers of V16 into the daily rollups. A run takes the
+ * deltas from the watermark up to the oldest transaction that is still running, all of them ended,
+ * so no delta of a transaction that commits later is skipped, whatever order transactions commit
+ * in. The work of a run is proportional to the deltas since the last one, not to the history. A
+ * long-running transaction holds the watermark back until it ends.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SalesRollupRefresher {
+
+  /** Skipped while the refresh of another instance holds the lock. */
+  private static final String LOCK_WATERMARK =
+      "SELECT xid::text FROM sales_rollup_watermark WHERE id = 1 FOR UPDATE SKIP LOCKED";
+
+  private static final String OLDEST_RUNNING =
+      "SELECT pg_snapshot_xmin(pg_current_snapshot())::text";
+
+  private static final String FOLD_DELTAS =
+      """
+      WITH delta AS (
+          DELETE FROM sales_rollup_delta
+          WHERE xid >= ?::xid8 AND xid < ?::xid8
+          RETURNING day, product_id, city, order_count, item_count, quantity, revenue),
+      products AS (
+          INSERT INTO product_sales_daily AS s (day, product_id, item_count, quantity, revenue)
+          SELECT day, product_id, sum(item_count), sum(quantity), sum(revenue)
+          FROM delta
+          WHERE product_id IS NOT NULL
+          GROUP BY day, product_id
+          ON CONFLICT (day, product_id) DO UPDATE
+          SET item_count = s.item_count + excluded.item_count,
+              quantity = s.quantity + excluded.quantity,
+              revenue = s.revenue + excluded.revenue
+          RETURNING 1),
+      cities AS (
+          INSERT INTO city_sales_daily AS s (day, city, order_count, item_count, revenue)
+          SELECT day, city, sum(order_count), sum(item_count), sum(revenue)
+          FROM delta
+          WHERE city IS NOT NULL
+          GROUP BY day, city
+          ON CONFLICT (day, city) DO UPDATE
+          SET order_count = s.order_count + excluded.order_count,
+              item_count = s.item_count + excluded.item_count,
+              revenue = s.revenue + excluded.revenue
+          RETURNING 1)
+      SELECT (SELECT count(*) FROM delta) AS deltas,
+             (SELECT count(*) FROM products) AS product_days,
+             (SELECT count(*) FROM cities) AS city_days
+      """;
+
+  private static final String MOVE_WATERMARK =
+      "UPDATE sales_rollup_watermark SET xid = ?::xid8, refreshed_at = now() WHERE id = 1";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  /** Returns the number of folded deltas, 0 when another refresh is running. */
+  @Scheduled(cron = "${orderservice.rollup.refresh-cron:-}")
+  public long refresh() {
+    Long deltas =
+        transactionTemplate.execute(
+            status -> {
+              List<String> watermark = jdbcTemplate.queryForList(LOCK_WATERMARK, String.class);
+              if (watermark.isEmpty()) {
+                return 0L;
+              }
+              String oldestRunning = jdbcTemplate.queryForObject(OLDEST_RUNNING, String.class);
+              Map<String, Object> folded =
+                  jdbcTemplate.queryForMap(FOLD_DELTAS, watermark.get(0), oldestRunning);
+              jdbcTemplate.update(MOVE_WATERMARK, oldestRunning);
+              log.debug(
+                  "Folded {} sales deltas into {} product days and {} city days",
+                  folded.get("deltas"),
+                  folded.get("product_days"),
+                  folded.get("city_days"));
+              return ((Number) folded.get("deltas")).longValue();
+            });
+    return deltas == null ? 0 : deltas;
+  }
+}
@@ -0,0 +1,21 @@
+package project.orderservice.service.search;
+
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/** {@code POST /actuator/productsearch}: rebuilds the product search indexes. */
+@Component
+@Endpoint(id = "productsearch")
+@RequiredArgsConstructor
+public class ProductSearchIndexEndpoint {
+
+  private final ProductSearchService productSearchService;
+
+  @WriteOperation
+  public Map<String, Long> rebuild() {
+    return productSearchService.rebuildIndexes();
+  }
+}
@@ -0,0 +1,121 @@
+package project.orderservice.service.search;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import project.orderservice.dto.ProductSearchHit;
+
+/**
+ * Searches products by name with the indexes of V13. Every word of the query matches as a prefix of
+ * a word of the name, ranked by {@code ts_rank}. When that finds fewer than {@code limit} products,
+ * the rest are filled up by trigram similarity, which also matches misspelled words.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSearchService {
+
+  private static final List<String> SEARCH_INDEXES =
+      List.of("idx_product_search_vector", "idx_product_name_trgm");
+
+  private static final int MAX_WORDS = 8;
+
+  private static final String PREFIX_SEARCH =
+      """
+      SELECT p.product_id, p.name, p.price, ts_rank(p.search_vector, q, 1) AS score
+      FROM product p, to_tsquery('simple', ?) q
+      WHERE p.search_vector @@ q
+      ORDER BY score DESC, p.product_id
+      LIMIT ?
+      """;
+
+  /**
+   * {@code <%} is true when the word similarity of the query to some part of the name reaches
+   * {@code pg_trgm.word_similarity_threshold}, which the GIN trigram index can check.
+   */
+  private static final String FUZZY_SEARCH =
+      """
+      SELECT product_id, name, price, word_similarity(?, name) AS score
+      FROM product
+      WHERE ? <% name
+      ORDER BY score DESC, product_id
+      LIMIT ?
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Value("${orderservice.search.fuzzy-threshold:0.5}")
+  private double fuzzyThreshold;
+
+  @Transactional(readOnly = true)
+  public List<ProductSearchHit> search(String query, int limit) {
+    List<String> words = words(query);
+    if (words.isEmpty()) {
+      return List.of();
+    }
+    // the words only consist of letters and digits, none of them is tsquery syntax
+    String prefixQuery = words.stream().map(word -> word + ":*").collect(Collectors.joining(" & "));
+    List<ProductSearchHit> hits =
+        jdbcTemplate.query(PREFIX_SEARCH, (rs, i) -> hit(rs, false), prefixQuery, limit);
+    if (hits.size() == limit) {
+      return hits;
+    }
+    Set<Long> found = new HashSet<>();
+    hits.forEach(hit -> found.add(hit.id()));
+    String text = String.join(" ", words);
+    jdbcTemplate.queryForObject(
+        "SELECT set_config('pg_trgm.word_similarity_threshold', ?, true)",
+        String.class,
+        String.valueOf(fuzzyThreshold));
+    List<ProductSearchHit> fuzzy =
+        jdbcTemplate.query(FUZZY_SEARCH, (rs, i) -> hit(rs, true), text, text, limit);
+    return Stream.concat(hits.stream(), fuzzy.stream().filter(hit -> !found.contains(hit.id())))
+        .limit(limit)
+        .toList();
+  }
+
+  /**
+   * Rebuilds the search indexes without blocking product writes, e.g. after they bloated from many
+   * updates, and refreshes the statistics of the table. Each index takes a transaction of its own.
+   */
+  public Map<String, Long> rebuildIndexes() {
+    Map<String, Long> millis = new LinkedHashMap<>();
+    for (String index : SEARCH_INDEXES) {
+      long start = System.nanoTime();
+      jdbcTemplate.execute("REINDEX INDEX CONCURRENTLY " + index);
+      millis.put(index, (System.nanoTime() - start) / 1_000_000);
+    }
+    jdbcTemplate.execute("ANALYZE product");
+    log.info("Rebuilt the product search indexes in {} ms", millis);
+    return millis;
+  }
+
+  private static List<String> words(String query) {
+    return Arrays.stream(query.split("[^\\p{L}\\p{N}]+"))
+        .filter(word -> !word.isEmpty())
+        .limit(MAX_WORDS)
+        .toList();
+  }
+
+  private static ProductSearchHit hit(ResultSet rs, boolean fuzzy) throws SQLException {
+    return new ProductSearchHit(
+        rs.getLong("product_id"),
+        rs.getString("name"),
+        rs.getBigDecimal("price"),
+        rs.getDouble("score"),
+        fuzzy);
+  }
+}
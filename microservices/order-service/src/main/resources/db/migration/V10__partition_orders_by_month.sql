@@ -0,0 +1,230 @@
+-- orders and order_item become range partitioned by month of the order's creation time, so vacuum,
+-- index maintenance and retention work on one month at a time. A unique constraint on a partitioned
+-- table has to contain the partition key, so the PKs become (id, created at) and order_item carries
+-- the creation time of its order for the FK. Ids stay unique through their sequences.
+-- OrderPartitionMaintainer creates the partitions of the coming months and detaches expired ones.
+
+-- the sequences are owned by the old columns and would be dropped with them
+ALTER SEQUENCE orders_order_id_seq OWNED BY NONE;
+ALTER SEQUENCE order_item_order_item_id_seq OWNED BY NONE;
+
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+ALTER TABLE order_item RENAME TO order_item_unpartitioned;
+
+CREATE TABLE orders
+(
+    order_id            int            NOT NULL DEFAULT nextval('orders_order_id_seq'),
+    delivery_address_id int,
+    order_total         numeric(18, 2) NOT NULL DEFAULT 0,
+    item_count          int            NOT NULL DEFAULT 0,
+    created_at          timestamptz    NOT NULL DEFAULT now()
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE order_item
+(
+    order_item_id    int         NOT NULL DEFAULT nextval('order_item_order_item_id_seq'),
+    product_id       int,
+    order_id         int,
+    amount           numeric(18, 3),
+    order_created_at timestamptz NOT NULL
+) PARTITION BY RANGE (order_created_at);
+
+ALTER SEQUENCE orders_order_id_seq OWNED BY orders.order_id;
+ALTER SEQUENCE order_item_order_item_id_seq OWNED BY order_item.order_item_id;
+
+-- Creates the missing monthly partitions of both tables for the given number of months, starting
+-- with the month of first_month. Bounds are UTC month starts. Returns the number of new partitions.
+CREATE FUNCTION create_order_partitions(first_month timestamptz, months int) RETURNS int
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    month_start timestamp;
+    suffix      text;
+    created     int := 0;
+BEGIN
+    FOR i IN 0 .. months - 1
+        LOOP
+            -- month arithmetic on UTC timestamps, a timestamptz would follow the session time zone
+            month_start := date_trunc('month', first_month AT TIME ZONE 'UTC') + make_interval(months => i);
+            suffix := to_char(month_start, 'YYYY_MM');
+            IF to_regclass('orders_p' || suffix) IS NULL THEN
+                EXECUTE format('CREATE TABLE orders_p%s PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                               suffix, month_start AT TIME ZONE 'UTC',
+                               (month_start + interval '1 month') AT TIME ZONE 'UTC');
+                created := created + 1;
+            END IF;
+            IF to_regclass('order_item_p' || suffix) IS NULL THEN
+                EXECUTE format('CREATE TABLE order_item_p%s PARTITION OF order_item FOR VALUES FROM (%L) TO (%L)',
+                               suffix, month_start AT TIME ZONE 'UTC',
+                               (month_start + interval '1 month') AT TIME ZONE 'UTC');
+                created := created + 1;
+            END IF;
+        END LOOP;
+    RETURN created;
+END
+$$;
+
+-- Detaches the monthly partitions that end on or before the given time, order_item first because
+-- its FK references the orders partition. A detached order_item partition keeps a copy of that FK,
+-- it is dropped as its orders are detached next. The detached tables are kept and returned by name.
+CREATE FUNCTION detach_order_partitions(before timestamptz) RETURNS SETOF text
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    parent    text;
+    partition text;
+BEGIN
+    FOREACH parent IN ARRAY ARRAY ['order_item', 'orders']
+        LOOP
+            FOR partition IN
+                SELECT c.relname
+                FROM pg_inherits i
+                         JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = parent::regclass
+                  AND c.relname ~ ('^' || parent || '_p\d{4}_\d{2}$')
+                  AND (to_date(right(c.relname, 7), 'YYYY_MM') + interval '1 month')::timestamp
+                          AT TIME ZONE 'UTC' <= before
+                ORDER BY c.relname
+                LOOP
+                    EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent, partition);
+                    IF parent = 'order_item' THEN
+                        EXECUTE format('ALTER TABLE %I DROP CONSTRAINT fk_order_id', partition);
+                    END IF;
+                    RETURN NEXT partition;
+                END LOOP;
+        END LOOP;
+END
+$$;
+
+-- rows outside the maintained months, e.g. imported history, land in the default partitions
+CREATE TABLE orders_default PARTITION OF orders DEFAULT;
+CREATE TABLE order_item_default PARTITION OF order_item DEFAULT;
+
+SELECT create_order_partitions(now(), 4);
+
+INSERT INTO orders (order_id, delivery_address_id, order_total, item_count, created_at)
+SELECT order_id, delivery_address_id, order_total, item_count, created_at
+FROM orders_unpartitioned;
+
+-- an item without an order was never reachable, it goes to the current month
+INSERT INTO order_item (order_item_id, product_id, order_id, amount, order_created_at)
+SELECT i.order_item_id, i.product_id, i.order_id, i.amount, coalesce(o.created_at, now())
+FROM order_item_unpartitioned i
+         LEFT JOIN orders_unpartitioned o ON o.order_id = i.order_id;
+
+DROP TABLE order_item_unpartitioned;
+DROP TABLE orders_unpartitioned;
+
+ALTER TABLE orders
+    ADD PRIMARY KEY (order_id, created_at),
+    ADD CONSTRAINT fk_delivery_address
+        FOREIGN KEY (delivery_address_id) REFERENCES delivery_address (delivery_address_id);
+
+-- moving an order to another month, e.g. by correcting created_at, moves its items along
+ALTER TABLE order_item
+    ADD PRIMARY KEY (order_item_id, order_created_at),
+    ADD CONSTRAINT fk_product_id
+        FOREIGN KEY (product_id) REFERENCES product (product_id),
+    ADD CONSTRAINT fk_order_id
+        FOREIGN KEY (order_id, order_created_at) REFERENCES orders (order_id, created_at)
+            ON UPDATE CASCADE;
+
+-- the indexes of V4, V6 and V9, created on every partition
+CREATE INDEX idx_orders_delivery_address_id_order_id ON orders (delivery_address_id, order_id);
+CREATE INDEX idx_orders_order_total ON orders (order_total);
+CREATE INDEX idx_orders_created_at ON orders (created_at);
+CREATE INDEX idx_order_item_order_id_order_item_id ON order_item (order_id, order_item_id);
+CREATE INDEX idx_order_item_product_id ON order_item (product_id);
+
+-- The trigger functions of V7, joining on the partition key as well, so every changed order is
+-- looked up in the partition of its month only.
+CREATE OR REPLACE FUNCTION order_item_maintain_order_totals() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE orders o
+        SET order_total = o.order_total + d.order_total,
+            item_count  = o.item_count + d.item_count
+        FROM (SELECT n.order_id, n.order_created_at,
+                     sum(coalesce(round(n.amount * p.price, 2), 0)) AS order_total, count(*) AS item_count
+              FROM new_items n
+                       LEFT JOIN product p ON p.product_id = n.product_id
+              WHERE n.order_id IS NOT NULL
+              GROUP BY n.order_id, n.order_created_at) d
+        WHERE o.order_id = d.order_id
+          AND o.created_at = d.order_created_at;
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE orders o
+        SET order_total = o.order_total - d.order_total,
+            item_count  = o.item_count - d.item_count
+        FROM (SELECT r.order_id, r.order_created_at,
+                     sum(coalesce(round(r.amount * p.price, 2), 0)) AS order_total, count(*) AS item_count
+              FROM old_items r
+                       LEFT JOIN product p ON p.product_id = r.product_id
+              WHERE r.order_id IS NOT NULL
+              GROUP BY r.order_id, r.order_created_at) d
+        WHERE o.order_id = d.order_id
+          AND o.created_at = d.order_created_at;
+    ELSE
+        -- items moved along with their order (ON UPDATE CASCADE) come with the old and the new
+        -- creation time, the order is found by the new one
+        UPDATE orders o
+        SET order_total = o.order_total + d.order_total,
+            item_count  = o.item_count + d.item_count
+        FROM (SELECT c.order_id,
+                     coalesce(max(c.order_created_at) FILTER (WHERE c.is_new), max(c.order_created_at)) AS order_created_at,
+                     sum(c.order_total) AS order_total, sum(c.item_count) AS item_count
+              FROM (SELECT n.order_id, n.order_created_at, true AS is_new,
+                           coalesce(round(n.amount * p.price, 2), 0) AS order_total, 1 AS item_count
+                    FROM new_items n
+                             LEFT JOIN product p ON p.product_id = n.product_id
+                    UNION ALL
+                    SELECT r.order_id, r.order_created_at, false, -coalesce(round(r.amount * p.price, 2), 0), -1
+                    FROM old_items r
+                             LEFT JOIN product p ON p.product_id = r.product_id) c
+              WHERE c.order_id IS NOT NULL
+              GROUP BY c.order_id) d
+        WHERE o.order_id = d.order_id
+          AND o.created_at = d.order_created_at
+          AND (d.order_total <> 0 OR d.item_count <> 0);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION product_maintain_order_totals() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE orders o
+    SET order_total = o.order_total + d.order_total
+    FROM (SELECT i.order_id, i.order_created_at,
+                 sum(coalesce(round(i.amount * n.price, 2), 0) - coalesce(round(i.amount * r.price, 2), 0)) AS order_total
+          FROM new_products n
+                   JOIN old_products r ON r.product_id = n.product_id
+                   JOIN order_item i ON i.product_id = n.product_id
+          WHERE n.price IS DISTINCT FROM r.price
+            AND i.order_id IS NOT NULL
+          GROUP BY i.order_id, i.order_created_at) d
+    WHERE o.order_id = d.order_id
+      AND o.created_at = d.order_created_at;
+    RETURN NULL;
+END
+$$;
+
+-- transition tables of a partitioned table collect the rows of all its partitions
+CREATE TRIGGER order_item_totals_insert
+    AFTER INSERT ON order_item
+    REFERENCING NEW TABLE AS new_items
+    FOR EACH STATEMENT EXECUTE FUNCTION order_item_maintain_order_totals();
+
+CREATE TRIGGER order_item_totals_update
+    AFTER UPDATE ON order_item
+    REFERENCING OLD TABLE AS old_items NEW TABLE AS new_items
+    FOR EACH STATEMENT EXECUTE FUNCTION order_item_maintain_order_totals();
+
+CREATE TRIGGER order_item_totals_delete
+    AFTER DELETE ON order_item
+    REFERENCING OLD TABLE AS old_items
+    FOR EACH STATEMENT EXECUTE FUNCTION order_item_maintain_order_totals();
@@ -0,0 +1,5 @@
+-- Version columns for the optimistic locking of Order and OrderItem. A constant default only changes
+-- the catalog, the partitions are not rewritten. Writers outside JPA, like the import merge, bump the
+-- version of the rows they update so a concurrent JPA update fails instead of overwriting them.
+ALTER TABLE orders ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE order_item ADD COLUMN version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,14 @@
+-- Idempotency keys of order submissions: the first request with a key inserts the row in the
+-- transaction that creates the order, a retry finds it and gets the same order back. The PK makes
+-- concurrent requests with one key wait for the first one instead of creating a second order.
+CREATE TABLE idempotency_key
+(
+    idempotency_key varchar(255) NOT NULL,
+    request_hash    char(64)     NOT NULL,
+    order_id        int,
+    created_at      timestamptz  NOT NULL DEFAULT now(),
+    PRIMARY KEY (idempotency_key)
+);
+
+-- the sweeper deletes expired keys oldest first
+CREATE INDEX idx_idempotency_key_created_at ON idempotency_key (created_at);
@@ -0,0 +1,14 @@
+-- Product search, see ProductSearchService. The tsvector is a stored generated column, Postgres
+-- keeps it and both GIN indexes up to date on every insert and update of a product. Adding the
+-- column rewrites the product table once.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE product
+    ADD COLUMN search_vector tsvector
+        GENERATED ALWAYS AS (to_tsvector('simple', coalesce(name, ''))) STORED;
+
+-- ranked and prefix matching of whole words
+CREATE INDEX idx_product_search_vector ON product USING gin (search_vector);
+
+-- fuzzy matching of misspelled words by trigram similarity
+CREATE INDEX idx_product_name_trgm ON product USING gin (name gin_trgm_ops);
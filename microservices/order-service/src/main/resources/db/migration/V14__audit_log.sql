@@ -0,0 +1,49 @@
+-- Audit trail of the order, order item, product and delivery address changes, see AuditLogWriter.
+-- Rows are only ever appended. The table is range partitioned by month of the change like orders,
+-- so old months can be detached and archived without touching the recent ones.
+CREATE SEQUENCE audit_log_audit_log_id_seq INCREMENT BY 50;
+
+CREATE TABLE audit_log
+(
+    audit_log_id   bigint      NOT NULL DEFAULT nextval('audit_log_audit_log_id_seq'),
+    transaction_id uuid        NOT NULL,
+    entity_type    varchar(64) NOT NULL,
+    entity_id      bigint      NOT NULL,
+    operation      varchar(8)  NOT NULL,
+    changes        jsonb       NOT NULL,
+    changed_at     timestamptz NOT NULL,
+    PRIMARY KEY (audit_log_id, changed_at)
+) PARTITION BY RANGE (changed_at);
+
+ALTER SEQUENCE audit_log_audit_log_id_seq OWNED BY audit_log.audit_log_id;
+
+-- the history of one entity, newest first
+CREATE INDEX idx_audit_log_entity ON audit_log (entity_type, entity_id, changed_at DESC);
+
+CREATE TABLE audit_log_default PARTITION OF audit_log DEFAULT;
+
+-- Creates the missing monthly partitions of audit_log, like create_order_partitions.
+CREATE FUNCTION create_audit_log_partitions(first_month timestamptz, months int) RETURNS int
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    month_start timestamp;
+    suffix      text;
+    created     int := 0;
+BEGIN
+    FOR i IN 0 .. months - 1
+        LOOP
+            month_start := date_trunc('month', first_month AT TIME ZONE 'UTC') + make_interval(months => i);
+            suffix := to_char(month_start, 'YYYY_MM');
+            IF to_regclass('audit_log_p' || suffix) IS NULL THEN
+                EXECUTE format('CREATE TABLE audit_log_p%s PARTITION OF audit_log FOR VALUES FROM (%L) TO (%L)',
+                               suffix, month_start AT TIME ZONE 'UTC',
+                               (month_start + interval '1 month') AT TIME ZONE 'UTC');
+                created := created + 1;
+            END IF;
+        END LOOP;
+    RETURN created;
+END
+$$;
+
+SELECT create_audit_log_partitions(now(), 4);
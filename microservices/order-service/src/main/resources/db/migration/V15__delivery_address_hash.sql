@@ -0,0 +1,13 @@
+-- Equal delivery addresses share one row, found by the SHA-256 of their normalized fields (see
+-- NormalizedAddress). New orders reuse it through INSERT ... ON CONFLICT on the unique index. The rows
+-- from before have no hash until DeliveryAddressMerger hashed them and merged their duplicates.
+ALTER TABLE delivery_address ADD COLUMN address_hash char(64);
+
+CREATE UNIQUE INDEX uq_delivery_address_hash ON delivery_address (address_hash);
+
+-- the rows the merge job still has to visit
+CREATE INDEX idx_delivery_address_unhashed ON delivery_address (delivery_address_id)
+    WHERE address_hash IS NULL;
+
+-- archived orders are repointed to the surviving address as well
+CREATE INDEX idx_orders_archive_delivery_address_id ON orders_archive (delivery_address_id);
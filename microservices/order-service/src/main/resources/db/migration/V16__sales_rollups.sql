@@ -0,0 +1,242 @@
+-- Sales per product and day and per city and day, for reports that would otherwise join order_item,
+-- product, orders and delivery_address over the whole history. Statement level triggers append the
+-- changes of every statement to sales_rollup_delta, SalesRollupRefresher folds the deltas of ended
+-- transactions into the rollups. Days are UTC days of the order's creation time. Orders moved by
+-- OrderArchiver or detached with their partition stay in the rollups. xid8 needs PostgreSQL 13.
+
+-- no order may change between the initial fill below and the creation of the triggers
+LOCK TABLE orders, order_item, product IN SHARE ROW EXCLUSIVE MODE;
+
+CREATE TABLE product_sales_daily
+(
+    day        date           NOT NULL,
+    product_id int            NOT NULL,
+    item_count bigint         NOT NULL,
+    quantity   numeric(18, 3) NOT NULL,
+    revenue    numeric(18, 2) NOT NULL,
+    PRIMARY KEY (day, product_id)
+);
+
+-- the sales of one product over a range of days
+CREATE INDEX idx_product_sales_daily_product_id_day ON product_sales_daily (product_id, day);
+
+-- orders without a delivery address are left out
+CREATE TABLE city_sales_daily
+(
+    day         date           NOT NULL,
+    city        text           NOT NULL,
+    order_count bigint         NOT NULL,
+    item_count  bigint         NOT NULL,
+    revenue     numeric(18, 2) NOT NULL,
+    PRIMARY KEY (day, city)
+);
+
+-- A row changes either the sales of a product or of a city on one day. xid is the transaction that
+-- wrote it, a refresh takes the rows of transactions that ended, whatever order they committed in.
+CREATE TABLE sales_rollup_delta
+(
+    xid         xid8           NOT NULL DEFAULT pg_current_xact_id(),
+    day         date           NOT NULL,
+    product_id  int,
+    city        text,
+    order_count int            NOT NULL DEFAULT 0,
+    item_count  int            NOT NULL DEFAULT 0,
+    quantity    numeric(18, 3) NOT NULL DEFAULT 0,
+    revenue     numeric(18, 2) NOT NULL DEFAULT 0,
+    CHECK ((product_id IS NULL) <> (city IS NULL))
+);
+
+CREATE INDEX idx_sales_rollup_delta_xid ON sales_rollup_delta (xid);
+
+-- The deltas of all transactions below xid are in the rollups. The single row is locked by a
+-- refresh, so the refreshes of several instances do not run at the same time.
+CREATE TABLE sales_rollup_watermark
+(
+    id           int PRIMARY KEY CHECK (id = 1),
+    xid          xid8        NOT NULL,
+    refreshed_at timestamptz NOT NULL
+);
+
+-- Line totals are rounded to cents like the order totals. OrderArchiver sets
+-- orderservice.rollup_deltas to off, moving orders to the archive does not change the sales.
+CREATE FUNCTION order_item_sales_rollup_delta() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF current_setting('orderservice.rollup_deltas', true) = 'off' THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO sales_rollup_delta (day, product_id, item_count, quantity, revenue)
+        SELECT (n.order_created_at AT TIME ZONE 'UTC')::date, n.product_id, count(*),
+               sum(coalesce(n.amount, 0)), sum(coalesce(round(n.amount * p.price, 2), 0))
+        FROM new_items n
+                 LEFT JOIN product p ON p.product_id = n.product_id
+        WHERE n.product_id IS NOT NULL
+        GROUP BY 1, 2;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO sales_rollup_delta (day, product_id, item_count, quantity, revenue)
+        SELECT (r.order_created_at AT TIME ZONE 'UTC')::date, r.product_id, -count(*),
+               -sum(coalesce(r.amount, 0)), -sum(coalesce(round(r.amount * p.price, 2), 0))
+        FROM old_items r
+                 LEFT JOIN product p ON p.product_id = r.product_id
+        WHERE r.product_id IS NOT NULL
+        GROUP BY 1, 2;
+    ELSE
+        -- the items whose product, amount or day changed, each once as it was and once as it is
+        INSERT INTO sales_rollup_delta (day, product_id, item_count, quantity, revenue)
+        SELECT c.day, c.product_id, sum(c.item_count), sum(c.quantity), sum(c.revenue)
+        FROM (SELECT (n.order_created_at AT TIME ZONE 'UTC')::date AS day, n.product_id, 1 AS item_count,
+                     coalesce(n.amount, 0) AS quantity, coalesce(round(n.amount * p.price, 2), 0) AS revenue
+              FROM new_items n
+                       JOIN old_items r ON r.order_item_id = n.order_item_id
+                       LEFT JOIN product p ON p.product_id = n.product_id
+              WHERE (n.product_id, n.amount, n.order_created_at)
+                        IS DISTINCT FROM (r.product_id, r.amount, r.order_created_at)
+              UNION ALL
+              SELECT (r.order_created_at AT TIME ZONE 'UTC')::date, r.product_id, -1,
+                     -coalesce(r.amount, 0), -coalesce(round(r.amount * p.price, 2), 0)
+              FROM old_items r
+                       JOIN new_items n ON n.order_item_id = r.order_item_id
+                       LEFT JOIN product p ON p.product_id = r.product_id
+              WHERE (n.product_id, n.amount, n.order_created_at)
+                        IS DISTINCT FROM (r.product_id, r.amount, r.order_created_at)) c
+        WHERE c.product_id IS NOT NULL
+        GROUP BY c.day, c.product_id
+        HAVING sum(c.item_count) <> 0 OR sum(c.quantity) <> 0 OR sum(c.revenue) <> 0;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER order_item_sales_rollup_insert
+    AFTER INSERT ON order_item
+    REFERENCING NEW TABLE AS new_items
+    FOR EACH STATEMENT EXECUTE FUNCTION order_item_sales_rollup_delta();
+
+CREATE TRIGGER order_item_sales_rollup_update
+    AFTER UPDATE ON order_item
+    REFERENCING OLD TABLE AS old_items NEW TABLE AS new_items
+    FOR EACH STATEMENT EXECUTE FUNCTION order_item_sales_rollup_delta();
+
+CREATE TRIGGER order_item_sales_rollup_delete
+    AFTER DELETE ON order_item
+    REFERENCING OLD TABLE AS old_items
+    FOR EACH STATEMENT EXECUTE FUNCTION order_item_sales_rollup_delta();
+
+-- The city sales follow the order totals, which the triggers of V6 keep up to date with the items
+-- and the product prices. An order counts in the city of its delivery address at the time.
+CREATE FUNCTION orders_sales_rollup_delta() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF current_setting('orderservice.rollup_deltas', true) = 'off' THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO sales_rollup_delta (day, city, order_count, item_count, revenue)
+        SELECT (n.created_at AT TIME ZONE 'UTC')::date, a.city, count(*), sum(n.item_count), sum(n.order_total)
+        FROM new_orders n
+                 JOIN delivery_address a ON a.delivery_address_id = n.delivery_address_id
+        WHERE a.city IS NOT NULL
+        GROUP BY 1, 2;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO sales_rollup_delta (day, city, order_count, item_count, revenue)
+        SELECT (r.created_at AT TIME ZONE 'UTC')::date, a.city, -count(*), -sum(r.item_count), -sum(r.order_total)
+        FROM old_orders r
+                 JOIN delivery_address a ON a.delivery_address_id = r.delivery_address_id
+        WHERE a.city IS NOT NULL
+        GROUP BY 1, 2;
+    ELSE
+        -- most updates only bump the version, they are filtered out before the addresses are read
+        INSERT INTO sales_rollup_delta (day, city, order_count, item_count, revenue)
+        SELECT c.day, a.city, sum(c.order_count), sum(c.item_count), sum(c.revenue)
+        FROM (SELECT (n.created_at AT TIME ZONE 'UTC')::date AS day, n.delivery_address_id, 1 AS order_count,
+                     n.item_count, n.order_total AS revenue
+              FROM new_orders n
+                       JOIN old_orders r ON r.order_id = n.order_id
+              WHERE (n.delivery_address_id, n.order_total, n.item_count, n.created_at)
+                        IS DISTINCT FROM (r.delivery_address_id, r.order_total, r.item_count, r.created_at)
+              UNION ALL
+              SELECT (r.created_at AT TIME ZONE 'UTC')::date, r.delivery_address_id, -1, -r.item_count, -r.order_total
+              FROM old_orders r
+                       JOIN new_orders n ON n.order_id = r.order_id
+              WHERE (n.delivery_address_id, n.order_total, n.item_count, n.created_at)
+                        IS DISTINCT FROM (r.delivery_address_id, r.order_total, r.item_count, r.created_at)) c
+                 JOIN delivery_address a ON a.delivery_address_id = c.delivery_address_id
+        WHERE a.city IS NOT NULL
+        GROUP BY c.day, a.city
+        HAVING sum(c.order_count) <> 0 OR sum(c.item_count) <> 0 OR sum(c.revenue) <> 0;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER orders_sales_rollup_insert
+    AFTER INSERT ON orders
+    REFERENCING NEW TABLE AS new_orders
+    FOR EACH STATEMENT EXECUTE FUNCTION orders_sales_rollup_delta();
+
+CREATE TRIGGER orders_sales_rollup_update
+    AFTER UPDATE ON orders
+    REFERENCING OLD TABLE AS old_orders NEW TABLE AS new_orders
+    FOR EACH STATEMENT EXECUTE FUNCTION orders_sales_rollup_delta();
+
+CREATE TRIGGER orders_sales_rollup_delete
+    AFTER DELETE ON orders
+    REFERENCING OLD TABLE AS old_orders
+    FOR EACH STATEMENT EXECUTE FUNCTION orders_sales_rollup_delta();
+
+-- like the order totals, the product sales are priced with the current product price
+CREATE FUNCTION product_sales_rollup_delta() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF current_setting('orderservice.rollup_deltas', true) = 'off' THEN
+        RETURN NULL;
+    END IF;
+    INSERT INTO sales_rollup_delta (day, product_id, revenue)
+    SELECT (i.order_created_at AT TIME ZONE 'UTC')::date, i.product_id,
+           sum(coalesce(round(i.amount * n.price, 2), 0) - coalesce(round(i.amount * r.price, 2), 0))
+    FROM new_products n
+             JOIN old_products r ON r.product_id = n.product_id
+             JOIN order_item i ON i.product_id = n.product_id
+    WHERE n.price IS DISTINCT FROM r.price
+    GROUP BY 1, 2;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER product_price_sales_rollup
+    AFTER UPDATE ON product
+    REFERENCING OLD TABLE AS old_products NEW TABLE AS new_products
+    FOR EACH STATEMENT EXECUTE FUNCTION product_sales_rollup_delta();
+
+-- the initial fill, archived items are priced with the price they were archived with
+INSERT INTO product_sales_daily (day, product_id, item_count, quantity, revenue)
+SELECT s.day, s.product_id, count(*), sum(coalesce(s.amount, 0)), sum(coalesce(round(s.amount * s.price, 2), 0))
+FROM (SELECT (i.order_created_at AT TIME ZONE 'UTC')::date AS day, i.product_id, i.amount, p.price
+      FROM order_item i
+               LEFT JOIN product p ON p.product_id = i.product_id
+      UNION ALL
+      SELECT (o.created_at AT TIME ZONE 'UTC')::date, i.product_id, i.amount, i.price
+      FROM order_item_archive i
+               JOIN orders_archive o ON o.order_id = i.order_id) s
+WHERE s.product_id IS NOT NULL
+GROUP BY s.day, s.product_id;
+
+INSERT INTO city_sales_daily (day, city, order_count, item_count, revenue)
+SELECT (s.created_at AT TIME ZONE 'UTC')::date, a.city, count(*), sum(s.item_count), sum(s.order_total)
+FROM (SELECT delivery_address_id, order_total, item_count, created_at
+      FROM orders
+      UNION ALL
+      SELECT delivery_address_id, order_total, item_count, created_at
+      FROM orders_archive) s
+         JOIN delivery_address a ON a.delivery_address_id = s.delivery_address_id
+WHERE a.city IS NOT NULL
+GROUP BY 1, 2;
+
+-- below every transaction that may still run, a transaction waiting for the lock above can have an
+-- older xid than this one and write its deltas once this one committed
+INSERT INTO sales_rollup_watermark (id, xid, refreshed_at)
+VALUES (1, pg_snapshot_xmin(pg_current_snapshot()), now());
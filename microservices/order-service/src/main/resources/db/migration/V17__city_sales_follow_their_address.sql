@@ -0,0 +1,72 @@
+-- The city sales of V16 are keyed by the city of the delivery address, which can change after the
+-- orders were counted, e.g. when DeliveryAddressMerger normalizes it. The sales of the address's
+-- orders, archived ones included, move from the old city to the new one. Otherwise later deltas of
+-- these orders would be taken from a city that never counted them.
+CREATE FUNCTION delivery_address_sales_rollup_delta() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF current_setting('orderservice.rollup_deltas', true) = 'off' THEN
+        RETURN NULL;
+    END IF;
+    INSERT INTO sales_rollup_delta (day, city, order_count, item_count, revenue)
+    SELECT (s.created_at AT TIME ZONE 'UTC')::date, m.city, sum(m.sign), sum(m.sign * s.item_count),
+           sum(m.sign * s.order_total)
+    FROM (SELECT n.delivery_address_id, n.city, 1 AS sign
+          FROM new_addresses n
+                   JOIN old_addresses r ON r.delivery_address_id = n.delivery_address_id
+          WHERE n.city IS DISTINCT FROM r.city
+          UNION ALL
+          SELECT r.delivery_address_id, r.city, -1
+          FROM old_addresses r
+                   JOIN new_addresses n ON n.delivery_address_id = r.delivery_address_id
+          WHERE n.city IS DISTINCT FROM r.city) m
+             JOIN (SELECT delivery_address_id, order_total, item_count, created_at
+                   FROM orders
+                   UNION ALL
+                   SELECT delivery_address_id, order_total, item_count, created_at
+                   FROM orders_archive) s ON s.delivery_address_id = m.delivery_address_id
+    WHERE m.city IS NOT NULL
+    GROUP BY 1, 2;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER delivery_address_sales_rollup_update
+    AFTER UPDATE ON delivery_address
+    REFERENCING OLD TABLE AS old_addresses NEW TABLE AS new_addresses
+    FOR EACH STATEMENT EXECUTE FUNCTION delivery_address_sales_rollup_delta();
+
+-- Archived orders are only updated when DeliveryAddressMerger repoints them to another address,
+-- their sales move to the city of that address like the ones of repointed orders.
+CREATE FUNCTION orders_archive_sales_rollup_delta() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF current_setting('orderservice.rollup_deltas', true) = 'off' THEN
+        RETURN NULL;
+    END IF;
+    INSERT INTO sales_rollup_delta (day, city, order_count, item_count, revenue)
+    SELECT c.day, a.city, sum(c.order_count), sum(c.item_count), sum(c.revenue)
+    FROM (SELECT (n.created_at AT TIME ZONE 'UTC')::date AS day, n.delivery_address_id, 1 AS order_count,
+                 n.item_count, n.order_total AS revenue
+          FROM new_orders n
+                   JOIN old_orders r ON r.order_id = n.order_id
+          WHERE n.delivery_address_id IS DISTINCT FROM r.delivery_address_id
+          UNION ALL
+          SELECT (r.created_at AT TIME ZONE 'UTC')::date, r.delivery_address_id, -1, -r.item_count, -r.order_total
+          FROM old_orders r
+                   JOIN new_orders n ON n.order_id = r.order_id
+          WHERE n.delivery_address_id IS DISTINCT FROM r.delivery_address_id) c
+             JOIN delivery_address a ON a.delivery_address_id = c.delivery_address_id
+    WHERE a.city IS NOT NULL
+    GROUP BY c.day, a.city
+    HAVING sum(c.order_count) <> 0 OR sum(c.item_count) <> 0 OR sum(c.revenue) <> 0;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER orders_archive_sales_rollup_update
+    AFTER UPDATE ON orders_archive
+    REFERENCING OLD TABLE AS old_orders NEW TABLE AS new_orders
+    FOR EACH STATEMENT EXECUTE FUNCTION orders_archive_sales_rollup_delta();
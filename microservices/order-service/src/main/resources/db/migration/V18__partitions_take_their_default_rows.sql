@@ -0,0 +1,99 @@
+-- A partition cannot be added for a month that the default partition already holds rows of, e.g.
+-- orders created while OrderPartitionMaintainer was late. The partitions of V10 and V14 are now
+-- created as plain tables, the rows of their month are moved into them out of the default partition
+-- and they are attached after that. The default partition stays locked against writes until the
+-- transaction ends, new rows of the month could not be moved anymore.
+
+-- Creates the table of a partition like its parent and moves the rows of [from, to) from the
+-- default partition, named <parent>_default, into it. Statement triggers of the parent do not fire,
+-- the rows only change their partition.
+CREATE FUNCTION create_partition_table(parent text, partition text, key text, from_time timestamptz,
+                                       to_time timestamptz) RETURNS void
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition, parent);
+    IF to_regclass(parent || '_default') IS NOT NULL THEN
+        EXECUTE format('LOCK TABLE %I IN EXCLUSIVE MODE', parent || '_default');
+        EXECUTE format('WITH moved AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) '
+                           || 'INSERT INTO %I SELECT * FROM moved',
+                       parent || '_default', key, from_time, key, to_time, partition);
+    END IF;
+END
+$$;
+
+CREATE FUNCTION attach_partition(parent text, partition text, from_time timestamptz,
+                                 to_time timestamptz) RETURNS void
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   parent, partition, from_time, to_time);
+END
+$$;
+
+-- The items of a month leave the default partition before their orders, which they reference, and
+-- are attached after them.
+CREATE OR REPLACE FUNCTION create_order_partitions(first_month timestamptz, months int) RETURNS int
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    month_start timestamp;
+    from_time   timestamptz;
+    to_time     timestamptz;
+    suffix      text;
+    new_items   boolean;
+    created     int := 0;
+BEGIN
+    FOR i IN 0 .. months - 1
+        LOOP
+            -- month arithmetic on UTC timestamps, a timestamptz would follow the session time zone
+            month_start := date_trunc('month', first_month AT TIME ZONE 'UTC') + make_interval(months => i);
+            from_time := month_start AT TIME ZONE 'UTC';
+            to_time := (month_start + interval '1 month') AT TIME ZONE 'UTC';
+            suffix := to_char(month_start, 'YYYY_MM');
+            new_items := to_regclass('order_item_p' || suffix) IS NULL;
+            IF new_items THEN
+                PERFORM create_partition_table('order_item', 'order_item_p' || suffix, 'order_created_at',
+                                               from_time, to_time);
+            END IF;
+            IF to_regclass('orders_p' || suffix) IS NULL THEN
+                PERFORM create_partition_table('orders', 'orders_p' || suffix, 'created_at', from_time, to_time);
+                PERFORM attach_partition('orders', 'orders_p' || suffix, from_time, to_time);
+                created := created + 1;
+            END IF;
+            IF new_items THEN
+                PERFORM attach_partition('order_item', 'order_item_p' || suffix, from_time, to_time);
+                created := created + 1;
+            END IF;
+        END LOOP;
+    RETURN created;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION create_audit_log_partitions(first_month timestamptz, months int) RETURNS int
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    month_start timestamp;
+    from_time   timestamptz;
+    to_time     timestamptz;
+    suffix      text;
+    created     int := 0;
+BEGIN
+    FOR i IN 0 .. months - 1
+        LOOP
+            month_start := date_trunc('month', first_month AT TIME ZONE 'UTC') + make_interval(months => i);
+            from_time := month_start AT TIME ZONE 'UTC';
+            to_time := (month_start + interval '1 month') AT TIME ZONE 'UTC';
+            suffix := to_char(month_start, 'YYYY_MM');
+            IF to_regclass('audit_log_p' || suffix) IS NULL THEN
+                PERFORM create_partition_table('audit_log', 'audit_log_p' || suffix, 'changed_at', from_time,
+                                               to_time);
+                PERFORM attach_partition('audit_log', 'audit_log_p' || suffix, from_time, to_time);
+                created := created + 1;
+            END IF;
+        END LOOP;
+    RETURN created;
+END
+$$;
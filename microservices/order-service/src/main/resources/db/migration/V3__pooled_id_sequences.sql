@@ -0,0 +1,8 @@
+-- Hibernate cannot batch inserts on IDENTITY columns because it needs the generated key after every
+-- row. The entities now draw ids from the serial sequences with a pooled optimizer, so every
+-- nextval() reserves a block of 50 ids. INCREMENT BY must stay equal to the allocationSize of the
+-- matching @SequenceGenerator.
+ALTER SEQUENCE delivery_address_delivery_address_id_seq INCREMENT BY 50;
+ALTER SEQUENCE product_product_id_seq INCREMENT BY 50;
+ALTER SEQUENCE orders_order_id_seq INCREMENT BY 50;
+ALTER SEQUENCE order_item_order_item_id_seq INCREMENT BY 50;
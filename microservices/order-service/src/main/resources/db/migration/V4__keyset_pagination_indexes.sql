@@ -0,0 +1,7 @@
+-- Keyset pagination walks orders backwards by order_id, optionally for a single delivery address.
+-- The PK covers the global history, this index covers the per address history without a sort.
+CREATE INDEX idx_orders_delivery_address_id_order_id ON orders (delivery_address_id, order_id);
+
+-- Loading the items of a page of orders, and listing the lines of one order by id, must not scan
+-- the whole order_item table.
+CREATE INDEX idx_order_item_order_id_order_item_id ON order_item (order_id, order_item_id);
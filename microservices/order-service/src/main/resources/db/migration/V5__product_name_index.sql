@@ -0,0 +1,2 @@
+-- ProductRepository.findByName, a miss in the query cache must not scan the product table
+CREATE INDEX idx_product_name ON product (name);
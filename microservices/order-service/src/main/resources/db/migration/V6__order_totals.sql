@@ -0,0 +1,108 @@
+-- Materialized order totals: order_total = SUM(amount * product.price) and item_count = COUNT(*) of
+-- the order's items. They are maintained incrementally by the statement level triggers below, which
+-- read the rows changed by a whole statement from transition tables, so a batched or COPY insert of
+-- many items updates every affected order once. OrderTotalsReconciler repairs drift in bulk.
+ALTER TABLE orders
+    ADD COLUMN order_total numeric NOT NULL DEFAULT 0,
+    ADD COLUMN item_count  integer NOT NULL DEFAULT 0;
+
+UPDATE orders o
+SET order_total = t.order_total,
+    item_count  = t.item_count
+FROM (SELECT i.order_id,
+             sum(coalesce(i.amount * p.price, 0)) AS order_total,
+             count(*)                             AS item_count
+      FROM order_item i
+               LEFT JOIN product p ON p.product_id = i.product_id
+      GROUP BY i.order_id) t
+WHERE o.order_id = t.order_id;
+
+CREATE INDEX idx_orders_order_total ON orders (order_total);
+-- repricing a product has to find its order items
+CREATE INDEX idx_order_item_product_id ON order_item (product_id);
+
+CREATE FUNCTION order_item_maintain_order_totals() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE orders o
+        SET order_total = o.order_total + d.order_total,
+            item_count  = o.item_count + d.item_count
+        FROM (SELECT n.order_id, sum(coalesce(n.amount * p.price, 0)) AS order_total, count(*) AS item_count
+              FROM new_items n
+                       LEFT JOIN product p ON p.product_id = n.product_id
+              WHERE n.order_id IS NOT NULL
+              GROUP BY n.order_id) d
+        WHERE o.order_id = d.order_id;
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE orders o
+        SET order_total = o.order_total - d.order_total,
+            item_count  = o.item_count - d.item_count
+        FROM (SELECT r.order_id, sum(coalesce(r.amount * p.price, 0)) AS order_total, count(*) AS item_count
+              FROM old_items r
+                       LEFT JOIN product p ON p.product_id = r.product_id
+              WHERE r.order_id IS NOT NULL
+              GROUP BY r.order_id) d
+        WHERE o.order_id = d.order_id;
+    ELSE
+        -- an update can change the amount, the product or move the item to another order
+        UPDATE orders o
+        SET order_total = o.order_total + d.order_total,
+            item_count  = o.item_count + d.item_count
+        FROM (SELECT c.order_id, sum(c.order_total) AS order_total, sum(c.item_count) AS item_count
+              FROM (SELECT n.order_id, coalesce(n.amount * p.price, 0) AS order_total, 1 AS item_count
+                    FROM new_items n
+                             LEFT JOIN product p ON p.product_id = n.product_id
+                    UNION ALL
+                    SELECT r.order_id, -coalesce(r.amount * p.price, 0), -1
+                    FROM old_items r
+                             LEFT JOIN product p ON p.product_id = r.product_id) c
+              WHERE c.order_id IS NOT NULL
+              GROUP BY c.order_id) d
+        WHERE o.order_id = d.order_id
+          AND (d.order_total <> 0 OR d.item_count <> 0);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER order_item_totals_insert
+    AFTER INSERT ON order_item
+    REFERENCING NEW TABLE AS new_items
+    FOR EACH STATEMENT EXECUTE FUNCTION order_item_maintain_order_totals();
+
+CREATE TRIGGER order_item_totals_update
+    AFTER UPDATE ON order_item
+    REFERENCING OLD TABLE AS old_items NEW TABLE AS new_items
+    FOR EACH STATEMENT EXECUTE FUNCTION order_item_maintain_order_totals();
+
+CREATE TRIGGER order_item_totals_delete
+    AFTER DELETE ON order_item
+    REFERENCING OLD TABLE AS old_items
+    FOR EACH STATEMENT EXECUTE FUNCTION order_item_maintain_order_totals();
+
+-- totals are priced with the current product price, so a price change reprices the open totals
+CREATE FUNCTION product_maintain_order_totals() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE orders o
+    SET order_total = o.order_total + d.order_total
+    FROM (SELECT i.order_id,
+                 sum(coalesce(i.amount * n.price, 0) - coalesce(i.amount * r.price, 0)) AS order_total
+          FROM new_products n
+                   JOIN old_products r ON r.product_id = n.product_id
+                   JOIN order_item i ON i.product_id = n.product_id
+          WHERE n.price IS DISTINCT FROM r.price
+            AND i.order_id IS NOT NULL
+          GROUP BY i.order_id) d
+    WHERE o.order_id = d.order_id;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER product_price_order_totals
+    AFTER UPDATE ON product
+    REFERENCING OLD TABLE AS old_products NEW TABLE AS new_products
+    FOR EACH STATEMENT EXECUTE FUNCTION product_maintain_order_totals();
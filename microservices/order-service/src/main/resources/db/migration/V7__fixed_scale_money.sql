@@ -0,0 +1,80 @@
+-- Prices and totals are kept in cents and item amounts in thousandths, so they round-trip exactly
+-- through the long based Money and Quantity types. Existing values are rounded HALF_UP.
+ALTER TABLE product ALTER COLUMN price TYPE numeric(18, 2);
+ALTER TABLE order_item ALTER COLUMN amount TYPE numeric(18, 3);
+ALTER TABLE orders ALTER COLUMN order_total TYPE numeric(18, 2);
+
+-- line totals are rounded to cents before they are summed, like PricingEngine does
+CREATE OR REPLACE FUNCTION order_item_maintain_order_totals() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE orders o
+        SET order_total = o.order_total + d.order_total,
+            item_count  = o.item_count + d.item_count
+        FROM (SELECT n.order_id, sum(coalesce(round(n.amount * p.price, 2), 0)) AS order_total, count(*) AS item_count
+              FROM new_items n
+                       LEFT JOIN product p ON p.product_id = n.product_id
+              WHERE n.order_id IS NOT NULL
+              GROUP BY n.order_id) d
+        WHERE o.order_id = d.order_id;
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE orders o
+        SET order_total = o.order_total - d.order_total,
+            item_count  = o.item_count - d.item_count
+        FROM (SELECT r.order_id, sum(coalesce(round(r.amount * p.price, 2), 0)) AS order_total, count(*) AS item_count
+              FROM old_items r
+                       LEFT JOIN product p ON p.product_id = r.product_id
+              WHERE r.order_id IS NOT NULL
+              GROUP BY r.order_id) d
+        WHERE o.order_id = d.order_id;
+    ELSE
+        UPDATE orders o
+        SET order_total = o.order_total + d.order_total,
+            item_count  = o.item_count + d.item_count
+        FROM (SELECT c.order_id, sum(c.order_total) AS order_total, sum(c.item_count) AS item_count
+              FROM (SELECT n.order_id, coalesce(round(n.amount * p.price, 2), 0) AS order_total, 1 AS item_count
+                    FROM new_items n
+                             LEFT JOIN product p ON p.product_id = n.product_id
+                    UNION ALL
+                    SELECT r.order_id, -coalesce(round(r.amount * p.price, 2), 0), -1
+                    FROM old_items r
+                             LEFT JOIN product p ON p.product_id = r.product_id) c
+              WHERE c.order_id IS NOT NULL
+              GROUP BY c.order_id) d
+        WHERE o.order_id = d.order_id
+          AND (d.order_total <> 0 OR d.item_count <> 0);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION product_maintain_order_totals() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    UPDATE orders o
+    SET order_total = o.order_total + d.order_total
+    FROM (SELECT i.order_id,
+                 sum(coalesce(round(i.amount * n.price, 2), 0) - coalesce(round(i.amount * r.price, 2), 0)) AS order_total
+          FROM new_products n
+                   JOIN old_products r ON r.product_id = n.product_id
+                   JOIN order_item i ON i.product_id = n.product_id
+          WHERE n.price IS DISTINCT FROM r.price
+            AND i.order_id IS NOT NULL
+          GROUP BY i.order_id) d
+    WHERE o.order_id = d.order_id;
+    RETURN NULL;
+END
+$$;
+
+UPDATE orders o
+SET order_total = t.order_total
+FROM (SELECT r.order_id, coalesce(sum(coalesce(round(i.amount * p.price, 2), 0)), 0) AS order_total
+      FROM orders r
+               LEFT JOIN order_item i ON i.order_id = r.order_id
+               LEFT JOIN product p ON p.product_id = i.product_id
+      GROUP BY r.order_id) t
+WHERE o.order_id = t.order_id
+  AND o.order_total <> t.order_total;
@@ -0,0 +1,19 @@
+-- Transactional outbox: events are inserted in the transaction that changes the order and handed to
+-- the Fulfillment Service by OutboxRelay, which deletes them once they are published. The table
+-- only holds the backlog, so a scan ordered by the PK stays short.
+CREATE TABLE outbox_event
+(
+    outbox_event_id bigserial   NOT NULL,
+    aggregate_type  varchar(64) NOT NULL,
+    aggregate_id    bigint      NOT NULL,
+    event_type      varchar(64) NOT NULL,
+    payload         jsonb       NOT NULL,
+    created_at      timestamptz NOT NULL DEFAULT now(),
+    PRIMARY KEY (outbox_event_id)
+);
+
+-- same pooled optimizer as the other entities, see V3
+ALTER SEQUENCE outbox_event_outbox_event_id_seq INCREMENT BY 50;
+
+-- rows are inserted and deleted at the same rate, vacuum them before the dead tuples pile up
+ALTER TABLE outbox_event SET (autovacuum_vacuum_scale_factor = 0, autovacuum_vacuum_threshold = 1000);
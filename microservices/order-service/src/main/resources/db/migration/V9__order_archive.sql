@@ -0,0 +1,31 @@
+-- Orders older than the retention period are moved to the archive tables by OrderArchiver. Existing
+-- orders get the time of this migration as their creation time.
+ALTER TABLE orders ADD COLUMN created_at timestamptz NOT NULL DEFAULT now();
+
+CREATE INDEX idx_orders_created_at ON orders (created_at);
+
+-- no FKs, archived rows must not block deleting products or addresses later on
+CREATE TABLE orders_archive
+(
+    order_id            int            NOT NULL,
+    delivery_address_id int,
+    order_total         numeric(18, 2) NOT NULL,
+    item_count          int            NOT NULL,
+    created_at          timestamptz    NOT NULL,
+    archived_at         timestamptz    NOT NULL DEFAULT now(),
+    PRIMARY KEY (order_id)
+);
+
+-- price is the product price at the time of archiving, the product may change or go away later
+CREATE TABLE order_item_archive
+(
+    order_item_id int            NOT NULL,
+    product_id    int,
+    order_id      int            NOT NULL,
+    amount        numeric(18, 3),
+    price         numeric(18, 2),
+    archived_at   timestamptz    NOT NULL DEFAULT now(),
+    PRIMARY KEY (order_item_id)
+);
+
+CREATE INDEX idx_order_item_archive_order_id ON order_item_archive (order_id);
@@ -0,0 +1,91 @@
+package project.orderservice.admission;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import project.orderservice.admission.AdmissionLimiter.Priority;
+
+public class AdmissionControlFilterTest {
+
+  private final AdmissionLimiter reads = limiter("read", 4);
+  private final AdmissionLimiter writes = limiter("write", 2);
+  private final AdmissionControlFilter filter =
+      new AdmissionControlFilter(reads, writes, Duration.ofSeconds(2));
+
+  @Test
+  void should_shedLowPriorityReads_withTooManyRequests_beforeHighPriorityOnes() throws Exception {
+    reads.tryAcquire(Priority.LOW).orElseThrow();
+    reads.tryAcquire(Priority.LOW).orElseThrow();
+
+    MockHttpServletResponse list = call("GET", "/orders/history");
+    assertEquals(429, list.getStatus());
+    assertEquals("2", list.getHeader("Retry-After"));
+    assertEquals(200, call("GET", "/orders/42/items").getStatus());
+    assertEquals(1, reads.getShed(Priority.LOW));
+    assertEquals(2, reads.getInFlight());
+  }
+
+  @Test
+  void should_shedHighPriorityWrites_withServiceUnavailable_whenTheLimitIsReached()
+      throws Exception {
+    writes.tryAcquire(Priority.HIGH).orElseThrow();
+    writes.tryAcquire(Priority.HIGH).orElseThrow();
+
+    MockHttpServletResponse response = call("POST", "/orders");
+    assertEquals(503, response.getStatus());
+    assertEquals("application/problem+json", response.getContentType());
+    assertTrue(response.getContentAsString().contains("\"status\":503"));
+    // reads have their own limit
+    assertEquals(200, call("GET", "/orders/42").getStatus());
+    assertEquals(200, call("GET", "/orders/stream").getStatus());
+  }
+
+  @Test
+  void should_releaseThePermit_whenTheRequestFails() {
+    AtomicInteger calls = new AtomicInteger();
+    MockFilterChain failing =
+        new MockFilterChain() {
+          @Override
+          public void doFilter(ServletRequest request, ServletResponse response) {
+            calls.incrementAndGet();
+            throw new IllegalStateException("database down");
+          }
+        };
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            filter.doFilter(
+                request("PUT", "/orders/1/items/2"), new MockHttpServletResponse(), failing));
+    assertEquals(1, calls.get());
+    assertEquals(0, writes.getInFlight());
+    assertEquals(1, writes.getLimit());
+  }
+
+  private MockHttpServletResponse call(String method, String path)
+      throws ServletException, IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request(method, path), response, new MockFilterChain());
+    return response;
+  }
+
+  private static MockHttpServletRequest request(String method, String path) {
+    MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+    request.setServletPath(path);
+    return request;
+  }
+
+  private static AdmissionLimiter limiter(String name, int limit) {
+    return new AdmissionLimiter(
+        name, new AimdLimit(limit, 1, limit, Duration.ofSeconds(10), 0.5), 0.5);
+  }
+}
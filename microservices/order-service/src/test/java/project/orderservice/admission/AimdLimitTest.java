@@ -0,0 +1,47 @@
+package project.orderservice.admission;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+public class AimdLimitTest {
+
+  private static final long MS = 1_000_000;
+
+  private final AimdLimit limit = new AimdLimit(10, 2, 12, Duration.ofMillis(100), 0.5);
+
+  @Test
+  void should_grow_onlyWhileHalfOfTheLimitIsInUse() {
+    limit.onSample(0, 10 * MS, 4, false);
+    assertEquals(10, limit.getLimit());
+
+    limit.onSample(0, 10 * MS, 5, false);
+    limit.onSample(0, 10 * MS, 6, false);
+    assertEquals(12, limit.getLimit());
+
+    limit.onSample(0, 10 * MS, 12, false);
+    assertEquals(12, limit.getLimit());
+  }
+
+  @Test
+  void should_backOff_onceForTheCallsThatStartedBeforeTheLastDecrease() {
+    limit.onSample(0, 200 * MS, 10, false);
+    assertEquals(5, limit.getLimit());
+
+    // started before the decrease, they saw the same load
+    limit.onSample(MS, 210 * MS, 9, false);
+    limit.onSample(2 * MS, 220 * MS, 8, true);
+    assertEquals(5, limit.getLimit());
+
+    limit.onSample(201 * MS, 202 * MS, 1, true);
+    limit.onSample(203 * MS, 400 * MS, 1, false);
+    assertEquals(2, limit.getLimit());
+  }
+
+  @Test
+  void should_rejectInvalidSettings() {
+    assertThrows(IllegalArgumentException.class, () -> new AimdLimit(1, 0, 1, Duration.ZERO, 0.5));
+    assertThrows(IllegalArgumentException.class, () -> new AimdLimit(1, 1, 1, Duration.ZERO, 1.0));
+  }
+}
@@ -0,0 +1,164 @@
+package project.orderservice.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import project.orderservice.dto.DeliveryAddressRequest;
+import project.orderservice.dto.OrderItemRequest;
+import project.orderservice.dto.OrderRequest;
+import project.orderservice.model.Product;
+import project.orderservice.repository.ProductRepository;
+import project.orderservice.service.OrderService;
+
+/**
+ * Overloads {@code GET /orders/{id}} with {@code CLIENTS} clients against a pool of four
+ * connections, once without and once with admission control. Without it every request waits for a
+ * connection, up to the acquire timeout of the {@code LimitingDataSource}; with it the requests
+ * over the adapted limit are shed at once and the admitted ones keep their latency. A shed client
+ * waits for the {@code Retry-After} before its next request.
+ */
+@Slf4j
+@Tag("benchmark")
+public class AdmissionControlLoadBenchmarkTest {
+
+  private static final int CLIENTS = 400;
+  private static final int REQUESTS_PER_CLIENT = 25;
+  private static final int ORDERS = 200;
+
+  @Test
+  void should_keepTheLatencyOfAdmittedRequestsBounded_underOverload() throws Exception {
+    LoadResult unlimited = run(false);
+    LoadResult limited = run(true);
+    log.info("without admission control: {}", unlimited);
+    log.info("with admission control: {}", limited);
+
+    assertThat(limited.errors()).isZero();
+    assertThat(limited.shed()).isPositive();
+    assertThat(limited.servedP99Millis()).isLessThan(unlimited.servedP99Millis());
+  }
+
+  private LoadResult run(boolean admissionControl) throws Exception {
+    try (ConfigurableApplicationContext context =
+        BenchmarkApplication.run(
+            "server.port=0",
+            "spring.datasource.hikari.maximum-pool-size=4",
+            "orderservice.admission.enabled=" + admissionControl,
+            "orderservice.admission.read.latency-threshold=50ms")) {
+      Product product =
+          context
+              .getBean(ProductRepository.class)
+              .save(Product.builder().name("Adidas13").price(BigDecimal.valueOf(300.3D)).build());
+      try {
+        List<Long> orderIds = seed(context, product);
+        int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        try (HttpClient client = HttpClient.newHttpClient()) {
+          // warm up the request path before measuring
+          load(client, port, orderIds, 4, 50);
+          return load(client, port, orderIds, CLIENTS, REQUESTS_PER_CLIENT);
+        }
+      } finally {
+        BenchmarkApplication.deleteOrdersOfProducts(context, List.of(product.getId()));
+      }
+    }
+  }
+
+  private static LoadResult load(
+      HttpClient client, int port, List<Long> orderIds, int clients, int requestsPerClient)
+      throws InterruptedException {
+    long[] latencies = new long[clients * requestsPerClient];
+    boolean[] served = new boolean[latencies.length];
+    AtomicInteger shed = new AtomicInteger();
+    AtomicInteger errors = new AtomicInteger();
+    long start = System.nanoTime();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int c = 0; c < clients; c++) {
+        int first = c * requestsPerClient;
+        executor.submit(
+            () -> {
+              for (int r = 0; r < requestsPerClient; r++) {
+                long orderId = orderIds.get(ThreadLocalRandom.current().nextInt(orderIds.size()));
+                HttpRequest request =
+                    HttpRequest.newBuilder(
+                            URI.create(
+                                "http://localhost:" + port + "/orders/" + orderId + "?plan=full"))
+                        .build();
+                long sent = System.nanoTime();
+                try {
+                  HttpResponse<String> response =
+                      client.send(request, HttpResponse.BodyHandlers.ofString());
+                  latencies[first + r] = System.nanoTime() - sent;
+                  if (response.statusCode() == 200) {
+                    served[first + r] = true;
+                  } else if (response.statusCode() == 503) {
+                    shed.incrementAndGet();
+                    Thread.sleep(
+                        1000L
+                            * Long.parseLong(
+                                response.headers().firstValue("Retry-After").orElseThrow()));
+                  } else if (errors.incrementAndGet() < 3) {
+                    log.warn("status {} {}", response.statusCode(), response.body());
+                  }
+                } catch (Exception e) {
+                  latencies[first + r] = System.nanoTime() - sent;
+                  errors.incrementAndGet();
+                }
+              }
+              return null;
+            });
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+    long[] servedLatencies = new long[latencies.length - shed.get() - errors.get()];
+    for (int i = 0, s = 0; i < latencies.length; i++) {
+      if (served[i]) {
+        servedLatencies[s++] = latencies[i];
+      }
+    }
+    Arrays.sort(latencies);
+    Arrays.sort(servedLatencies);
+    return new LoadResult(
+        servedLatencies.length * 1_000_000_000D / elapsed,
+        servedLatencies[servedLatencies.length / 2] / 1_000_000D,
+        servedLatencies[(int) (servedLatencies.length * 0.99)] / 1_000_000D,
+        latencies[(int) (latencies.length * 0.99)] / 1_000_000D,
+        shed.get(),
+        errors.get());
+  }
+
+  private static List<Long> seed(ConfigurableApplicationContext context, Product product) {
+    List<OrderRequest> requests = new ArrayList<>(ORDERS);
+    for (int i = 0; i < ORDERS; i++) {
+      List<OrderItemRequest> items = new ArrayList<>();
+      for (int j = 0; j < 5; j++) {
+        items.add(new OrderItemRequest(product.getId(), BigDecimal.valueOf(j + 1)));
+      }
+      requests.add(
+          new OrderRequest(
+              new DeliveryAddressRequest("Armeana " + i, "Iasi", "Europe", "Ro", "XYZ"), items));
+    }
+    return context.getBean(OrderService.class).createOrders(requests).orderIds();
+  }
+
+  record LoadResult(
+      double servedPerSecond,
+      double servedP50Millis,
+      double servedP99Millis,
+      double allP99Millis,
+      int shed,
+      int errors) {}
+}
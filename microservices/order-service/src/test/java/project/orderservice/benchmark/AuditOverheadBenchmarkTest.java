@@ -0,0 +1,147 @@
+package project.orderservice.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import project.orderservice.configuration.AuditConfig;
+import project.orderservice.dto.DeliveryAddressRequest;
+import project.orderservice.dto.OrderItemRequest;
+import project.orderservice.dto.OrderRequest;
+import project.orderservice.model.Product;
+import project.orderservice.repository.BaseRepositoryTest;
+import project.orderservice.service.OptimisticRetryExecutor;
+import project.orderservice.service.OrderService;
+import project.orderservice.service.address.DeliveryAddressStore;
+import project.orderservice.service.audit.AuditLogWriter;
+import project.orderservice.service.outbox.OutboxWriter;
+
+/**
+ * Creates the same orders without auditing, with the background writers and with the audit rows
+ * inserted by every saving transaction, and compares the latency of {@link
+ * OrderService#createOrder}. Each order is five audited changes: address, order and three items.
+ */
+@Slf4j
+@Tag("benchmark")
+public class AuditOverheadBenchmarkTest {
+
+  private static final int ORDERS = 2_000;
+  private static final Map<String, String> RESULTS = new ConcurrentHashMap<>();
+
+  @AfterAll
+  static void logResults() {
+    RESULTS.forEach((mode, result) -> log.info("createOrder {}: {}", mode, result));
+  }
+
+  /** Every mode has a context of its own, configured by its properties. */
+  @DataJpaTest(properties = "orderservice.audit.poll-interval=10ms")
+  @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+  @ImportAutoConfiguration({JdbcTemplateAutoConfiguration.class, JacksonAutoConfiguration.class})
+  @Import({
+    AuditConfig.class,
+    OrderService.class,
+    OptimisticRetryExecutor.class,
+    OutboxWriter.class,
+    DeliveryAddressStore.class
+  })
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  abstract static class Measurement extends BaseRepositoryTest {
+
+    @Autowired private OrderService orderService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ObjectProvider<AuditLogWriter> auditLogWriter;
+
+    void measure(String mode, long expectedAuditRows) throws InterruptedException {
+      Product product =
+          productRepository.save(
+              Product.builder().name("Adidas13").price(new BigDecimal("300.30")).build());
+      jdbcTemplate.update("DELETE FROM audit_log");
+      OrderRequest request =
+          new OrderRequest(
+              new DeliveryAddressRequest("Armeana 1", "Iasi", "Europe", "Ro", "XYZ"),
+              List.of(
+                  new OrderItemRequest(product.getId(), BigDecimal.ONE),
+                  new OrderItemRequest(product.getId(), BigDecimal.TWO),
+                  new OrderItemRequest(product.getId(), BigDecimal.TEN)));
+      for (int i = 0; i < 200; i++) {
+        orderService.createOrder(request);
+      }
+
+      long[] nanos = new long[ORDERS];
+      long start = System.nanoTime();
+      for (int i = 0; i < ORDERS; i++) {
+        long orderStart = System.nanoTime();
+        orderService.createOrder(request);
+        nanos[i] = System.nanoTime() - orderStart;
+      }
+      long totalMillis = (System.nanoTime() - start) / 1_000_000;
+      AuditLogWriter writer = auditLogWriter.getIfAvailable();
+      while (writer != null && writer.pending() > 0) {
+        Thread.sleep(10);
+      }
+      Arrays.sort(nanos);
+      RESULTS.put(
+          mode,
+          "median %d us, p99 %d us, %d orders/s"
+              .formatted(
+                  nanos[ORDERS / 2] / 1_000,
+                  nanos[ORDERS * 99 / 100] / 1_000,
+                  ORDERS * 1000L / Math.max(totalMillis, 1)));
+      assertThat(
+              jdbcTemplate.queryForObject(
+                  "SELECT count(*) FROM audit_log WHERE entity_type <> 'Product'", Long.class))
+          .isEqualTo(expectedAuditRows);
+    }
+  }
+
+  @Nested
+  @TestPropertySource(properties = "orderservice.audit.enabled=false")
+  class WithoutAudit extends Measurement {
+
+    @Test
+    void createOrders() throws InterruptedException {
+      measure("without audit", 0);
+    }
+  }
+
+  @Nested
+  @TestPropertySource(properties = "orderservice.audit.enabled=true")
+  class WithBackgroundWriters extends Measurement {
+
+    @Test
+    void createOrders() throws InterruptedException {
+      measure("with background writers", 5L * (ORDERS + 200));
+    }
+  }
+
+  @Nested
+  @TestPropertySource(
+      properties = {"orderservice.audit.enabled=true", "orderservice.audit.queue-capacity=0"})
+  class WithInlineInserts extends Measurement {
+
+    @Test
+    void createOrders() throws InterruptedException {
+      measure("with inline inserts", 5L * (ORDERS + 200));
+    }
+  }
+}
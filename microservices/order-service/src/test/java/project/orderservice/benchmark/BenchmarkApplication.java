@@ -0,0 +1,81 @@
+package project.orderservice.benchmark;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.orderservice.OrderServiceApplication;
+import project.orderservice.TestOrderServiceApplication;
+
+/**
+ * Starts the whole application for a benchmark, against the Testcontainers Postgres of {@link
+ * TestOrderServiceApplication}, or against an existing database when the {@code
+ * spring.datasource.url} system property is set. A benchmark leaves the rows of that database
+ * alone: it seeds products of its own and removes them with {@link #deleteOrdersOfProducts} after
+ * the run.
+ */
+public final class BenchmarkApplication {
+
+  private BenchmarkApplication() {}
+
+  /**
+   * Runs the application, the given {@code key=value} properties override application.properties.
+   */
+  public static ConfigurableApplicationContext run(String... properties) {
+    SpringApplicationBuilder application =
+        new SpringApplicationBuilder(OrderServiceApplication.class)
+            .properties(
+                "logging.level.root=warn",
+                "logging.level.project.orderservice.benchmark=info",
+                "orderservice.totals.reconcile-cron=-");
+    if (System.getProperty("spring.datasource.url") == null) {
+      application.sources(TestOrderServiceApplication.class);
+    }
+    return application.run(Arrays.stream(properties).map(p -> "--" + p).toArray(String[]::new));
+  }
+
+  /**
+   * Deletes the orders with items of the given products, then the products and the addresses no
+   * order uses anymore. Plain deletes, so the triggers of the order totals and sales rollups see
+   * them.
+   */
+  public static void deleteOrdersOfProducts(
+      ConfigurableApplicationContext context, Collection<Long> productIds) {
+    JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+    Long[] products = productIds.toArray(Long[]::new);
+    context
+        .getBean(TransactionTemplate.class)
+        .executeWithoutResult(
+            status -> {
+              Long[] orders =
+                  jdbcTemplate
+                      .queryForList(
+                          "SELECT DISTINCT order_id FROM order_item WHERE product_id = ANY(?)",
+                          Long.class,
+                          (Object) products)
+                      .toArray(Long[]::new);
+              jdbcTemplate.update(
+                  "DELETE FROM order_item WHERE order_id = ANY(?)", (Object) orders);
+              List<Long> addresses =
+                  jdbcTemplate.queryForList(
+                      "DELETE FROM orders WHERE order_id = ANY(?) RETURNING delivery_address_id",
+                      Long.class,
+                      (Object) orders);
+              jdbcTemplate.update(
+                  """
+                  DELETE FROM delivery_address a
+                  WHERE a.delivery_address_id = ANY(?)
+                    AND NOT EXISTS (SELECT 1 FROM orders o
+                                    WHERE o.delivery_address_id = a.delivery_address_id)
+                    AND NOT EXISTS (SELECT 1 FROM orders_archive o
+                                    WHERE o.delivery_address_id = a.delivery_address_id)
+                  """,
+                  (Object) addresses.toArray(Long[]::new));
+              jdbcTemplate.update(
+                  "DELETE FROM product WHERE product_id = ANY(?)", (Object) products);
+            });
+  }
+}
@@ -0,0 +1,97 @@
+package project.orderservice.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import project.orderservice.dto.DeliveryAddressRequest;
+import project.orderservice.dto.OrderBatchResponse;
+import project.orderservice.dto.OrderItemRequest;
+import project.orderservice.dto.OrderRequest;
+import project.orderservice.model.Product;
+import project.orderservice.repository.BaseRepositoryTest;
+import project.orderservice.service.OptimisticRetryExecutor;
+import project.orderservice.service.OrderService;
+import project.orderservice.service.address.DeliveryAddressStore;
+import project.orderservice.service.outbox.OutboxWriter;
+
+/**
+ * Measures rows/second of {@link OrderService#createOrders} against the Testcontainers Postgres.
+ * The "before" run forces a JDBC batch size of 1, which is the one round trip per row that IDENTITY
+ * ids used to impose; the "after" run uses the configured batch size.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({
+  OrderService.class,
+  OptimisticRetryExecutor.class,
+  OutboxWriter.class,
+  DeliveryAddressStore.class
+})
+public class OrderBatchInsertBenchmarkTest extends BaseRepositoryTest {
+
+  private static final int ORDERS = 2_000;
+  private static final int ITEMS_PER_ORDER = 10;
+
+  @Autowired private OrderService orderService;
+  @Autowired private EntityManager entityManager;
+
+  @Test
+  void should_insertFaster_whenJdbcBatchingIsEnabled() {
+    Product product =
+        productRepository.saveAndFlush(
+            Product.builder().name("Adidas13").price(BigDecimal.valueOf(300.3D)).build());
+    List<OrderRequest> requests = orders(product.getId());
+
+    // warm up the insert statements and the sequence pools
+    orderService.createOrders(requests.subList(0, 100));
+    entityManager.flush();
+
+    double unbatched = rowsPerSecond(requests, 1);
+    double batched = rowsPerSecond(requests, null);
+    log.info("order graph inserts: {} rows/s unbatched, {} rows/s batched", unbatched, batched);
+
+    assertThat(batched).isGreaterThan(unbatched);
+  }
+
+  private double rowsPerSecond(List<OrderRequest> requests, Integer jdbcBatchSize) {
+    entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+    long start = System.nanoTime();
+    OrderBatchResponse response = orderService.createOrders(requests);
+    entityManager.flush();
+    long elapsed = System.nanoTime() - start;
+    entityManager.clear();
+    // every order also inserts its delivery address
+    long rows = 2L * response.orderCount() + response.itemCount();
+    return rows * 1_000_000_000D / elapsed;
+  }
+
+  private static List<OrderRequest> orders(Long productId) {
+    List<OrderRequest> requests = new ArrayList<>(ORDERS);
+    for (int i = 0; i < ORDERS; i++) {
+      List<OrderItemRequest> items = new ArrayList<>(ITEMS_PER_ORDER);
+      for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+        items.add(new OrderItemRequest(productId, BigDecimal.valueOf(j + 1)));
+      }
+      requests.add(
+          new OrderRequest(
+              new DeliveryAddressRequest("Armeana " + i, "Iasi", "Europe", "Ro", "XYZ"), items));
+    }
+    return requests;
+  }
+}
@@ -0,0 +1,171 @@
+package project.orderservice.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.orderservice.dto.DeliveryAddressRequest;
+import project.orderservice.dto.OrderItemRequest;
+import project.orderservice.dto.OrderRequest;
+import project.orderservice.model.Order;
+import project.orderservice.model.OrderItem;
+import project.orderservice.model.Product;
+import project.orderservice.repository.BaseRepositoryTest;
+import project.orderservice.service.OptimisticRetryExecutor;
+import project.orderservice.service.OrderService;
+import project.orderservice.service.address.DeliveryAddressStore;
+import project.orderservice.service.outbox.OutboxWriter;
+
+/**
+ * Many threads add to the same line of one order, with three strategies: the optimistic update of
+ * {@link OrderService#addOrderItem} with its retries, a {@code SELECT ... FOR UPDATE} of the order
+ * before the same change, and a read-modify-write without any lock as the service did before the
+ * version columns. Every addition adds one, so the final amount shows the lost updates.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest(
+    properties = {
+      "orderservice.retry.max-attempts=100",
+      "orderservice.retry.initial-backoff=1ms",
+      "orderservice.retry.max-backoff=50ms",
+      "logging.level.org.hibernate.orm.jdbc.batch=off"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({JdbcTemplateAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Import({
+  OrderService.class,
+  OptimisticRetryExecutor.class,
+  OutboxWriter.class,
+  DeliveryAddressStore.class,
+  SimpleMeterRegistry.class
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OrderContentionBenchmarkTest extends BaseRepositoryTest {
+
+  private static final int THREADS = 16;
+  private static final int ADDITIONS_PER_THREAD = 50;
+
+  @Autowired private OrderService orderService;
+  @Autowired private EntityManager entityManager;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Test
+  void should_loseNoUpdates_whenAddingToAHotOrder() throws Exception {
+    Product product =
+        productRepository.save(
+            Product.builder().name("Adidas13").price(new BigDecimal("300.30")).build());
+
+    Result optimistic =
+        run(
+            product,
+            orderId ->
+                orderService.addOrderItem(
+                    orderId, new OrderItemRequest(product.getId(), BigDecimal.ONE)));
+    Result pessimistic =
+        run(
+            product,
+            orderId ->
+                transactionTemplate.executeWithoutResult(
+                    status -> {
+                      Order order =
+                          entityManager.find(Order.class, orderId, LockModeType.PESSIMISTIC_WRITE);
+                      OrderItem item = order.getOrderItemList().iterator().next();
+                      item.setAmount(item.getAmount().add(BigDecimal.ONE));
+                    }));
+    Result unlocked =
+        run(
+            product,
+            orderId ->
+                transactionTemplate.executeWithoutResult(
+                    status -> {
+                      var item =
+                          jdbcTemplate.queryForMap(
+                              "SELECT order_item_id, amount FROM order_item WHERE order_id = ?",
+                              orderId);
+                      jdbcTemplate.update(
+                          "UPDATE order_item SET amount = ? WHERE order_item_id = ?",
+                          ((BigDecimal) item.get("amount")).add(BigDecimal.ONE),
+                          item.get("order_item_id"));
+                    }));
+    log.info("Optimistic: {}", optimistic);
+    log.info("Select for update: {}", pessimistic);
+    log.info("Unlocked: {}", unlocked);
+
+    assertThat(optimistic.lostUpdates()).isZero();
+    assertThat(pessimistic.lostUpdates()).isZero();
+  }
+
+  private Result run(Product product, Addition addition) throws Exception {
+    Long orderId =
+        orderService
+            .createOrder(
+                new OrderRequest(
+                    new DeliveryAddressRequest("Armeana 1", "Iasi", "Europe", "Ro", "XYZ"),
+                    List.of(new OrderItemRequest(product.getId(), BigDecimal.ONE))))
+            .getId();
+    double retriesBefore = meterRegistry.counter("optimistic.retries").count();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    long start = System.nanoTime();
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < ADDITIONS_PER_THREAD; i++) {
+                    addition.add(orderId);
+                  }
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    int additions = THREADS * ADDITIONS_PER_THREAD;
+    BigDecimal amount =
+        jdbcTemplate.queryForObject(
+            "SELECT amount FROM order_item WHERE order_id = ?", BigDecimal.class, orderId);
+    return new Result(
+        millis,
+        additions * 1000L / Math.max(millis, 1),
+        additions + 1 - amount.intValue(),
+        (long) (meterRegistry.counter("optimistic.retries").count() - retriesBefore));
+  }
+
+  @FunctionalInterface
+  private interface Addition {
+    void add(Long orderId) throws Exception;
+  }
+
+  private record Result(
+      long millis, long additionsPerSecond, long lostUpdates, long optimisticRetries) {}
+}
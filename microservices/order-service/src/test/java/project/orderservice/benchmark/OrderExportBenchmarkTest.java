@@ -0,0 +1,112 @@
+package project.orderservice.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import project.orderservice.repository.BaseRepositoryTest;
+import project.orderservice.service.exports.ExportFormat;
+import project.orderservice.service.exports.OrderExportService;
+
+/**
+ * Exports 20k and then 200k orders and compares the peak of the old generation during both runs.
+ * Objects only survive into the old generation when they are retained, so a streaming export keeps
+ * the peak flat while a materializing one grows with the table.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({JdbcTemplateAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Import(OrderExportService.class)
+public class OrderExportBenchmarkTest extends BaseRepositoryTest {
+
+  private static final int SMALL = 20_000;
+  private static final int LARGE = 200_000;
+  private static final int ITEMS_PER_ORDER = 3;
+  private static final long TOLERANCE_BYTES = 32L << 20;
+
+  private static final List<MemoryPoolMXBean> OLD_GENERATION =
+      ManagementFactory.getMemoryPoolMXBeans().stream()
+          .filter(pool -> pool.getType() == MemoryType.HEAP)
+          .filter(pool -> pool.getName().contains("Old") || pool.getName().contains("Tenured"))
+          .toList();
+
+  @Autowired private OrderExportService orderExportService;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void should_keepHeapFlat_whenExportingMoreOrders() {
+    jdbcTemplate.execute("INSERT INTO product (name, price) VALUES ('Adidas13', 300.30)");
+    seedOrders(SMALL);
+    Measurement small = measure(SMALL);
+    seedOrders(LARGE - SMALL);
+    Measurement large = measure(LARGE);
+    log.info("Export of {} orders: {}", SMALL, small);
+    log.info("Export of {} orders: {}", LARGE, large);
+
+    assertThat(large.peakOldGenerationBytes())
+        .isLessThan(small.peakOldGenerationBytes() + TOLERANCE_BYTES);
+  }
+
+  private Measurement measure(int orders) {
+    CountingOutputStream output = new CountingOutputStream();
+    System.gc();
+    OLD_GENERATION.forEach(MemoryPoolMXBean::resetPeakUsage);
+    long start = System.nanoTime();
+    assertThat(orderExportService.export(ExportFormat.NDJSON, output)).isEqualTo(orders);
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    long peak = OLD_GENERATION.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    return new Measurement(millis, output.bytes, peak);
+  }
+
+  private void seedOrders(int orders) {
+    jdbcTemplate.update(
+        """
+        WITH a AS (
+          INSERT INTO delivery_address (street, city, country)
+          SELECT 'Armeana ' || g, 'Iasi', 'Ro' FROM generate_series(1, ?) g
+          RETURNING delivery_address_id),
+        o AS (
+          INSERT INTO orders (delivery_address_id)
+          SELECT delivery_address_id FROM a
+          RETURNING order_id, created_at)
+        INSERT INTO order_item (order_id, order_created_at, product_id, amount)
+        SELECT o.order_id, o.created_at, (SELECT min(product_id) FROM product), g
+        FROM o, generate_series(1, ?) g
+        """,
+        orders,
+        ITEMS_PER_ORDER);
+  }
+
+  private record Measurement(long millis, long outputBytes, long peakOldGenerationBytes) {}
+
+  private static final class CountingOutputStream extends OutputStream {
+
+    private long bytes;
+
+    @Override
+    public void write(int b) {
+      bytes++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      bytes += len;
+    }
+  }
+}
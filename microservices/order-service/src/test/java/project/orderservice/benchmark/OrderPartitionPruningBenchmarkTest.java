@@ -0,0 +1,138 @@
+package project.orderservice.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import project.orderservice.repository.BaseRepositoryTest;
+
+/**
+ * Seeds two years of orders and sums the items of the current month, once bounded by the partition
+ * keys and once by the id range of the same orders. Both return the same rows, only the first lets
+ * the planner skip the partitions of the other 23 months.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+public class OrderPartitionPruningBenchmarkTest extends BaseRepositoryTest {
+
+  private static final int MONTHS = 24;
+  private static final int ORDERS_PER_MONTH = 10_000;
+  private static final int ITEMS_PER_ORDER = 3;
+  private static final int ITERATIONS = 9;
+
+  private static final String BY_PARTITION_KEY =
+      """
+      SELECT count(*), sum(i.amount)
+      FROM orders o
+      JOIN order_item i ON i.order_id = o.order_id AND i.order_created_at = o.created_at
+      WHERE o.created_at >= ? AND o.created_at < ?
+        AND i.order_created_at >= ? AND i.order_created_at < ?
+      """;
+
+  private static final String BY_ORDER_ID =
+      """
+      SELECT count(*), sum(i.amount)
+      FROM orders o
+      JOIN order_item i ON i.order_id = o.order_id
+      WHERE o.order_id >= ? AND o.order_id <= ?
+      """;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void should_scanOnlyTheRecentMonth_whenBoundedByThePartitionKey() {
+    YearMonth current = YearMonth.now(ZoneOffset.UTC);
+    seedOrders(current);
+    OffsetDateTime from = current.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+    OffsetDateTime to = from.plusMonths(1);
+    Object[] partitionKeyArgs = {from, to, from, to};
+    Object[] orderIdArgs =
+        jdbcTemplate.queryForObject(
+            "SELECT min(order_id), max(order_id) FROM orders WHERE created_at >= ?",
+            (rs, rowNum) -> new Object[] {rs.getLong(1), rs.getLong(2)},
+            from);
+
+    assertThat(queryResult(BY_PARTITION_KEY, partitionKeyArgs))
+        .isEqualTo(queryResult(BY_ORDER_ID, orderIdArgs))
+        .startsWith((long) ORDERS_PER_MONTH * ITEMS_PER_ORDER + ",");
+    assertThat(scannedPartitions(BY_PARTITION_KEY, partitionKeyArgs)).isEqualTo(2);
+    assertThat(scannedPartitions(BY_ORDER_ID, orderIdArgs)).isGreaterThan(2 * MONTHS);
+
+    long pruned = medianMillis(BY_PARTITION_KEY, partitionKeyArgs);
+    long unpruned = medianMillis(BY_ORDER_ID, orderIdArgs);
+    log.info("Items of the current month by partition key: {} ms", pruned);
+    log.info("Items of the current month by order id: {} ms", unpruned);
+
+    assertThat(pruned).isLessThan(unpruned);
+  }
+
+  private String queryResult(String sql, Object[] args) {
+    return jdbcTemplate.queryForObject(
+        sql, (rs, rowNum) -> rs.getLong(1) + "," + rs.getBigDecimal(2), args);
+  }
+
+  /** Partitions of both tables in the plan, including the default ones. */
+  private long scannedPartitions(String sql, Object[] args) {
+    List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args);
+    log.info("Plan:\n{}", String.join("\n", plan));
+    return plan.stream()
+        .filter(line -> line.matches(".* on (orders|order_item)_(p\\d{4}_\\d{2}|default)\\b.*"))
+        .count();
+  }
+
+  private long medianMillis(String sql, Object[] args) {
+    long[] nanos = new long[ITERATIONS];
+    // the first round warms up and is dropped
+    for (int i = -1; i < ITERATIONS; i++) {
+      long start = System.nanoTime();
+      queryResult(sql, args);
+      if (i >= 0) {
+        nanos[i] = System.nanoTime() - start;
+      }
+    }
+    Arrays.sort(nanos);
+    return nanos[ITERATIONS / 2] / 1_000_000;
+  }
+
+  /** One month per statement and oldest first, so the order ids grow with the creation time. */
+  private void seedOrders(YearMonth current) {
+    YearMonth first = current.minusMonths(MONTHS - 1);
+    jdbcTemplate.queryForObject(
+        "SELECT create_order_partitions(?, ?)",
+        Integer.class,
+        first.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC),
+        MONTHS);
+    jdbcTemplate.execute("INSERT INTO product (name, price) VALUES ('Adidas13', 300.30)");
+    for (YearMonth month = first; !month.isAfter(current); month = month.plusMonths(1)) {
+      jdbcTemplate.update(
+          """
+          WITH o AS (
+            INSERT INTO orders (created_at)
+            SELECT ? + g * interval '1 minute' FROM generate_series(1, ?) g
+            RETURNING order_id, created_at)
+          INSERT INTO order_item (order_id, order_created_at, product_id, amount)
+          SELECT o.order_id, o.created_at, (SELECT min(product_id) FROM product), g
+          FROM o, generate_series(1, ?) g
+          """,
+          month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC),
+          ORDERS_PER_MONTH,
+          ITEMS_PER_ORDER);
+    }
+    jdbcTemplate.execute("ANALYZE orders, order_item");
+  }
+}
@@ -0,0 +1,133 @@
+package project.orderservice.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import project.orderservice.dto.DeliveryAddressRequest;
+import project.orderservice.dto.OrderItemRequest;
+import project.orderservice.dto.OrderRequest;
+import project.orderservice.dto.OrderSummary;
+import project.orderservice.model.Order;
+import project.orderservice.model.OrderItem;
+import project.orderservice.model.Product;
+import project.orderservice.repository.BaseRepositoryTest;
+import project.orderservice.repository.OrderFetchPlan;
+import project.orderservice.service.OptimisticRetryExecutor;
+import project.orderservice.service.OrderService;
+import project.orderservice.service.address.DeliveryAddressStore;
+import project.orderservice.service.outbox.OutboxWriter;
+
+/**
+ * Compares latency and heap allocation of building the order list view for 10k orders from managed
+ * entities against the {@link OrderSummary} projection.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({
+  OrderService.class,
+  OptimisticRetryExecutor.class,
+  OutboxWriter.class,
+  DeliveryAddressStore.class
+})
+public class OrderProjectionBenchmarkTest extends BaseRepositoryTest {
+
+  private static final int ORDERS = 10_000;
+  private static final int ITEMS_PER_ORDER = 3;
+  private static final int ITERATIONS = 5;
+  private static final Pageable ALL = PageRequest.of(0, ORDERS, Sort.by("id"));
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  @Autowired private OrderService orderService;
+  @Autowired private EntityManager entityManager;
+
+  @Test
+  void should_allocateLess_whenListingOrdersThroughProjection() {
+    seedOrders();
+
+    Measurement entities = measure(this::summariesFromEntities);
+    Measurement projection = measure(() -> orderRepository.findSummaries(ALL).getContent());
+    log.info("{} order summaries from entities: {}", ORDERS, entities);
+    log.info("{} order summaries from projection: {}", ORDERS, projection);
+
+    assertThat(projection.allocatedBytes()).isLessThan(entities.allocatedBytes());
+  }
+
+  private List<OrderSummary> summariesFromEntities() {
+    List<OrderSummary> summaries = new ArrayList<>(ORDERS);
+    for (Order order : orderRepository.findAll(OrderFetchPlan.FULL, ALL)) {
+      BigDecimal total = BigDecimal.ZERO;
+      for (OrderItem item : order.getOrderItemList()) {
+        total = total.add(item.getAmount().multiply(item.getProduct().getPrice()));
+      }
+      summaries.add(
+          new OrderSummary(
+              order.getId(),
+              order.getDeliveryAddress().getCity(),
+              (long) order.getOrderItemList().size(),
+              total));
+    }
+    return summaries;
+  }
+
+  private Measurement measure(Supplier<List<OrderSummary>> listing) {
+    long[] nanos = new long[ITERATIONS];
+    long[] bytes = new long[ITERATIONS];
+    // the first round warms up and is dropped
+    for (int i = -1; i < ITERATIONS; i++) {
+      entityManager.clear();
+      long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+      long start = System.nanoTime();
+      assertThat(listing.get()).hasSize(ORDERS);
+      if (i >= 0) {
+        nanos[i] = System.nanoTime() - start;
+        bytes[i] = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+      }
+    }
+    Arrays.sort(nanos);
+    Arrays.sort(bytes);
+    return new Measurement(nanos[ITERATIONS / 2] / 1_000_000, bytes[ITERATIONS / 2]);
+  }
+
+  private void seedOrders() {
+    Product product =
+        productRepository.save(
+            Product.builder().name("Adidas13").price(BigDecimal.valueOf(300.3D)).build());
+    List<OrderRequest> requests = new ArrayList<>(ORDERS);
+    for (int i = 0; i < ORDERS; i++) {
+      List<OrderItemRequest> items = new ArrayList<>(ITEMS_PER_ORDER);
+      for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+        items.add(new OrderItemRequest(product.getId(), BigDecimal.valueOf(j + 1)));
+      }
+      requests.add(
+          new OrderRequest(
+              new DeliveryAddressRequest("Armeana " + i, "Iasi", "Europe", "Ro", "XYZ"), items));
+    }
+    orderService.createOrders(requests);
+    entityManager.flush();
+  }
+
+  private record Measurement(long medianMillis, long allocatedBytes) {}
+}
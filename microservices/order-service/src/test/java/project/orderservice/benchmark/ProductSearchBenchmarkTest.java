@@ -0,0 +1,111 @@
+package project.orderservice.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import project.orderservice.dto.ProductSearchHit;
+import project.orderservice.repository.BaseRepositoryTest;
+import project.orderservice.service.search.ProductSearchService;
+
+/**
+ * Searches a catalog of 1M products named like "Adidas Runner Black 42" with the indexed prefix and
+ * fuzzy queries of {@link ProductSearchService}, and compares them with the case-insensitive {@code
+ * LIKE} scan a name search needed before.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@Import(ProductSearchService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductSearchBenchmarkTest extends BaseRepositoryTest {
+
+  private static final int PRODUCTS = 1_000_000;
+  private static final int ITERATIONS = 21;
+  private static final int LIMIT = 20;
+
+  private static final String SEED =
+      """
+      INSERT INTO product (name, price)
+      SELECT initcap(b[1 + n % 30] || ' ' || m[1 + n / 30 % 50] || ' ' || c[1 + n / 1500 % 20])
+                 || ' ' || (n % 997), 1 + n % 500
+      FROM generate_series(1, ?) n,
+           string_to_array('adidas,nike,puma,reebok,asics,fila,vans,converse,salomon,merrell,'
+               || 'brooks,saucony,mizuno,hoka,diadora,kappa,lotto,umbro,lacoste,ecco,geox,clarks,'
+               || 'timberland,columbia,keen,teva,birkenstock,crocs,skechers,camper', ',') b,
+           string_to_array('runner,trainer,sandal,boot,loafer,sneaker,slipper,court,trail,racer,'
+               || 'classic,retro,glide,pulse,motion,terrain,summit,urban,street,canvas,suede,'
+               || 'leather,mesh,knit,flex,boost,cloud,storm,breeze,wave,ridge,canyon,delta,'
+               || 'alpha,omega,nova,comet,orbit,swift,rapid,stride,tempo,pace,sprint,dash,'
+               || 'drift,cruise,vista,haven,echo', ',') m,
+           string_to_array('black,white,red,blue,green,grey,navy,olive,sand,brown,pink,orange,'
+               || 'yellow,purple,teal,beige,cream,silver,gold,charcoal', ',') c
+      """;
+
+  @Autowired private ProductSearchService productSearchService;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void should_searchAMillionProducts_fasterThanALikeScan() {
+    long start = System.nanoTime();
+    jdbcTemplate.update(SEED, PRODUCTS);
+    jdbcTemplate.execute("VACUUM ANALYZE product");
+    log.info("Seeded {} products in {} ms", PRODUCTS, (System.nanoTime() - start) / 1_000_000);
+
+    long likeScan =
+        log(
+            "LIKE scan 'adidas runner black'",
+            () ->
+                jdbcTemplate.queryForList(
+                    "SELECT product_id FROM product WHERE lower(name) LIKE ? LIMIT ?",
+                    Long.class,
+                    "%adidas runner black%",
+                    LIMIT));
+    long narrowPrefix = log("prefix 'adi runn bla'", () -> search("adi runn bla"));
+    log("prefix 'adidas', 33k matches ranked", () -> search("adidas"));
+    long fuzzy = log("fuzzy 'adidsa runer'", () -> search("adidsa runer"));
+
+    assertThat(search("adi runn bla")).hasSize(LIMIT).noneMatch(ProductSearchHit::fuzzy);
+    assertThat(search("adidsa runer"))
+        .isNotEmpty()
+        .allMatch(ProductSearchHit::fuzzy)
+        .allMatch(hit -> hit.name().startsWith("Adidas Runner"));
+    assertThat(narrowPrefix).isLessThan(likeScan);
+    assertThat(fuzzy).isLessThan(likeScan);
+  }
+
+  private List<ProductSearchHit> search(String query) {
+    return productSearchService.search(query, LIMIT);
+  }
+
+  /** Median, the first round warms up and is dropped. */
+  private long log(String name, Supplier<List<?>> query) {
+    long[] nanos = new long[ITERATIONS];
+    for (int i = -1; i < ITERATIONS; i++) {
+      long start = System.nanoTime();
+      query.get();
+      if (i >= 0) {
+        nanos[i] = System.nanoTime() - start;
+      }
+    }
+    Arrays.sort(nanos);
+    long median = nanos[ITERATIONS / 2] / 1_000;
+    log.info("{}: median {} us, p95 {} us", name, median, nanos[(int) (ITERATIONS * 0.95)] / 1_000);
+    return median;
+  }
+}
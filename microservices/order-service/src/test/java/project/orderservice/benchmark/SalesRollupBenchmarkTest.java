@@ -0,0 +1,194 @@
+package project.orderservice.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import project.orderservice.dto.CitySales;
+import project.orderservice.repository.BaseRepositoryTest;
+import project.orderservice.service.reporting.SalesReports;
+import project.orderservice.service.reporting.SalesRollupRefresher;
+
+/**
+ * Seeds a year of orders and reports the sales per city of the year, once from the rollups and once
+ * by joining the orders with their addresses. Then refreshes the rollups after the same number of
+ * new orders, with one month and with a year of history, to show that a refresh costs as much as
+ * the changes since the last one.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@Import({SalesRollupRefresher.class, SalesReports.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SalesRollupBenchmarkTest extends BaseRepositoryTest {
+
+  private static final int MONTHS = 12;
+  private static final int ORDERS_PER_MONTH = 20_000;
+  private static final int ITEMS_PER_ORDER = 3;
+  private static final int CITIES = 20;
+  private static final int PRODUCTS = 50;
+  private static final int NEW_ORDERS = 200;
+  private static final int ITERATIONS = 9;
+
+  private static final String CITIES_BY_JOIN =
+      """
+      SELECT a.city, count(*) AS order_count, sum(o.item_count) AS item_count,
+             sum(o.order_total) AS revenue
+      FROM orders o
+      JOIN delivery_address a ON a.delivery_address_id = o.delivery_address_id
+      WHERE o.created_at >= ? AND o.created_at < ?
+      GROUP BY a.city
+      ORDER BY revenue DESC, a.city
+      LIMIT 100
+      """;
+
+  @Autowired private SalesRollupRefresher salesRollupRefresher;
+  @Autowired private SalesReports salesReports;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void should_reportFromRollups_andRefreshInTimeOfTheChanges() {
+    YearMonth current = YearMonth.now(ZoneOffset.UTC);
+    YearMonth first = current.minusMonths(MONTHS - 1);
+    jdbcTemplate.update("DELETE FROM product_sales_daily");
+    jdbcTemplate.update("DELETE FROM city_sales_daily");
+    jdbcTemplate.update("DELETE FROM sales_rollup_delta");
+    seedReferenceData(first);
+
+    seedMonth(current);
+    salesRollupRefresher.refresh();
+    long refreshAfterAMonth = refreshAfterNewOrders();
+    for (YearMonth month = first; month.isBefore(current); month = month.plusMonths(1)) {
+      seedMonth(month);
+    }
+    salesRollupRefresher.refresh();
+    long refreshAfterAYear = refreshAfterNewOrders();
+    jdbcTemplate.execute("ANALYZE");
+
+    LocalDate from = first.atDay(1);
+    LocalDate to = current.atEndOfMonth();
+    Object[] joinArgs = {
+      from.atStartOfDay().atOffset(ZoneOffset.UTC),
+      to.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC)
+    };
+    List<CitySales> fromRollups = salesReports.topCities(from, to, 100).rows();
+    assertThat(fromRollups)
+        .hasSize(CITIES)
+        .isEqualTo(
+            jdbcTemplate.query(
+                CITIES_BY_JOIN,
+                (rs, rowNum) ->
+                    new CitySales(
+                        rs.getString("city"),
+                        rs.getLong("order_count"),
+                        rs.getLong("item_count"),
+                        rs.getBigDecimal("revenue")),
+                joinArgs));
+
+    long rollupMillis = medianMillis(() -> salesReports.topCities(from, to, 100));
+    long joinMillis = medianMillis(() -> jdbcTemplate.queryForList(CITIES_BY_JOIN, joinArgs));
+    log.info("Sales per city of a year from the rollups: {} ms", rollupMillis);
+    log.info("Sales per city of a year by joining the orders: {} ms", joinMillis);
+    log.info(
+        "Refresh after {} new orders with a month of history: {} ms, with a year: {} ms",
+        NEW_ORDERS,
+        refreshAfterAMonth,
+        refreshAfterAYear);
+
+    assertThat(rollupMillis).isLessThan(joinMillis);
+    assertThat(refreshAfterAYear).isLessThan(Math.max(refreshAfterAMonth, 10) * 5);
+  }
+
+  /** Every order in a statement of its own, like orders created one by one. */
+  private long refreshAfterNewOrders() {
+    for (int i = 0; i < NEW_ORDERS; i++) {
+      jdbcTemplate.update(
+          """
+          WITH o AS (
+            INSERT INTO orders (delivery_address_id)
+            SELECT (array_agg(delivery_address_id ORDER BY delivery_address_id))[?]
+            FROM delivery_address
+            RETURNING order_id, created_at)
+          INSERT INTO order_item (order_id, order_created_at, product_id, amount)
+          SELECT o.order_id, o.created_at,
+                 (SELECT (array_agg(product_id ORDER BY product_id))[?] FROM product), 1
+          FROM o
+          """,
+          1 + i % CITIES,
+          1 + i % PRODUCTS);
+    }
+    long start = System.nanoTime();
+    salesRollupRefresher.refresh();
+    return (System.nanoTime() - start) / 1_000_000;
+  }
+
+  private long medianMillis(Supplier<?> query) {
+    long[] nanos = new long[ITERATIONS];
+    // the first round warms up and is dropped
+    for (int i = -1; i < ITERATIONS; i++) {
+      long start = System.nanoTime();
+      query.get();
+      if (i >= 0) {
+        nanos[i] = System.nanoTime() - start;
+      }
+    }
+    Arrays.sort(nanos);
+    return nanos[ITERATIONS / 2] / 1_000_000;
+  }
+
+  private void seedReferenceData(YearMonth first) {
+    jdbcTemplate.queryForObject(
+        "SELECT create_order_partitions(?, ?)",
+        Integer.class,
+        first.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC),
+        MONTHS);
+    jdbcTemplate.update(
+        "INSERT INTO delivery_address (street, city) SELECT 'Armeana 1', 'City ' || g"
+            + " FROM generate_series(1, ?) g",
+        CITIES);
+    jdbcTemplate.update(
+        "INSERT INTO product (name, price) SELECT 'Product ' || g, g + 0.99"
+            + " FROM generate_series(1, ?) g",
+        PRODUCTS);
+  }
+
+  /** The ids are drawn in blocks of the sequence increment, they are picked by position. */
+  private void seedMonth(YearMonth month) {
+    jdbcTemplate.update(
+        """
+        WITH a AS (SELECT array_agg(delivery_address_id ORDER BY delivery_address_id) AS ids
+                   FROM delivery_address),
+        p AS (SELECT array_agg(product_id ORDER BY product_id) AS ids FROM product),
+        o AS (
+          INSERT INTO orders (delivery_address_id, created_at)
+          SELECT a.ids[1 + g % ?], ? + g * interval '1 minute' FROM a, generate_series(1, ?) g
+          RETURNING order_id, created_at)
+        INSERT INTO order_item (order_id, order_created_at, product_id, amount)
+        SELECT o.order_id, o.created_at, p.ids[1 + (o.order_id + g) % ?], g
+        FROM o, p, generate_series(1, ?) g
+        """,
+        CITIES,
+        month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC),
+        ORDERS_PER_MONTH,
+        PRODUCTS,
+        ITEMS_PER_ORDER);
+  }
+}
@@ -0,0 +1,136 @@
+package project.orderservice.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import project.orderservice.dto.DeliveryAddressRequest;
+import project.orderservice.dto.OrderItemRequest;
+import project.orderservice.dto.OrderRequest;
+import project.orderservice.model.Product;
+import project.orderservice.repository.ProductRepository;
+import project.orderservice.service.OrderService;
+
+/**
+ * Fires {@code CLIENTS} concurrent clients at {@code GET /orders/{id}} of the application running
+ * on the Tomcat platform thread pool and on virtual threads, and compares throughput and p99
+ * latency.
+ */
+@Slf4j
+@Tag("benchmark")
+public class VirtualThreadLoadBenchmarkTest {
+
+  private static final int CLIENTS = 500;
+  private static final int REQUESTS_PER_CLIENT = 20;
+  private static final int ORDERS = 200;
+
+  @Test
+  void should_serveLoadWithoutErrors_onPlatformAndVirtualThreads() throws Exception {
+    LoadResult platform = run(false);
+    LoadResult virtual = run(true);
+    log.info("platform threads: {}", platform);
+    log.info("virtual threads: {}", virtual);
+
+    assertThat(platform.errors()).isZero();
+    assertThat(virtual.errors()).isZero();
+  }
+
+  private LoadResult run(boolean virtualThreads) throws Exception {
+    try (ConfigurableApplicationContext context =
+        BenchmarkApplication.run(
+            "server.port=0",
+            "spring.threads.virtual.enabled=" + virtualThreads,
+            // measures the threads serving the whole load, none of it may be shed
+            "orderservice.admission.enabled=false")) {
+      Product product =
+          context
+              .getBean(ProductRepository.class)
+              .save(Product.builder().name("Adidas13").price(BigDecimal.valueOf(300.3D)).build());
+      try {
+        List<Long> orderIds = seed(context, product);
+        int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        try (HttpClient client = HttpClient.newHttpClient()) {
+          // warm up the request path before measuring
+          load(client, port, orderIds, 50, 20);
+          return load(client, port, orderIds, CLIENTS, REQUESTS_PER_CLIENT);
+        }
+      } finally {
+        BenchmarkApplication.deleteOrdersOfProducts(context, List.of(product.getId()));
+      }
+    }
+  }
+
+  private static LoadResult load(
+      HttpClient client, int port, List<Long> orderIds, int clients, int requestsPerClient)
+      throws InterruptedException {
+    long[] latencies = new long[clients * requestsPerClient];
+    AtomicInteger errors = new AtomicInteger();
+    long start = System.nanoTime();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int c = 0; c < clients; c++) {
+        int first = c * requestsPerClient;
+        executor.submit(
+            () -> {
+              for (int r = 0; r < requestsPerClient; r++) {
+                long orderId = orderIds.get(ThreadLocalRandom.current().nextInt(orderIds.size()));
+                HttpRequest request =
+                    HttpRequest.newBuilder(
+                            URI.create(
+                                "http://localhost:" + port + "/orders/" + orderId + "?plan=full"))
+                        .build();
+                long sent = System.nanoTime();
+                try {
+                  HttpResponse<String> resp =
+                      client.send(request, HttpResponse.BodyHandlers.ofString());
+                  if (resp.statusCode() != 200) {
+                    if (errors.incrementAndGet() < 3)
+                      log.warn("status {} {}", resp.statusCode(), resp.body());
+                  }
+                } catch (Exception e) {
+                  errors.incrementAndGet();
+                }
+                latencies[first + r] = System.nanoTime() - sent;
+              }
+              return null;
+            });
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+    Arrays.sort(latencies);
+    return new LoadResult(
+        latencies.length * 1_000_000_000D / elapsed,
+        latencies[latencies.length / 2] / 1_000_000D,
+        latencies[(int) (latencies.length * 0.99)] / 1_000_000D,
+        errors.get());
+  }
+
+  private static List<Long> seed(ConfigurableApplicationContext context, Product product) {
+    List<OrderRequest> requests = new ArrayList<>(ORDERS);
+    for (int i = 0; i < ORDERS; i++) {
+      List<OrderItemRequest> items = new ArrayList<>();
+      for (int j = 0; j < 5; j++) {
+        items.add(new OrderItemRequest(product.getId(), BigDecimal.valueOf(j + 1)));
+      }
+      requests.add(
+          new OrderRequest(
+              new DeliveryAddressRequest("Armeana " + i, "Iasi", "Europe", "Ro", "XYZ"), items));
+    }
+    return context.getBean(OrderService.class).createOrders(requests).orderIds();
+  }
+
+  record LoadResult(double requestsPerSecond, double p50Millis, double p99Millis, int errors) {}
+}
@@ -0,0 +1,56 @@
+package project.orderservice.configuration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.r2dbc.postgresql.PostgresqlConnectionFactoryProvider;
+import io.r2dbc.postgresql.client.SSLMode;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ReactiveDatabaseConfigTest {
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because the R2DBC options connect like the JDBC url: same database,
+      TLS mode, schema, server options and application name
+      """)
+  void should_carryTheSessionParametersOfTheJdbcUrlOver() {
+    ConnectionFactoryOptions options =
+        ReactiveDatabaseConfig.r2dbcOptions(
+                "jdbc:postgresql://db:6432/orders?sslmode=verify-full&sslrootcert=/etc/ca.pem"
+                    + "&currentSchema=app&ApplicationName=order-service&connectTimeout=5"
+                    + "&options=-c%20statement_timeout%3D5s%20-c%20lock_timeout%3D1s"
+                    + "&reWriteBatchedInserts=true")
+            .build();
+
+    assertEquals("db", options.getValue(ConnectionFactoryOptions.HOST));
+    assertEquals(6432, options.getValue(ConnectionFactoryOptions.PORT));
+    assertEquals("orders", options.getValue(ConnectionFactoryOptions.DATABASE));
+    assertEquals(
+        SSLMode.VERIFY_FULL, options.getValue(PostgresqlConnectionFactoryProvider.SSL_MODE));
+    assertEquals(
+        "/etc/ca.pem", options.getValue(PostgresqlConnectionFactoryProvider.SSL_ROOT_CERT));
+    assertEquals("app", options.getValue(PostgresqlConnectionFactoryProvider.CURRENT_SCHEMA));
+    assertEquals(
+        "order-service", options.getValue(PostgresqlConnectionFactoryProvider.APPLICATION_NAME));
+    assertEquals(Duration.ofSeconds(5), options.getValue(ConnectionFactoryOptions.CONNECT_TIMEOUT));
+    assertEquals(
+        Map.of("statement_timeout", "5s", "lock_timeout", "1s"),
+        options.getValue(PostgresqlConnectionFactoryProvider.OPTIONS));
+  }
+
+  @Test
+  void should_fail_whenAParameterHasNoR2dbcCounterpart() {
+    IllegalStateException exception =
+        assertThrows(
+            IllegalStateException.class,
+            () ->
+                ReactiveDatabaseConfig.r2dbcOptions(
+                    "jdbc:postgresql://db:5432/orders?targetServerType=primary"));
+    assertTrue(exception.getMessage().contains("targetServerType"));
+  }
+}
@@ -0,0 +1,71 @@
+package project.orderservice.monitoring;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+public class RepositoryStatementInterceptorTest {
+
+  private final StatementCounter statementCounter = new StatementCounter();
+  private final RepositoryStatementRecorder recorder =
+      new RepositoryStatementRecorder(null, 20, true);
+
+  @Test
+  void should_recordQueriesAndStatementsPerMethod() {
+    Lookups lookups = proxy();
+
+    lookups.twoQueries();
+    lookups.twoQueries();
+
+    RepositoryStatementRecorder.MethodStatements statements =
+        recorder.statistics().get("Lookups.twoQueries");
+    assertEquals(2, statements.calls());
+    assertEquals(4, statements.queries());
+    assertEquals(6, statements.statements());
+    assertEquals(2, statements.maxQueries());
+    assertEquals(2, statements.budget());
+  }
+
+  @Test
+  void should_fail_whenMethodExceedsItsBudget() {
+    Lookups lookups = proxy();
+
+    StatementBudgetExceededException exception =
+        assertThrows(StatementBudgetExceededException.class, lookups::nPlusOne);
+    assertEquals("Lookups.nPlusOne ran 3 queries, its budget is 1", exception.getMessage());
+  }
+
+  private Lookups proxy() {
+    ProxyFactory proxyFactory = new ProxyFactory(new LookupsImpl());
+    proxyFactory.addInterface(Lookups.class);
+    proxyFactory.addAdvice(new RepositoryStatementInterceptor(Lookups.class, () -> recorder));
+    return (Lookups) proxyFactory.getProxy();
+  }
+
+  interface Lookups {
+
+    @StatementBudget(2)
+    void twoQueries();
+
+    @StatementBudget(1)
+    void nPlusOne();
+  }
+
+  class LookupsImpl implements Lookups {
+
+    @Override
+    public void twoQueries() {
+      statementCounter.inspect("select * from orders");
+      statementCounter.inspect("insert into orders values (1)");
+      statementCounter.inspect("  SELECT count(*) from orders");
+    }
+
+    @Override
+    public void nPlusOne() {
+      for (int i = 0; i < 3; i++) {
+        statementCounter.inspect("select * from order_item where order_id = " + i);
+      }
+    }
+  }
+}
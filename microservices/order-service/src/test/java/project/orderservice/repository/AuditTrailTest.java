@@ -0,0 +1,173 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.orderservice.configuration.AuditConfig;
+import project.orderservice.dto.AuditEntry;
+import project.orderservice.model.Order;
+import project.orderservice.model.OrderItem;
+import project.orderservice.model.Product;
+import project.orderservice.service.OptimisticRetryExecutor;
+import project.orderservice.service.OrderService;
+import project.orderservice.service.address.DeliveryAddressMerger;
+import project.orderservice.service.address.DeliveryAddressStore;
+import project.orderservice.service.audit.AuditHistory;
+import project.orderservice.service.audit.AuditLogWriter;
+import project.orderservice.service.outbox.OutboxWriter;
+
+/**
+ * Runs without a test transaction, changes are only audited once committed. The queue takes three
+ * changes, a larger transaction writes its audit rows itself.
+ */
+@DataJpaTest(
+    properties = {
+      "orderservice.audit.enabled=true",
+      "orderservice.address.merge-pause=0ms",
+      "orderservice.audit.queue-capacity=3",
+      "orderservice.audit.poll-interval=10ms"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({JdbcTemplateAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Import({
+  AuditConfig.class,
+  AuditHistory.class,
+  OrderService.class,
+  OptimisticRetryExecutor.class,
+  OutboxWriter.class,
+  DeliveryAddressStore.class,
+  DeliveryAddressMerger.class,
+  SimpleMeterRegistry.class
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AuditTrailTest extends BaseRepositoryTest {
+
+  @Autowired private AuditHistory auditHistory;
+  @Autowired private AuditLogWriter auditLogWriter;
+  @Autowired private OrderService orderService;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private MeterRegistry meterRegistry;
+  @Autowired private DeliveryAddressMerger deliveryAddressMerger;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because the background writers record the insert and the later
+      amount change of an item, with the product as its id and the old and the new amount
+      """)
+  void should_recordInsertAndUpdate_ofAnOrderItem() throws Exception {
+    Product product = saveProduct();
+    Order order = createOrder(orderRequest(product.getId()));
+    OrderItem item = order.getOrderItemList().iterator().next();
+    orderService.changeOrderItemAmount(order.getId(), item.getId(), new BigDecimal("4"));
+    awaitWritten();
+
+    List<AuditEntry> history = auditHistory.findHistory("OrderItem", item.getId(), 10);
+
+    assertEquals(List.of("UPDATE", "INSERT"), history.stream().map(AuditEntry::operation).toList());
+    assertEquals(1, history.get(0).changes().get("amount").get("before").intValue());
+    assertEquals(4, history.get(0).changes().get("amount").get("after").intValue());
+    assertFalse(history.get(0).changes().has("product"));
+    assertEquals(product.getId(), history.get(1).changes().get("product").get("after").longValue());
+    assertEquals(
+        history.get(1).transactionId(),
+        auditHistory.findHistory("Order", order.getId(), 10).get(0).transactionId());
+  }
+
+  @Test
+  void should_writeInTheTransaction_whenTheQueueHasNoRoom() throws Exception {
+    double inlineBefore = meterRegistry.counter("audit.written.inline").count();
+    Product product = saveProduct();
+
+    // the address, the order and its three items are more changes than the queue takes
+    Order order = createOrder(orderRequest(product.getId(), product.getId(), product.getId()));
+
+    assertEquals(5, meterRegistry.counter("audit.written.inline").count() - inlineBefore);
+    assertEquals(0, auditLogWriter.pending());
+    assertEquals(1, auditHistory.findHistory("Order", order.getId(), 10).size());
+    awaitWritten();
+    assertEquals(1, auditHistory.findHistory("Product", product.getId(), 10).size());
+  }
+
+  @Test
+  void should_notAuditRolledBackChanges() throws Exception {
+    Product product =
+        transactionTemplate.execute(
+            status -> {
+              Product saved = productRepository.saveAndFlush(product("Adidas13", "300.30"));
+              status.setRollbackOnly();
+              return saved;
+            });
+    awaitWritten();
+
+    assertTrue(auditHistory.findHistory("Product", product.getId(), 10).isEmpty());
+    assertEquals(0, auditLogWriter.pending());
+  }
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because the merge job, which works with SQL, audits the normalized
+      address, the repointed order and the deleted duplicate in one transaction
+      """)
+  void should_auditMergedAddresses() throws Exception {
+    long survivor = insertUnhashedAddress(" Armeana  1 ");
+    long duplicate = insertUnhashedAddress("armeana 1");
+    long orderId =
+        jdbcTemplate.queryForObject(
+            "INSERT INTO orders (delivery_address_id) VALUES (?) RETURNING order_id",
+            Long.class,
+            duplicate);
+
+    assertEquals(1, deliveryAddressMerger.merge());
+    awaitWritten();
+
+    AuditEntry hashed = auditHistory.findHistory("DeliveryAddress", survivor, 10).get(0);
+    assertEquals("UPDATE", hashed.operation());
+    assertEquals(" Armeana  1 ", hashed.changes().get("street").get("before").textValue());
+    assertEquals("Armeana 1", hashed.changes().get("street").get("after").textValue());
+    assertTrue(hashed.changes().get("addressHash").has("after"));
+    assertFalse(hashed.changes().has("city"));
+    AuditEntry repointed = auditHistory.findHistory("Order", orderId, 10).get(0);
+    assertEquals("UPDATE", repointed.operation());
+    assertEquals(duplicate, repointed.changes().get("deliveryAddress").get("before").longValue());
+    assertEquals(survivor, repointed.changes().get("deliveryAddress").get("after").longValue());
+    AuditEntry deleted = auditHistory.findHistory("DeliveryAddress", duplicate, 10).get(0);
+    assertEquals("DELETE", deleted.operation());
+    assertEquals("armeana 1", deleted.changes().get("street").get("before").textValue());
+    assertEquals(hashed.transactionId(), repointed.transactionId());
+    assertEquals(hashed.transactionId(), deleted.transactionId());
+  }
+
+  private long insertUnhashedAddress(String street) {
+    return jdbcTemplate.queryForObject(
+        "INSERT INTO delivery_address (street, city, state, country, postal_code)"
+            + " VALUES (?, 'Iasi', 'Europe', 'RO', 'XYZ') RETURNING delivery_address_id",
+        Long.class,
+        street);
+  }
+
+  private void awaitWritten() throws InterruptedException {
+    for (int i = 0; i < 500 && auditLogWriter.pending() > 0; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, auditLogWriter.pending());
+  }
+}
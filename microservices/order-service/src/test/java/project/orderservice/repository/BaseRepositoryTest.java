@@ -2,19 +2,34 @@ package project.orderservice.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.math.BigDecimal;
+import java.util.Arrays;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.utility.DockerImageName;
+import project.orderservice.configuration.StatementMetricsConfig;
+import project.orderservice.dto.DeliveryAddressRequest;
+import project.orderservice.dto.OrderItemRequest;
+import project.orderservice.dto.OrderRequest;
+import project.orderservice.model.Order;
+import project.orderservice.model.Product;
+import project.orderservice.service.OrderService;
+import project.orderservice.service.address.DeliveryAddressStore;
 
+@Import(StatementMetricsConfig.class)
 public abstract class BaseRepositoryTest {
   @Autowired protected OrderRepository orderRepository;
   @Autowired protected OrderItemRepository orderItemRepository;
   @Autowired protected ProductRepository productRepository;
   @Autowired protected DeliveryAddressRepository deliveryAddressRepository;
+  @Autowired private ObjectProvider<DeliveryAddressStore> deliveryAddressStore;
+  @Autowired private ObjectProvider<OrderService> orderServiceProvider;
 
   static PostgreSQLContainer<?> postgreSQLContainer =
       new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
@@ -28,6 +43,10 @@ public abstract class BaseRepositoryTest {
     registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
     registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
     registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+    // a repository method over its @StatementBudget fails the test
+    registry.add("orderservice.statements.fail-on-budget", () -> true);
+    // every cached test context keeps its pool open against the one container
+    registry.add("spring.datasource.hikari.maximum-pool-size", () -> 4);
   }
 
   @BeforeAll
@@ -38,9 +57,46 @@ public abstract class BaseRepositoryTest {
 
   @BeforeEach
   void setUp() {
-    deliveryAddressRepository.deleteAll();
-    orderRepository.deleteAll();
-    orderItemRepository.deleteAll();
-    productRepository.deleteAll();
+    // one DELETE per table, children first, instead of loading and cascading every entity
+    orderItemRepository.deleteAllInBatch();
+    orderRepository.deleteAllInBatch();
+    deliveryAddressRepository.deleteAllInBatch();
+    // orders with the cached id of a deleted address would violate their FK
+    deliveryAddressStore.ifAvailable(DeliveryAddressStore::clearCache);
+    productRepository.deleteAllInBatch();
+  }
+
+  protected Product saveProduct() {
+    return saveProduct("Adidas13", "300.30");
+  }
+
+  protected Product saveProduct(String name, String price) {
+    return productRepository.save(product(name, price));
+  }
+
+  protected static Product product(String name, String price) {
+    return Product.builder().name(name).price(new BigDecimal(price)).build();
+  }
+
+  /** Creates the order through OrderService, which the test has to import. */
+  protected Order createOrder(OrderRequest request) {
+    return orderServiceProvider.getObject().createOrder(request);
+  }
+
+  /** An order of one of each product, delivered in Iasi. */
+  protected static OrderRequest orderRequest(Long... productIds) {
+    return orderRequest(deliveryAddress("Iasi"), productIds);
+  }
+
+  protected static OrderRequest orderRequest(DeliveryAddressRequest address, Long... productIds) {
+    return new OrderRequest(
+        address,
+        Arrays.stream(productIds)
+            .map(productId -> new OrderItemRequest(productId, BigDecimal.ONE))
+            .toList());
+  }
+
+  protected static DeliveryAddressRequest deliveryAddress(String city) {
+    return new DeliveryAddressRequest("Armeana 1", city, "Europe", "Ro", "XYZ");
   }
 }
@@ -0,0 +1,215 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import project.orderservice.dto.ImportResult;
+import project.orderservice.model.DeliveryAddress;
+import project.orderservice.model.Product;
+import project.orderservice.service.imports.CopyImportService;
+import project.orderservice.service.imports.ImportFormat;
+import project.orderservice.service.imports.ImportTarget;
+
+/** Runs without a test transaction, every import commits and drops its staging table. */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({JdbcTemplateAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Import(CopyImportService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CopyImportServiceTest extends BaseRepositoryTest {
+
+  @Autowired private CopyImportService copyImportService;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because imported products, orders and items keep the last occurrence
+      of a repeated key, drop the rows whose parent is missing, and update the same rows when the
+      files are imported again
+      """)
+  void should_mergeLastOccurrence_andRejectOrphans_whenImportingTwice() {
+    long addressId =
+        deliveryAddressRepository
+            .save(
+                DeliveryAddress.builder().street("Armeana 1").orderList(new ArrayList<>()).build())
+            .getId();
+
+    for (int run = 0; run < 2; run++) {
+      assertResult(
+          3,
+          0,
+          2,
+          importCsv(
+              ImportTarget.PRODUCT,
+              """
+              product_id,name,price
+              1000001,Shoes,10.00
+              1000002,Socks,2.50
+              1000001,Boots,12.00
+              """));
+      assertResult(
+          3,
+          1,
+          2,
+          copyImportService.importRows(
+              ImportTarget.ORDERS,
+              ImportFormat.NDJSON,
+              input(
+                  """
+                  {"order_id":2000001,"delivery_address_id":%1$d}
+                  {"order_id":2000002,"delivery_address_id":%1$d}
+                  {"order_id":2000003,"delivery_address_id":999999999}
+                  """
+                      .formatted(addressId))));
+      assertResult(
+          5,
+          2,
+          2,
+          importCsv(
+              ImportTarget.ORDER_ITEM,
+              """
+              order_item_id,product_id,order_id,amount
+              3000001,1000001,2000001,1
+              3000002,1000002,2000001,2
+              3000001,1000001,2000001,3
+              3000003,1000002,2000003,1
+              3000004,999999999,2000002,1
+              """));
+    }
+
+    assertEquals(
+        List.of(
+            Map.of("product_id", 1000001, "name", "Boots"),
+            Map.of("product_id", 1000002, "name", "Socks")),
+        jdbcTemplate.queryForList("SELECT product_id, name FROM product ORDER BY product_id"));
+    assertEquals(
+        List.of(2000001L, 2000002L),
+        jdbcTemplate.queryForList("SELECT order_id FROM orders ORDER BY order_id", Long.class));
+    assertEquals(
+        List.of(
+            Map.of("order_item_id", 3000001, "amount", new BigDecimal("3.000")),
+            Map.of("order_item_id", 3000002, "amount", new BigDecimal("2.000"))),
+        jdbcTemplate.queryForList(
+            "SELECT order_item_id, amount FROM order_item ORDER BY order_item_id"));
+    // 3 Boots and 2 Socks, kept up to date by the triggers of the merged items
+    assertEquals(
+        0,
+        new BigDecimal("41.00")
+            .compareTo(
+                jdbcTemplate.queryForObject(
+                    "SELECT order_total FROM orders WHERE order_id = 2000001", BigDecimal.class)));
+  }
+
+  @Test
+  void should_keepTheCreationTime_ofAnOrderImportedAgain() {
+    long addressId =
+        deliveryAddressRepository
+            .save(
+                DeliveryAddress.builder().street("Armeana 1").orderList(new ArrayList<>()).build())
+            .getId();
+    String orders = "order_id,delivery_address_id\n2000001,%d\n".formatted(addressId);
+    importCsv(ImportTarget.ORDERS, orders);
+    OffsetDateTime createdAt = createdAt(2000001);
+
+    importCsv(ImportTarget.ORDERS, orders);
+
+    assertEquals(createdAt, createdAt(2000001));
+    assertEquals(1, jdbcTemplate.queryForObject("SELECT version FROM orders", Integer.class));
+  }
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because an item imported again under an order created at another time
+      replaces its old row instead of being stored twice with the same id
+      """)
+  void should_moveAnItem_whenItIsImportedUnderAnotherOrder() {
+    long addressId =
+        deliveryAddressRepository
+            .save(
+                DeliveryAddress.builder().street("Armeana 1").orderList(new ArrayList<>()).build())
+            .getId();
+    importCsv(ImportTarget.PRODUCT, "product_id,name,price\n1000001,Shoes,10.00\n");
+    importCsv(
+        ImportTarget.ORDERS,
+        "order_id,delivery_address_id\n2000001,%1$d\n2000002,%1$d\n".formatted(addressId));
+    jdbcTemplate.update(
+        "UPDATE orders SET created_at = created_at - interval '1 minute' WHERE order_id = 2000002");
+    String items = "order_item_id,product_id,order_id,amount\n3000001,1000001,%d,1\n";
+    importCsv(ImportTarget.ORDER_ITEM, items.formatted(2000001));
+
+    importCsv(ImportTarget.ORDER_ITEM, items.formatted(2000002));
+
+    assertEquals(
+        List.of(2000002L),
+        jdbcTemplate.queryForList(
+            "SELECT order_id FROM order_item WHERE order_item_id = 3000001", Long.class));
+    assertEquals(
+        List.of(
+            Map.of("order_id", 2000001, "item_count", 0),
+            Map.of("order_id", 2000002, "item_count", 1)),
+        jdbcTemplate.queryForList("SELECT order_id, item_count FROM orders ORDER BY order_id"));
+  }
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because the id sequences are moved past the imported ids, so rows
+      created afterwards do not collide with them
+      """)
+  void should_moveSequencesPastTheImportedIds() {
+    importCsv(ImportTarget.PRODUCT, "product_id,name,price\n1500000,Shoes,10.00\n");
+
+    assertTrue(nextValue("product") > 1500000);
+    Product product = saveProduct();
+    assertNotEquals(1500000, product.getId());
+    assertEquals(2, productRepository.count());
+
+    // ids below the sequence do not move it back
+    importCsv(ImportTarget.PRODUCT, "product_id,name,price\n7,Socks,2.50\n");
+    assertTrue(nextValue("product") > 1500000);
+  }
+
+  private ImportResult importCsv(ImportTarget target, String csv) {
+    return copyImportService.importRows(target, ImportFormat.CSV, input(csv));
+  }
+
+  private static ByteArrayInputStream input(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void assertResult(long copied, long rejected, long merged, ImportResult result) {
+    assertEquals(copied, result.rowsCopied(), result::toString);
+    assertEquals(rejected, result.rowsRejected(), result::toString);
+    assertEquals(merged, result.rowsMerged(), result::toString);
+  }
+
+  private OffsetDateTime createdAt(long orderId) {
+    return jdbcTemplate.queryForObject(
+        "SELECT created_at FROM orders WHERE order_id = ?", OffsetDateTime.class, orderId);
+  }
+
+  private long nextValue(String table) {
+    return jdbcTemplate.queryForObject(
+        "SELECT nextval(pg_get_serial_sequence(?, ?))", Long.class, table, table + "_id");
+  }
+}
@@ -0,0 +1,196 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.orderservice.dto.DeliveryAddressRequest;
+import project.orderservice.service.OptimisticRetryExecutor;
+import project.orderservice.service.OrderService;
+import project.orderservice.service.address.DeliveryAddressMerger;
+import project.orderservice.service.address.DeliveryAddressStore;
+import project.orderservice.service.outbox.OutboxWriter;
+
+/** Runs without a test transaction, every order commits like a request of its own. */
+@DataJpaTest(
+    properties = {
+      "orderservice.address.merge-batch-size=2",
+      "orderservice.address.merge-pause=0ms"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({JdbcTemplateAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Import({
+  OrderService.class,
+  OptimisticRetryExecutor.class,
+  OutboxWriter.class,
+  DeliveryAddressStore.class,
+  DeliveryAddressMerger.class
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class DeliveryAddressDeduplicationTest extends BaseRepositoryTest {
+
+  @Autowired private OrderService orderService;
+  @Autowired private DeliveryAddressMerger deliveryAddressMerger;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because orders to the same address, spelled with other case and
+      spacing, from many threads at once all reference the one row inserted for it
+      """)
+  void should_reuseTheAddressRow_forEqualAddresses() throws Exception {
+    Long productId = saveProduct().getId();
+    int threads = 8;
+    CountDownLatch start = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Long> orderIds = new ArrayList<>();
+    try {
+      List<Future<Long>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        String street = t % 2 == 0 ? "Armeana 1" : "  armeana   1 ";
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return createOrder(orderRequest(address(street, "70-123"), productId)).getId();
+                }));
+      }
+      start.countDown();
+      for (Future<Long> future : futures) {
+        orderIds.add(future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    createOrder(orderRequest(address("Armeana 2", "70123"), productId));
+
+    assertEquals(threads, orderIds.size());
+    assertEquals(
+        2, jdbcTemplate.queryForObject("SELECT count(*) FROM delivery_address", Integer.class));
+    assertEquals(
+        1,
+        jdbcTemplate.queryForObject(
+            "SELECT count(DISTINCT delivery_address_id) FROM orders WHERE order_id = ANY(?)",
+            Integer.class,
+            (Object) orderIds.toArray(Long[]::new)));
+  }
+
+  @Test
+  void should_notReuseAnAddress_whoseInsertWasRolledBack() {
+    Long productId = saveProduct().getId();
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          orderService.createOrder(orderRequest(address("Armeana 1", "XYZ"), productId));
+          status.setRollbackOnly();
+        });
+
+    createOrder(orderRequest(address("Armeana 1", "XYZ"), productId));
+
+    assertEquals(
+        1, jdbcTemplate.queryForObject("SELECT count(*) FROM delivery_address", Integer.class));
+  }
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because the merge job keeps one row per address, the hashed one if
+      there is one, and repoints the orders and archived orders of the deleted duplicates
+      """)
+  void should_mergeDuplicates_ofAddressesFromBeforeHashing() {
+    Long productId = saveProduct().getId();
+    long hashed =
+        createOrder(orderRequest(address("Armeana 1", "XYZ"), productId))
+            .getDeliveryAddress()
+            .getId();
+    long first = insertUnhashedAddress("armeana 1", "xyz");
+    long second = insertUnhashedAddress("Armeana  1", "X Y Z");
+    long other = insertUnhashedAddress(" Copou 5 ", "ABC");
+    long otherDuplicate = insertUnhashedAddress("copou 5", "abc");
+    long firstOrder = insertOrder(first);
+    long secondOrder = insertOrder(second);
+    long otherOrder = insertOrder(otherDuplicate);
+    jdbcTemplate.update(
+        "INSERT INTO orders_archive (order_id, delivery_address_id, order_total, item_count,"
+            + " created_at) VALUES (-1, ?, 0, 0, now())",
+        first);
+
+    assertEquals(3, deliveryAddressMerger.merge());
+
+    assertEquals(
+        Set.of(hashed, other),
+        Set.copyOf(
+            jdbcTemplate.queryForList(
+                "SELECT delivery_address_id FROM delivery_address WHERE address_hash IS NOT NULL",
+                Long.class)));
+    assertEquals(
+        0,
+        jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM delivery_address WHERE address_hash IS NULL", Integer.class));
+    assertEquals(hashed, addressOf(firstOrder));
+    assertEquals(hashed, addressOf(secondOrder));
+    assertEquals(other, addressOf(otherOrder));
+    assertEquals(
+        hashed,
+        jdbcTemplate.queryForObject(
+            "SELECT delivery_address_id FROM orders_archive WHERE order_id = -1", Long.class));
+    assertEquals(
+        "Copou 5",
+        jdbcTemplate.queryForObject(
+            "SELECT street FROM delivery_address WHERE delivery_address_id = ?",
+            String.class,
+            other));
+    // a new order finds the merged row by its hash
+    assertEquals(
+        other,
+        createOrder(orderRequest(address("COPOU 5", "A-B-C"), productId))
+            .getDeliveryAddress()
+            .getId());
+    jdbcTemplate.update("DELETE FROM orders_archive");
+  }
+
+  private long insertUnhashedAddress(String street, String postalCode) {
+    return jdbcTemplate.queryForObject(
+        "INSERT INTO delivery_address (street, city, state, country, postal_code)"
+            + " VALUES (?, 'Iasi', 'Europe', 'Ro', ?) RETURNING delivery_address_id",
+        Long.class,
+        street,
+        postalCode);
+  }
+
+  private long insertOrder(long deliveryAddressId) {
+    return jdbcTemplate.queryForObject(
+        "INSERT INTO orders (delivery_address_id) VALUES (?) RETURNING order_id",
+        Long.class,
+        deliveryAddressId);
+  }
+
+  private long addressOf(long orderId) {
+    return jdbcTemplate.queryForObject(
+        "SELECT delivery_address_id FROM orders WHERE order_id = ?", Long.class, orderId);
+  }
+
+  private static DeliveryAddressRequest address(String street, String postalCode) {
+    return new DeliveryAddressRequest(street, "Iasi", "Europe", "Ro", postalCode);
+  }
+}
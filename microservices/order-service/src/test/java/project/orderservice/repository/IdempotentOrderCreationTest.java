@@ -0,0 +1,170 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.orderservice.dto.DeliveryAddressRequest;
+import project.orderservice.dto.OrderItemRequest;
+import project.orderservice.dto.OrderRequest;
+import project.orderservice.service.OptimisticRetryExecutor;
+import project.orderservice.service.OrderService;
+import project.orderservice.service.address.DeliveryAddressStore;
+import project.orderservice.service.idempotency.IdempotencyKeyReusedException;
+import project.orderservice.service.idempotency.IdempotencyKeyStore;
+import project.orderservice.service.idempotency.IdempotencyKeySweeper;
+import project.orderservice.service.idempotency.IdempotentOrder;
+import project.orderservice.service.idempotency.IdempotentOrderCreator;
+import project.orderservice.service.outbox.OutboxWriter;
+
+/** Runs without a test transaction, every submission commits like a request of its own. */
+@DataJpaTest(properties = "orderservice.idempotency.sweep-batch-size=100")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({JdbcTemplateAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Import({
+  OrderService.class,
+  OptimisticRetryExecutor.class,
+  OutboxWriter.class,
+  DeliveryAddressStore.class,
+  IdempotencyKeyStore.class,
+  IdempotentOrderCreator.class,
+  IdempotencyKeySweeper.class
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class IdempotentOrderCreationTest extends BaseRepositoryTest {
+
+  @Autowired private IdempotentOrderCreator idempotentOrderCreator;
+  @Autowired private IdempotencyKeySweeper idempotencyKeySweeper;
+  @Autowired private OrderService orderService;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because submissions of one key from many threads at once wait for the
+      first one and all of them get its order, which is the only order created
+      """)
+  void should_createOneOrder_whenManyThreadsSubmitTheSameKey() throws Exception {
+    OrderRequest request = orderRequest(saveProduct().getId());
+    String key = UUID.randomUUID().toString();
+    int threads = 16;
+    CountDownLatch start = new CountDownLatch(1);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<IdempotentOrder> orders = new ArrayList<>();
+    try {
+      List<Future<IdempotentOrder>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return idempotentOrderCreator.createOrder(key, request);
+                }));
+      }
+      start.countDown();
+      for (Future<IdempotentOrder> future : futures) {
+        orders.add(future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(1, orderRepository.count());
+    Long orderId = orderRepository.findAll().get(0).getId();
+    assertTrue(orders.stream().allMatch(order -> order.orderId().equals(orderId)));
+    assertEquals(1, orders.stream().filter(order -> !order.replayed()).count());
+  }
+
+  @Test
+  void should_returnOriginalOrder_toAnotherInstance_andRejectADifferentRequest() {
+    Long productId = saveProduct().getId();
+    String key = UUID.randomUUID().toString();
+    IdempotentOrder created = idempotentOrderCreator.createOrder(key, orderRequest(productId));
+    // a second instance has none of the keys in its cache
+    IdempotentOrderCreator otherInstance =
+        new IdempotentOrderCreator(
+            new IdempotencyKeyStore(jdbcTemplate, objectMapper, Duration.ofHours(1), 10),
+            orderService,
+            transactionTemplate);
+
+    assertEquals(
+        new IdempotentOrder(created.orderId(), true),
+        otherInstance.createOrder(key, orderRequest(productId)));
+    OrderRequest different =
+        new OrderRequest(
+            new DeliveryAddressRequest("Armeana 2", "Iasi", "Europe", "Ro", "XYZ"),
+            List.of(new OrderItemRequest(productId, BigDecimal.ONE)));
+    assertThrows(
+        IdempotencyKeyReusedException.class, () -> otherInstance.createOrder(key, different));
+    assertThrows(
+        IdempotencyKeyReusedException.class,
+        () -> idempotentOrderCreator.createOrder(key, different));
+    assertEquals(1, orderRepository.count());
+  }
+
+  @Test
+  void should_releaseKey_whenCreationRollsBack() {
+    String key = UUID.randomUUID().toString();
+
+    // the item references a missing product, the insert fails at commit
+    assertThrows(
+        DataIntegrityViolationException.class,
+        () -> idempotentOrderCreator.createOrder(key, orderRequest(-1L)));
+    IdempotentOrder order =
+        idempotentOrderCreator.createOrder(key, orderRequest(saveProduct().getId()));
+
+    assertFalse(order.replayed());
+    assertEquals(1, orderRepository.count());
+  }
+
+  @Test
+  void should_sweepExpiredKeys_inBatches() {
+    String prefix = UUID.randomUUID() + "-";
+    jdbcTemplate.update(
+        """
+        INSERT INTO idempotency_key (idempotency_key, request_hash, order_id, created_at)
+        SELECT ? || n, repeat('0', 64), n, now() - interval '2 days'
+        FROM generate_series(1, 250) n
+        """,
+        prefix);
+    jdbcTemplate.update(
+        "INSERT INTO idempotency_key (idempotency_key, request_hash, order_id) VALUES (?, ?, 1)",
+        prefix + "fresh",
+        "0".repeat(64));
+
+    long swept = idempotencyKeySweeper.sweepCreatedBefore(OffsetDateTime.now().minusDays(1));
+
+    assertTrue(swept >= 250);
+    assertEquals(
+        List.of(prefix + "fresh"),
+        jdbcTemplate.queryForList(
+            "SELECT idempotency_key FROM idempotency_key WHERE idempotency_key LIKE ? || '%'",
+            String.class, prefix));
+  }
+}
@@ -0,0 +1,120 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import project.orderservice.dto.ArchiveResult;
+import project.orderservice.model.DeliveryAddress;
+import project.orderservice.model.Order;
+import project.orderservice.model.OrderItem;
+import project.orderservice.model.Product;
+import project.orderservice.service.OrderArchiver;
+
+@DataJpaTest(
+    properties = {
+      "orderservice.archive.chunk-size=2",
+      "orderservice.archive.max-chunks-per-run=2",
+      "orderservice.archive.pause=0s"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@Import(OrderArchiver.class)
+public class OrderArchiverTest extends BaseRepositoryTest {
+
+  private static final OffsetDateTime CUTOFF = OffsetDateTime.now().minusYears(2);
+
+  @Autowired private OrderArchiver orderArchiver;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because the old orders are moved with their items in chunks of two,
+      a run stops after two chunks and the next run continues with the orders left over
+      """)
+  void should_archiveOldOrdersInChunks_andResumeInTheNextRun() {
+    Product product = saveProduct();
+    List<Long> oldOrderIds = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      oldOrderIds.add(saveOrder(product, CUTOFF.minusDays(i + 1)).getId());
+    }
+    Order recentOrder = saveOrder(product, CUTOFF.plusDays(1));
+
+    ArchiveResult first = orderArchiver.archiveOlderThan(CUTOFF);
+    assertEquals(2, first.chunks());
+    assertEquals(4, first.ordersArchived());
+    assertEquals(8, first.itemsArchived());
+
+    ArchiveResult second = orderArchiver.archiveOlderThan(CUTOFF);
+    assertEquals(1, second.ordersArchived());
+    assertEquals(2, second.itemsArchived());
+    assertEquals(0, orderArchiver.archiveOlderThan(CUTOFF).ordersArchived());
+
+    assertEquals(
+        List.of(recentOrder.getId().intValue()),
+        jdbcTemplate.queryForList("SELECT order_id FROM orders", Integer.class));
+    assertEquals(
+        2, count("SELECT count(*) FROM order_item WHERE order_id = ?", recentOrder.getId()));
+    assertEquals(
+        oldOrderIds.stream().map(Long::intValue).sorted().toList(),
+        jdbcTemplate.queryForList(
+            "SELECT order_id FROM orders_archive ORDER BY order_id", Integer.class));
+    assertEquals(10, count("SELECT count(*) FROM order_item_archive"));
+  }
+
+  @Test
+  void should_keepTotalsAndPriceSnapshot_whenArchiving() {
+    Product product = saveProduct();
+    Order order = saveOrder(product, CUTOFF.minusDays(1));
+
+    orderArchiver.archiveOlderThan(CUTOFF);
+    product.setPrice(new BigDecimal("1.00"));
+    productRepository.flush();
+
+    var archived =
+        jdbcTemplate.queryForMap(
+            "SELECT order_total, item_count FROM orders_archive WHERE order_id = ?", order.getId());
+    assertEquals(0, new BigDecimal("600.60").compareTo((BigDecimal) archived.get("order_total")));
+    assertEquals(2, archived.get("item_count"));
+    assertEquals(
+        List.of(new BigDecimal("300.30"), new BigDecimal("300.30")),
+        jdbcTemplate.queryForList(
+            "SELECT price FROM order_item_archive WHERE order_id = ?",
+            BigDecimal.class,
+            order.getId()));
+  }
+
+  private long count(String sql, Object... args) {
+    return jdbcTemplate.queryForObject(sql, Long.class, args);
+  }
+
+  private Order saveOrder(Product product, OffsetDateTime createdAt) {
+    DeliveryAddress deliveryAddress =
+        deliveryAddressRepository.save(
+            DeliveryAddress.builder().street("Armeana 1").orderList(new ArrayList<>()).build());
+    Order order =
+        Order.builder().deliveryAddress(deliveryAddress).orderItemList(new HashSet<>()).build();
+    for (int i = 0; i < 2; i++) {
+      order.addOrderItem(OrderItem.builder().product(product).amount(BigDecimal.ONE).build());
+    }
+    orderRepository.save(order);
+    orderItemRepository.saveAll(order.getOrderItemList());
+    orderRepository.flush();
+    jdbcTemplate.update(
+        "UPDATE orders SET created_at = ? WHERE order_id = ?", createdAt, order.getId());
+    return order;
+  }
+}
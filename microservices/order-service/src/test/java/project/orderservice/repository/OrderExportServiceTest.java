@@ -0,0 +1,110 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import project.orderservice.model.DeliveryAddress;
+import project.orderservice.model.Order;
+import project.orderservice.model.OrderItem;
+import project.orderservice.model.Product;
+import project.orderservice.service.exports.ExportFormat;
+import project.orderservice.service.exports.OrderExportService;
+
+@DataJpaTest(properties = "orderservice.export.fetch-size=2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({JdbcTemplateAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Import(OrderExportService.class)
+public class OrderExportServiceTest extends BaseRepositoryTest {
+
+  @Autowired private OrderExportService orderExportService;
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because every order item is exported as one CSV line, an order
+      without items as a line with empty item columns, and text with commas or quotes is quoted
+      """)
+  void should_exportOneLinePerItem_whenExportingCsv() {
+    Order order1 = saveOrder("Iasi", "Adidas, \"Samba\"", "Sock");
+    Order order2 = saveOrder("Cluj", "Puma");
+    // orders are validated to have items, an imported one may have none
+    orderItemRepository.deleteAllInBatch(order2.getOrderItemList());
+    orderItemRepository.flush();
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    assertEquals(2, orderExportService.export(ExportFormat.CSV, output));
+
+    List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+    assertEquals(4, lines.size());
+    assertEquals(
+        "order_id,order_total,street,city,state,country,postal_code,order_item_id,product_id,"
+            + "product_name,amount,price",
+        lines.get(0));
+    assertTrue(lines.get(1).startsWith(order1.getId() + ",2.00,Armeana 1,Iasi,,,,"));
+    assertTrue(lines.get(2).startsWith(order1.getId() + ",2.00,Armeana 1,Iasi,,,,"));
+    assertTrue(
+        lines.subList(1, 3).stream()
+            .anyMatch(line -> line.endsWith(",\"Adidas, \"\"Samba\"\"\",1.000,1.00")));
+    assertEquals(order2.getId() + ",0.00,Armeana 1,Cluj,,,,,,,,", lines.get(3));
+  }
+
+  @Test
+  void should_exportOneObjectPerOrder_withItemsNested_whenExportingNdjson() throws Exception {
+    Order order1 = saveOrder("Iasi", "Adidas", "Sock", "Puma");
+    Order order2 = saveOrder("Cluj", "Nike");
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    assertEquals(2, orderExportService.export(ExportFormat.NDJSON, output));
+
+    List<JsonNode> orders = new ArrayList<>();
+    for (String line : output.toString(StandardCharsets.UTF_8).lines().toList()) {
+      assertTrue(line.startsWith("{\"id\":"), line);
+      orders.add(objectMapper.readTree(line));
+    }
+    assertEquals(
+        List.of(order1.getId(), order2.getId()),
+        orders.stream().map(order -> order.get("id").asLong()).toList());
+    assertEquals(3, orders.get(0).get("items").size());
+    assertEquals("Cluj", orders.get(1).get("deliveryAddress").get("city").asText());
+    assertEquals("Nike", orders.get(1).get("items").get(0).get("productName").asText());
+    assertEquals(0, new BigDecimal("3.00").compareTo(orders.get(0).get("total").decimalValue()));
+  }
+
+  private Order saveOrder(String city, String... productNames) {
+    DeliveryAddress deliveryAddress =
+        deliveryAddressRepository.save(
+            DeliveryAddress.builder()
+                .street("Armeana 1")
+                .city(city)
+                .orderList(new ArrayList<>())
+                .build());
+    Order order =
+        Order.builder().deliveryAddress(deliveryAddress).orderItemList(new HashSet<>()).build();
+    for (String productName : productNames) {
+      Product product =
+          productRepository.save(Product.builder().name(productName).price(BigDecimal.ONE).build());
+      order.addOrderItem(OrderItem.builder().product(product).amount(BigDecimal.ONE).build());
+    }
+    orderRepository.save(order);
+    orderItemRepository.saveAll(order.getOrderItemList());
+    orderRepository.flush();
+    return order;
+  }
+}
@@ -0,0 +1,136 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import project.orderservice.model.DeliveryAddress;
+import project.orderservice.model.Order;
+import project.orderservice.model.OrderItem;
+import project.orderservice.model.Product;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class OrderFetchPlanTest extends BaseRepositoryTest {
+
+  private static final int ORDERS = 3;
+  private static final int ITEMS_PER_ORDER = 2;
+
+  @Autowired private EntityManager entityManager;
+
+  private Statistics statistics;
+  private Long firstOrderId;
+
+  @BeforeEach
+  void createOrders() {
+    for (int i = 0; i < ORDERS; i++) {
+      DeliveryAddress deliveryAddress =
+          DeliveryAddress.builder().street("Armeana " + i).orderList(new ArrayList<>()).build();
+      Order order =
+          Order.builder().deliveryAddress(deliveryAddress).orderItemList(new HashSet<>()).build();
+      for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+        Product product =
+            productRepository.save(
+                Product.builder()
+                    .name("Adidas " + i + j)
+                    .price(BigDecimal.valueOf(300.3D))
+                    .build());
+        order.addOrderItem(
+            OrderItem.builder().product(product).amount(BigDecimal.valueOf(j + 1)).build());
+      }
+      orderRepository.save(order);
+      orderItemRepository.saveAll(order.getOrderItemList());
+      if (firstOrderId == null) {
+        firstOrderId = order.getId();
+      }
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    statistics =
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void should_loadSummaryInOneStatement() {
+    Order order = orderRepository.findById(firstOrderId, OrderFetchPlan.SUMMARY).orElseThrow();
+    render(order, OrderFetchPlan.SUMMARY);
+
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void should_loadOrderWithItemsInOneStatement() {
+    Order order = orderRepository.findById(firstOrderId, OrderFetchPlan.WITH_ITEMS).orElseThrow();
+    render(order, OrderFetchPlan.WITH_ITEMS);
+
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void should_loadFullOrderInOneStatement() {
+    Order order = orderRepository.findById(firstOrderId, OrderFetchPlan.FULL).orElseThrow();
+    render(order, OrderFetchPlan.FULL);
+
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  @DisplayName(
+      """
+      A full page costs the id page, its count query and one fetch of the graph, whatever the page size
+      """)
+  void should_loadFullPageInThreeStatements() {
+    Page<Order> page =
+        orderRepository.findAll(OrderFetchPlan.FULL, PageRequest.of(0, 2, Sort.by("id")));
+    page.forEach(order -> render(order, OrderFetchPlan.FULL));
+
+    assertEquals(ORDERS, page.getTotalElements());
+    assertEquals(2, page.getNumberOfElements());
+    assertTrue(page.getContent().get(0).getId() < page.getContent().get(1).getId());
+    assertEquals(ITEMS_PER_ORDER, page.getContent().get(0).getOrderItemList().size());
+    assertEquals(3, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  @DisplayName(
+      """
+      Without a fetch plan every lazy association is loaded separately: 1 + N addresses + N item
+      collections + N*M products
+      """)
+  void should_issueNPlusOneStatements_whenNoFetchPlanIsUsed() {
+    List<Order> orders = orderRepository.findAll();
+    orders.forEach(order -> render(order, OrderFetchPlan.FULL));
+
+    assertEquals(
+        1 + ORDERS + ORDERS + ORDERS * ITEMS_PER_ORDER, statistics.getPrepareStatementCount());
+  }
+
+  private static void render(Order order, OrderFetchPlan plan) {
+    assertNotNull(order.getDeliveryAddress().getStreet());
+    if (plan == OrderFetchPlan.SUMMARY) {
+      return;
+    }
+    for (OrderItem item : order.getOrderItemList()) {
+      assertNotNull(item.getAmount());
+      if (plan == OrderFetchPlan.FULL) {
+        assertNotNull(item.getProduct().getName());
+      }
+    }
+  }
+}
@@ -41,7 +41,8 @@ public class OrderItemRepositoryTest extends BaseRepositoryTest {
     OrderItem orderItem = OrderItem.builder().amount(BigDecimal.valueOf(3)).build();
 
     ConstraintViolationException exception =
-        assertThrows(ConstraintViolationException.class, () -> orderItemRepository.save(orderItem));
+        assertThrows(
+            ConstraintViolationException.class, () -> orderItemRepository.saveAndFlush(orderItem));
 
     String expectedMessage = "interpolatedMessage='must not be null', propertyPath=product";
     String actualMessage = exception.getMessage();
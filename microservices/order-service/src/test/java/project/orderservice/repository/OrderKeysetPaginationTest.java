@@ -0,0 +1,109 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import project.orderservice.dto.CursorPage;
+import project.orderservice.dto.OrderSummary;
+import project.orderservice.model.DeliveryAddress;
+import project.orderservice.model.Order;
+import project.orderservice.model.OrderItem;
+import project.orderservice.model.Product;
+import project.orderservice.service.OptimisticRetryExecutor;
+import project.orderservice.service.OrderCursor;
+import project.orderservice.service.OrderService;
+import project.orderservice.service.address.DeliveryAddressStore;
+import project.orderservice.service.outbox.OutboxWriter;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({
+  OrderService.class,
+  OptimisticRetryExecutor.class,
+  OutboxWriter.class,
+  DeliveryAddressStore.class
+})
+public class OrderKeysetPaginationTest extends BaseRepositoryTest {
+
+  @Autowired private OrderService orderService;
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because scrolling with the returned cursors visits every order once,
+      newest first, and the last page has no cursor
+      """)
+  void should_scrollWholeHistory_whenFollowingCursors() {
+    DeliveryAddress deliveryAddress = saveDeliveryAddress("Armeana 1");
+    List<Long> orderIds = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      orderIds.add(saveOrder(deliveryAddress).getId());
+    }
+
+    List<Long> visited = new ArrayList<>();
+    OrderCursor cursor = OrderCursor.first(null);
+    CursorPage<OrderSummary> page;
+    do {
+      page = orderService.findOrderHistory(cursor, 2);
+      page.content().forEach(summary -> visited.add(summary.id()));
+      cursor = page.nextCursor() == null ? null : OrderCursor.decode(page.nextCursor()).get();
+    } while (cursor != null);
+
+    assertEquals(orderIds.reversed(), visited);
+  }
+
+  @Test
+  void should_returnOnlyOrdersOfDeliveryAddress_whenFilteringByDeliveryAddress() {
+    DeliveryAddress deliveryAddress1 = saveDeliveryAddress("Armeana 1");
+    DeliveryAddress deliveryAddress2 = saveDeliveryAddress("Armeana 2");
+    Order order1 = saveOrder(deliveryAddress1);
+    saveOrder(deliveryAddress2);
+    Order order3 = saveOrder(deliveryAddress1);
+
+    CursorPage<OrderSummary> page =
+        orderService.findOrderHistory(OrderCursor.first(deliveryAddress1.getId()), 10);
+
+    assertEquals(
+        List.of(order3.getId(), order1.getId()),
+        page.content().stream().map(OrderSummary::id).toList());
+    assertEquals(1L, page.content().get(0).itemCount());
+    assertNull(page.nextCursor());
+  }
+
+  @Test
+  void should_decodeEncodedCursor_andRejectGarbage() {
+    OrderCursor cursor = new OrderCursor(7L, 42L);
+
+    assertEquals(cursor, OrderCursor.decode(cursor.encode()).orElseThrow());
+    assertTrue(OrderCursor.decode("not a cursor").isEmpty());
+  }
+
+  private DeliveryAddress saveDeliveryAddress(String street) {
+    return deliveryAddressRepository.save(
+        DeliveryAddress.builder().street(street).orderList(new ArrayList<>()).build());
+  }
+
+  private Order saveOrder(DeliveryAddress deliveryAddress) {
+    Product product =
+        productRepository.save(
+            Product.builder().name("Adidas13").price(BigDecimal.valueOf(300.3D)).build());
+    Order order =
+        Order.builder().deliveryAddress(deliveryAddress).orderItemList(new HashSet<>()).build();
+    order.addOrderItem(OrderItem.builder().product(product).amount(BigDecimal.ONE).build());
+    orderRepository.save(order);
+    orderItemRepository.saveAll(order.getOrderItemList());
+    return order;
+  }
+}
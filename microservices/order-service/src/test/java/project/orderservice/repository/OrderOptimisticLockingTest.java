@@ -0,0 +1,178 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import project.orderservice.dto.OrderItemRequest;
+import project.orderservice.dto.OrderResponse;
+import project.orderservice.model.Order;
+import project.orderservice.model.Product;
+import project.orderservice.service.OptimisticRetryExecutor;
+import project.orderservice.service.OrderService;
+import project.orderservice.service.address.DeliveryAddressStore;
+import project.orderservice.service.outbox.OutboxWriter;
+
+/** Runs without a test transaction, every update commits like a request of its own. */
+@DataJpaTest(
+    properties = {
+      "orderservice.retry.max-attempts=50",
+      "orderservice.retry.initial-backoff=1ms",
+      "orderservice.retry.max-backoff=20ms",
+      // every stale version fails a JDBC batch, which Hibernate logs as an error
+      "logging.level.org.hibernate.orm.jdbc.batch=off"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({JdbcTemplateAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Import({
+  OrderService.class,
+  OptimisticRetryExecutor.class,
+  OutboxWriter.class,
+  DeliveryAddressStore.class
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OrderOptimisticLockingTest extends BaseRepositoryTest {
+
+  @Autowired private OrderService orderService;
+  @Autowired private OptimisticRetryExecutor optimisticRetryExecutor;
+  @Autowired private EntityManager entityManager;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because an update whose order was changed by another transaction
+      fails at commit and its second attempt applies the change once on the new state
+      """)
+  void should_runAgain_whenOrderChangedConcurrently() {
+    Product product = saveProduct();
+    Long orderId = createOrder(product);
+    AtomicInteger attempts = new AtomicInteger();
+
+    optimisticRetryExecutor.execute(
+        status -> {
+          Order order =
+              entityManager.find(Order.class, orderId, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+          order
+              .getOrderItemList()
+              .forEach(item -> item.setAmount(item.getAmount().add(BigDecimal.ONE)));
+          if (attempts.incrementAndGet() == 1) {
+            // another transaction commits a change of the order in between
+            CompletableFuture.runAsync(
+                    () ->
+                        jdbcTemplate.update(
+                            "UPDATE orders SET version = version + 1 WHERE order_id = ?", orderId))
+                .join();
+          }
+          return null;
+        });
+
+    assertEquals(2, attempts.get());
+    assertEquals(0, new BigDecimal("2").compareTo(amount(orderId)));
+    assertEquals(2L, version(orderId));
+  }
+
+  @Test
+  void should_keepEveryAddition_whenManyThreadsAddToTheSameOrder() throws Exception {
+    Product product = saveProduct();
+    Product other = saveProduct();
+    Long orderId = createOrder(product);
+    int threads = 8;
+    int additions = 10;
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < additions; i++) {
+                    orderService.addOrderItem(
+                        orderId, new OrderItemRequest(product.getId(), BigDecimal.ONE));
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    OrderResponse response =
+        orderService
+            .addOrderItem(orderId, new OrderItemRequest(other.getId(), BigDecimal.TEN))
+            .orElseThrow();
+
+    assertEquals(2, response.items().size());
+    assertEquals(
+        0, BigDecimal.valueOf(1 + threads * additions).compareTo(amount(orderId, product)));
+    assertEquals(1L + threads * additions, version(orderId));
+  }
+
+  @Test
+  void should_rethrowConflict_afterLastAttempt() {
+    AtomicInteger attempts = new AtomicInteger();
+
+    assertThrows(
+        OptimisticLockingFailureException.class,
+        () ->
+            optimisticRetryExecutor.execute(
+                status -> {
+                  attempts.incrementAndGet();
+                  throw new OptimisticLockingFailureException("always stale");
+                }));
+    assertEquals(50, attempts.get());
+  }
+
+  @Test
+  void should_returnEmpty_whenOrderHasNoSuchItem() {
+    Long orderId = createOrder(saveProduct());
+
+    assertTrue(orderService.changeOrderItemAmount(orderId, -1L, BigDecimal.ONE).isEmpty());
+    assertTrue(orderService.changeOrderItemAmount(-1L, -1L, BigDecimal.ONE).isEmpty());
+  }
+
+  private BigDecimal amount(Long orderId) {
+    return jdbcTemplate.queryForObject(
+        "SELECT sum(amount) FROM order_item WHERE order_id = ?", BigDecimal.class, orderId);
+  }
+
+  private BigDecimal amount(Long orderId, Product product) {
+    return jdbcTemplate.queryForObject(
+        "SELECT amount FROM order_item WHERE order_id = ? AND product_id = ?",
+        BigDecimal.class,
+        orderId,
+        product.getId());
+  }
+
+  private long version(Long orderId) {
+    return jdbcTemplate.queryForObject(
+        "SELECT version FROM orders WHERE order_id = ?", Long.class, orderId);
+  }
+
+  private Long createOrder(Product product) {
+    return createOrder(orderRequest(product.getId())).getId();
+  }
+}
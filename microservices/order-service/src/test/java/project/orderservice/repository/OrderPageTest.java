@@ -0,0 +1,62 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import project.orderservice.model.Order;
+
+/** The default methods of the repository run against stubbed queries, without a database. */
+public class OrderPageTest {
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because an order that is gone when the page is fetched, e.g. archived
+      after its id was selected, is left out of the page instead of becoming a null element
+      """)
+  void should_leaveOutOrders_thatDisappearBetweenTheIdQueryAndTheFetch() {
+    PageRequest pageable = PageRequest.of(1, 3);
+    OrderRepository orderRepository = stub(new PageImpl<>(List.of(4L, 5L, 6L), pageable, 10), 5L);
+
+    Page<Order> page = orderRepository.findAll(OrderFetchPlan.SUMMARY, pageable);
+
+    assertEquals(List.of(4L, 6L), page.getContent().stream().map(Order::getId).toList());
+    assertEquals(pageable, page.getPageable());
+    assertEquals(9, page.getTotalElements());
+  }
+
+  /** Returns {@code ids} as the id page and fetches every order of it except {@code missingId}. */
+  private static OrderRepository stub(Page<Long> ids, Long missingId) {
+    InvocationHandler handler =
+        (proxy, method, args) -> {
+          if (method.isDefault()) {
+            return InvocationHandler.invokeDefault(proxy, method, args);
+          }
+          return switch (method.getName()) {
+            case "findIdPage" -> ids;
+            case "findSummaryByIdIn" ->
+                ((Collection<?>) args[0])
+                    .stream()
+                        .map(Long.class::cast)
+                        .filter(id -> !id.equals(missingId))
+                        .map(id -> Order.builder().id(id).build())
+                        .toList()
+                        .reversed();
+            default -> throw new UnsupportedOperationException(method.getName());
+          };
+        };
+    return (OrderRepository)
+        Proxy.newProxyInstance(
+            OrderRepository.class.getClassLoader(),
+            new Class<?>[] {OrderRepository.class},
+            handler);
+  }
+}
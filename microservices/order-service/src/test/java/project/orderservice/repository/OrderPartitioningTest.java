@@ -0,0 +1,187 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import project.orderservice.dto.OrderSummary;
+import project.orderservice.model.DeliveryAddress;
+import project.orderservice.model.Order;
+import project.orderservice.model.OrderItem;
+import project.orderservice.model.Product;
+import project.orderservice.service.OrderPartitionMaintainer;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@Import(OrderPartitionMaintainer.class)
+public class OrderPartitioningTest extends BaseRepositoryTest {
+
+  private static final OffsetDateTime JANUARY_2020 =
+      OffsetDateTime.of(2020, 1, 15, 12, 0, 0, 0, ZoneOffset.UTC);
+
+  @Autowired private OrderPartitionMaintainer orderPartitionMaintainer;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because an order and its items are stored in the partitions of the
+      order's month and a query bounded by that month scans only those partitions
+      """)
+  void should_storeOrdersInTheirMonth_andPruneOtherPartitions() {
+    orderPartitionMaintainer.createPartitions();
+    Product product = saveProduct();
+    Order order = saveOrder(product, null);
+    saveOrder(product, JANUARY_2020);
+    String suffix = currentMonth().toString().replace('-', '_');
+
+    assertEquals(
+        List.of(order.getId().intValue()),
+        jdbcTemplate.queryForList("SELECT order_id FROM orders_p" + suffix, Integer.class));
+    assertEquals(2, count("SELECT count(*) FROM order_item_p" + suffix));
+
+    OffsetDateTime from = currentMonth().atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+    List<OrderSummary> summaries =
+        orderRepository.findSummariesCreatedBetween(from, from.plusMonths(1), Limit.of(10));
+    assertEquals(List.of(order.getId()), summaries.stream().map(OrderSummary::id).toList());
+    assertEquals(0, new BigDecimal("600.60").compareTo(summaries.get(0).total()));
+
+    String plan =
+        String.join(
+            "\n",
+            jdbcTemplate.queryForList(
+                "EXPLAIN SELECT order_id FROM orders WHERE created_at >= '%s' AND created_at < '%s'"
+                    .formatted(from, from.plusMonths(1)),
+                String.class));
+    assertTrue(plan.contains("orders_p" + suffix), plan);
+    assertFalse(plan.contains("orders_default"), plan);
+  }
+
+  @Test
+  void should_detachExpiredMonths_andKeepTheRest() {
+    jdbcTemplate.queryForObject(
+        "SELECT create_order_partitions(?, 1)", Integer.class, JANUARY_2020);
+    Product product = saveProduct();
+    Order oldOrder = saveOrder(product, JANUARY_2020);
+    Order recentOrder = saveOrder(product, null);
+
+    assertEquals(
+        List.of("order_item_p2020_01", "orders_p2020_01"),
+        orderPartitionMaintainer.detachPartitionsBefore(JANUARY_2020.plusMonths(1)));
+
+    assertEquals(
+        List.of(recentOrder.getId().intValue()),
+        jdbcTemplate.queryForList("SELECT order_id FROM orders", Integer.class));
+    assertEquals(
+        List.of(oldOrder.getId().intValue()),
+        jdbcTemplate.queryForList("SELECT order_id FROM orders_p2020_01", Integer.class));
+    assertEquals(2, count("SELECT count(*) FROM order_item_p2020_01"));
+    assertEquals(
+        List.of(), orderPartitionMaintainer.detachPartitionsBefore(JANUARY_2020.plusMonths(1)));
+  }
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because the partitions of a month that already has rows in the default
+      partitions take these rows over, without changing the order's totals
+      """)
+  void should_moveRowsOutOfTheDefaultPartition_whenTheirMonthIsCreatedLate() {
+    OffsetDateTime march2021 = OffsetDateTime.of(2021, 3, 31, 23, 0, 0, 0, ZoneOffset.UTC);
+    Order order = saveOrder(saveProduct(), march2021);
+    long deltas = count("SELECT count(*) FROM sales_rollup_delta");
+
+    assertEquals(
+        2,
+        jdbcTemplate.queryForObject(
+            "SELECT create_order_partitions(?, 1)", Integer.class, march2021));
+
+    assertEquals(
+        List.of(order.getId().intValue()),
+        jdbcTemplate.queryForList("SELECT order_id FROM orders_p2021_03", Integer.class));
+    assertEquals(2, count("SELECT count(*) FROM order_item_p2021_03"));
+    assertEquals(0, count("SELECT count(*) FROM orders_default"));
+    assertEquals(0, count("SELECT count(*) FROM order_item_default"));
+    assertEquals(
+        0,
+        new BigDecimal("600.60")
+            .compareTo(
+                jdbcTemplate.queryForObject(
+                    "SELECT order_total FROM orders WHERE order_id = ?",
+                    BigDecimal.class,
+                    order.getId())));
+    assertEquals(deltas, count("SELECT count(*) FROM sales_rollup_delta"));
+    // the FK of the items is checked on the attached partition
+    assertEquals(
+        1,
+        count(
+            "SELECT count(*) FROM pg_constraint WHERE conrelid = 'order_item_p2021_03'::regclass"
+                + " AND contype = 'f' AND conname = 'fk_order_id'"));
+  }
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because an item of an order whose creation time is not known is
+      refused, instead of being stored with a time that does not match the order's
+      """)
+  void should_refuseItem_whenTheCreationTimeOfItsOrderIsUnknown() {
+    Product product = saveProduct();
+    Long orderId = saveOrder(product, null).getId();
+    OrderItem item =
+        OrderItem.builder()
+            .order(Order.builder().id(orderId).build())
+            .product(product)
+            .amount(BigDecimal.ONE)
+            .build();
+
+    InvalidDataAccessApiUsageException exception =
+        assertThrows(
+            InvalidDataAccessApiUsageException.class, () -> orderItemRepository.save(item));
+    assertTrue(exception.getMessage().contains("creation time is unknown"));
+  }
+
+  private static YearMonth currentMonth() {
+    return YearMonth.now(ZoneOffset.UTC);
+  }
+
+  private long count(String sql, Object... args) {
+    return jdbcTemplate.queryForObject(sql, Long.class, args);
+  }
+
+  private Order saveOrder(Product product, OffsetDateTime createdAt) {
+    DeliveryAddress deliveryAddress =
+        deliveryAddressRepository.save(
+            DeliveryAddress.builder().street("Armeana 1").orderList(new ArrayList<>()).build());
+    Order order =
+        Order.builder()
+            .deliveryAddress(deliveryAddress)
+            .createdAt(createdAt)
+            .orderItemList(new HashSet<>())
+            .build();
+    for (int i = 0; i < 2; i++) {
+      order.addOrderItem(OrderItem.builder().product(product).amount(BigDecimal.ONE).build());
+    }
+    orderRepository.save(order);
+    orderItemRepository.saveAll(order.getOrderItemList());
+    orderRepository.flush();
+    return order;
+  }
+}
@@ -46,9 +46,10 @@ The test is unsuccessful because Order entity has not all mandatory fields fille
 """)
   void should_notSaveOrder_becauseMandatoryFieldsAreNotFilledIn() {
     Order order = Order.builder().build();
-    // Use assertThrows to check for ConstraintViolationException
+    // Use assertThrows to check for ConstraintViolationException. Ids come from a sequence, so the
+    // insert (and the bean validation that runs with it) only happens on flush
     ConstraintViolationException exception =
-        assertThrows(ConstraintViolationException.class, () -> orderRepository.save(order));
+        assertThrows(ConstraintViolationException.class, () -> orderRepository.saveAndFlush(order));
 
     // Assert that the exception message contains the expected message
     String expectedMessage = "interpolatedMessage='must not be null', propertyPath=deliveryAddress";
@@ -0,0 +1,191 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.orderservice.dto.OrderSummary;
+import project.orderservice.model.DeliveryAddress;
+import project.orderservice.model.Order;
+import project.orderservice.model.OrderItem;
+import project.orderservice.model.Product;
+import project.orderservice.service.OrderTotalsReconciler;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@Import(OrderTotalsReconciler.class)
+public class OrderTotalsTest extends BaseRepositoryTest {
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private OrderTotalsReconciler orderTotalsReconciler;
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because the triggers keep the total and the item count of an order
+      in step with inserted, changed and removed items
+      """)
+  void should_maintainTotals_whenItemsChange() {
+    Product shoe = saveProduct("Adidas13", "300.30");
+    Product sock = saveProduct("Sock", "5.00");
+    Order order = saveOrder(List.of(item(shoe, "2"), item(sock, "3")));
+    assertTotals(order, "615.60", 2);
+
+    OrderItem socks =
+        order.getOrderItemList().stream().filter(i -> i.getProduct() == sock).findFirst().get();
+    socks.setAmount(BigDecimal.ONE);
+    orderItemRepository.flush();
+    assertTotals(order, "605.60", 2);
+
+    order.removeOrderItem(socks);
+    orderItemRepository.delete(socks);
+    orderItemRepository.flush();
+    assertTotals(order, "600.60", 1);
+  }
+
+  @Test
+  void should_repriceTotals_whenProductPriceChanges() {
+    Product shoe = saveProduct("Adidas13", "300.30");
+    Order order1 = saveOrder(List.of(item(shoe, "2")));
+    Order order2 = saveOrder(List.of(item(shoe, "1")));
+
+    shoe.setPrice(new BigDecimal("100.00"));
+    productRepository.flush();
+
+    assertTotals(order1, "200.00", 1);
+    assertTotals(order2, "100.00", 1);
+  }
+
+  @Test
+  void should_returnLargestOrdersFirst_whenFilteringByTotal() {
+    Product shoe = saveProduct("Adidas13", "10.00");
+    Order small = saveOrder(List.of(item(shoe, "1")));
+    Order large = saveOrder(List.of(item(shoe, "5")));
+    saveOrder(List.of(item(shoe, "0.5")));
+
+    List<OrderSummary> summaries =
+        orderRepository.findSummariesByOrderTotalGreaterThan(new BigDecimal("9"), Limit.of(10));
+
+    assertEquals(
+        List.of(large.getId(), small.getId()), summaries.stream().map(OrderSummary::id).toList());
+    assertEquals(0, new BigDecimal("50.00").compareTo(summaries.get(0).total()));
+  }
+
+  @Test
+  void should_repairDriftedTotals_whenReconciling() {
+    Product shoe = saveProduct("Adidas13", "300.30");
+    Order order = saveOrder(List.of(item(shoe, "2")));
+    saveOrder(List.of(item(shoe, "1")));
+    jdbcTemplate.update(
+        "UPDATE orders SET order_total = 0, item_count = 0 WHERE order_id = ?", order.getId());
+
+    assertEquals(1, orderTotalsReconciler.reconcile());
+    assertTotals(order, "600.60", 1);
+    assertEquals(0, orderTotalsReconciler.reconcile());
+  }
+
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  @DisplayName(
+      """
+      The test is successful because a repair of a drifted order that runs while an item insert is
+      not committed yet waits for it, and then repairs the total with the new item included
+      """)
+  void should_keepTheTotalOfAConcurrentInsert_whenReconciling() throws Exception {
+    Product shoe = saveProduct("Adidas13", "300.30");
+    Order order = transactionTemplate.execute(status -> saveOrder(List.of(item(shoe, "2"))));
+    jdbcTemplate.update(
+        "UPDATE orders SET order_total = 0, item_count = 0 WHERE order_id = ?", order.getId());
+    CountDownLatch inserted = new CountDownLatch(1);
+    CountDownLatch commit = new CountDownLatch(1);
+    CompletableFuture<Void> insert =
+        CompletableFuture.runAsync(
+            () ->
+                transactionTemplate.executeWithoutResult(
+                    status -> {
+                      jdbcTemplate.update(
+                          "INSERT INTO order_item (order_id, order_created_at, product_id, amount)"
+                              + " SELECT order_id, created_at, ?, 1 FROM orders WHERE order_id = ?",
+                          shoe.getId(),
+                          order.getId());
+                      inserted.countDown();
+                      await(commit);
+                    }));
+    assertTrue(inserted.await(10, TimeUnit.SECONDS));
+
+    CompletableFuture<Long> repair =
+        CompletableFuture.supplyAsync(orderTotalsReconciler::reconcile);
+    awaitLockWait();
+    commit.countDown();
+    insert.get(10, TimeUnit.SECONDS);
+
+    assertEquals(1, repair.get(10, TimeUnit.SECONDS));
+    assertTotals(order, "900.90", 2);
+  }
+
+  private void awaitLockWait() throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM pg_stat_activity"
+                + " WHERE datname = current_database() AND wait_event_type = 'Lock'",
+            Long.class)
+        == 0) {
+      assertTrue(System.nanoTime() < deadline, "the repair never waited for the insert");
+      Thread.sleep(10);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void assertTotals(Order order, String total, int itemCount) {
+    var totals =
+        jdbcTemplate.queryForMap(
+            "SELECT order_total, item_count FROM orders WHERE order_id = ?", order.getId());
+    assertEquals(0, new BigDecimal(total).compareTo((BigDecimal) totals.get("order_total")));
+    assertEquals(itemCount, totals.get("item_count"));
+  }
+
+  private OrderItem item(Product product, String amount) {
+    return OrderItem.builder().product(product).amount(new BigDecimal(amount)).build();
+  }
+
+  private Order saveOrder(List<OrderItem> items) {
+    DeliveryAddress deliveryAddress =
+        deliveryAddressRepository.save(
+            DeliveryAddress.builder().street("Armeana 1").orderList(new ArrayList<>()).build());
+    Order order =
+        Order.builder().deliveryAddress(deliveryAddress).orderItemList(new HashSet<>()).build();
+    items.forEach(order::addOrderItem);
+    orderRepository.save(order);
+    orderItemRepository.saveAll(order.getOrderItemList());
+    orderRepository.flush();
+    return order;
+  }
+}
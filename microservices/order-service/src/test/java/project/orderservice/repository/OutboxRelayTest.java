@@ -0,0 +1,196 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.orderservice.model.Order;
+import project.orderservice.model.Product;
+import project.orderservice.service.OptimisticRetryExecutor;
+import project.orderservice.service.OrderService;
+import project.orderservice.service.address.DeliveryAddressStore;
+import project.orderservice.service.outbox.InMemoryOutboxTransport;
+import project.orderservice.service.outbox.OutboxMessage;
+import project.orderservice.service.outbox.OutboxRelay;
+import project.orderservice.service.outbox.OutboxWriter;
+
+/** Runs without a test transaction, the relay only sees committed events. */
+@DataJpaTest(properties = {"orderservice.outbox.workers=0", "orderservice.outbox.batch-size=50"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({JdbcTemplateAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Import({
+  OrderService.class,
+  OptimisticRetryExecutor.class,
+  OutboxWriter.class,
+  DeliveryAddressStore.class,
+  OutboxRelay.class,
+  InMemoryOutboxTransport.class
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OutboxRelayTest extends BaseRepositoryTest {
+
+  private static final int EVENTS = 1_000;
+  private static final int WORKERS = 4;
+
+  @Autowired private OrderService orderService;
+  @Autowired private OutboxRelay outboxRelay;
+  @Autowired private InMemoryOutboxTransport transport;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private BeanFactory beanFactory;
+
+  @BeforeEach
+  void clearOutbox() {
+    jdbcTemplate.update("DELETE FROM outbox_event");
+    transport.drain();
+  }
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because the OrderCreated event is committed with the order, is not
+      left behind by a rolled back order, and is removed from the outbox once it is published
+      """)
+  void should_writeEventWithTheOrder_andRelayIt() throws Exception {
+    Product product =
+        productRepository.save(
+            Product.builder().name("Adidas13").price(BigDecimal.valueOf(300.3D)).build());
+    Order order = orderService.createOrder(orderRequest(product.getId()));
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          orderService.createOrder(orderRequest(product.getId()));
+          status.setRollbackOnly();
+        });
+    assertEquals(1, countOutbox());
+
+    assertEquals(1, outboxRelay.relayBatch());
+
+    List<OutboxMessage> published = transport.drain();
+    assertEquals(1, published.size());
+    assertEquals("OrderCreated", published.get(0).eventType());
+    assertEquals(order.getId(), published.get(0).aggregateId());
+    JsonNode payload = objectMapper.readTree(published.get(0).payload());
+    assertEquals(order.getId(), payload.get("orderId").asLong());
+    assertEquals("Iasi", payload.get("deliveryAddress").get("city").asText());
+    assertEquals(product.getId(), payload.get("items").get(0).get("productId").asLong());
+    assertEquals(0, countOutbox());
+    assertEquals(0, outboxRelay.relayBatch());
+  }
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because workers relaying at the same time skip the batches locked by
+      the others, so every event is published exactly once
+      """)
+  void should_publishEveryEventOnce_whenWorkersRelayConcurrently() throws Exception {
+    insertEvents(EVENTS);
+
+    try (ExecutorService executor = Executors.newFixedThreadPool(WORKERS)) {
+      List<Future<?>> workers = new ArrayList<>();
+      for (int i = 0; i < WORKERS; i++) {
+        workers.add(
+            executor.submit(
+                () -> {
+                  while (outboxRelay.relayBatch() > 0) {}
+                }));
+      }
+      for (Future<?> worker : workers) {
+        worker.get();
+      }
+    }
+
+    List<Long> ids = transport.drain().stream().map(OutboxMessage::id).toList();
+    assertEquals(EVENTS, ids.size());
+    assertEquals(EVENTS, ids.stream().distinct().count());
+    assertEquals(0, countOutbox());
+  }
+
+  @Test
+  void should_keepBatchInOutbox_whenPublishingFails() {
+    insertEvents(3);
+    OutboxRelay failingRelay =
+        new OutboxRelay(
+            jdbcTemplate,
+            transactionTemplate,
+            messages -> {
+              throw new IllegalStateException("Fulfillment Service unavailable");
+            },
+            beanFactory.getBeanProvider(MeterRegistry.class),
+            50,
+            0,
+            Duration.ofSeconds(1),
+            Duration.ofSeconds(30));
+
+    assertThrows(IllegalStateException.class, failingRelay::relayBatch);
+
+    assertEquals(3, countOutbox());
+    assertEquals(3, outboxRelay.relayBatch());
+  }
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because a batch whose publishing outlasts the transaction timeout is
+      rolled back by Postgres, and its events are relayed by the next attempt
+      """)
+  void should_releaseBatch_whenPublishingOutlastsTheTransactionTimeout() {
+    insertEvents(3);
+    OutboxRelay hangingRelay =
+        new OutboxRelay(
+            jdbcTemplate,
+            transactionTemplate,
+            messages -> LockSupport.parkNanos(Duration.ofSeconds(1).toNanos()),
+            beanFactory.getBeanProvider(MeterRegistry.class),
+            50,
+            0,
+            Duration.ofSeconds(1),
+            Duration.ofMillis(200));
+
+    assertThrows(DataAccessException.class, hangingRelay::relayBatch);
+
+    assertEquals(3, countOutbox());
+    assertEquals(3, outboxRelay.relayBatch());
+    assertEquals(3, transport.drain().size());
+  }
+
+  private long countOutbox() {
+    return jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_event", Long.class);
+  }
+
+  private void insertEvents(int events) {
+    jdbcTemplate.update(
+        """
+        INSERT INTO outbox_event (aggregate_type, aggregate_id, event_type, payload)
+        SELECT 'Order', g, 'OrderCreated', jsonb_build_object('orderId', g)
+        FROM generate_series(1, ?) g
+        """,
+        events);
+  }
+}
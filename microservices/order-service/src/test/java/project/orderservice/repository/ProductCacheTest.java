@@ -0,0 +1,155 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.OptionalLong;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.orderservice.model.DeliveryAddress;
+import project.orderservice.model.Order;
+import project.orderservice.model.OrderItem;
+import project.orderservice.model.Product;
+
+/** Runs without a test transaction, every load below is a new session, like separate requests. */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductCacheTest extends BaseRepositoryTest {
+
+  private static final int ITEMS = 3;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  private Statistics statistics;
+  private Long orderId;
+
+  @BeforeEach
+  void createOrder() {
+    orderId =
+        transactionTemplate.execute(
+            status -> {
+              DeliveryAddress deliveryAddress =
+                  DeliveryAddress.builder()
+                      .street("Armeana 1")
+                      .orderList(new ArrayList<>())
+                      .build();
+              Order order =
+                  Order.builder()
+                      .deliveryAddress(deliveryAddress)
+                      .orderItemList(new HashSet<>())
+                      .build();
+              for (int i = 0; i < ITEMS; i++) {
+                Product product =
+                    productRepository.save(
+                        Product.builder()
+                            .name("Adidas " + i)
+                            .price(BigDecimal.valueOf(300.3D))
+                            .build());
+                order.addOrderItem(
+                    OrderItem.builder().product(product).amount(BigDecimal.ONE).build());
+              }
+              orderRepository.save(order);
+              orderItemRepository.saveAll(order.getOrderItemList());
+              return order.getId();
+            });
+    entityManagerFactory.getCache().evictAll();
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because the second load of the same order reads its products from the
+      second-level cache and only queries orders and order items
+      """)
+  void should_stopQueryingProducts_whenOrderIsLoadedAgain() {
+    long firstLoad = loadOrderWithProducts();
+    long secondLoad = loadOrderWithProducts();
+
+    assertEquals(1 + ITEMS, firstLoad);
+    assertEquals(1, secondLoad);
+    assertEquals(ITEMS, statistics.getDomainDataRegionStatistics("product").getHitCount());
+  }
+
+  @Test
+  void should_serveUpdatedProduct_whenProductChanges() {
+    Product product = productRepository.findByName("Adidas 0").get(0);
+    product.setPrice(BigDecimal.valueOf(99.9D));
+    productRepository.save(product);
+
+    long statementsBefore = statistics.getPrepareStatementCount();
+    Product reloaded = productRepository.findById(product.getId()).orElseThrow();
+
+    assertEquals(0, BigDecimal.valueOf(99.9D).compareTo(reloaded.getPrice()));
+    assertEquals(
+        0,
+        BigDecimal.valueOf(99.9D)
+            .compareTo(productRepository.findByName("Adidas 0").get(0).getPrice()));
+    // the update is written through to the cache, the find by id does not query the table
+    assertEquals(statementsBefore + 1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void should_cacheProductLookupByName() {
+    productRepository.findByName("Adidas 1");
+    long statementsBefore = statistics.getPrepareStatementCount();
+
+    assertEquals(1, productRepository.findByName("Adidas 1").size());
+    assertEquals(statementsBefore, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void should_expireRegions_afterTheirTimeToLive() {
+    assertEquals(OptionalLong.of(Duration.ofHours(1).toNanos()), expireAfterWrite("product"));
+    assertEquals(
+        OptionalLong.of(Duration.ofMinutes(10).toNanos()),
+        expireAfterWrite("default-query-results-region"));
+    assertEquals(OptionalLong.empty(), expireAfterWrite("default-update-timestamps-region"));
+  }
+
+  private OptionalLong expireAfterWrite(String region) {
+    JCacheRegionFactory regionFactory =
+        (JCacheRegionFactory)
+            entityManagerFactory
+                .unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(RegionFactory.class);
+    return regionFactory
+        .getCacheManager()
+        .getCache(region)
+        .getConfiguration(CaffeineConfiguration.class)
+        .getExpireAfterWrite();
+  }
+
+  private long loadOrderWithProducts() {
+    long statementsBefore = statistics.getPrepareStatementCount();
+    transactionTemplate.executeWithoutResult(
+        status ->
+            orderRepository
+                .findWithItemsById(orderId)
+                .orElseThrow()
+                .getOrderItemList()
+                .forEach(item -> assertNotNull(item.getProduct().getName())));
+    return statistics.getPrepareStatementCount() - statementsBefore;
+  }
+}
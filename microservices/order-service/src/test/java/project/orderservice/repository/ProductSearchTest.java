@@ -0,0 +1,83 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import project.orderservice.dto.ProductSearchHit;
+import project.orderservice.model.Product;
+import project.orderservice.service.search.ProductSearchService;
+
+/** Runs without a test transaction, the indexes cannot be rebuilt inside one. */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@Import(ProductSearchService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductSearchTest extends BaseRepositoryTest {
+
+  @Autowired private ProductSearchService productSearchService;
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because every word of the query matches as a prefix and the product
+      whose name matches best comes first
+      """)
+  void should_findByWordPrefixes_rankedByMatch() {
+    save("Adidas Runner Pro", "Adidas Runner", "Adidas Sandal", "Nike Runner");
+
+    assertEquals(
+        List.of("Adidas Runner", "Adidas Runner Pro"),
+        names(productSearchService.search("adi run", 10)));
+    assertEquals(
+        List.of("Adidas Runner", "Adidas Sandal", "Adidas Runner Pro"),
+        names(productSearchService.search("ADIDAS", 10)));
+    assertTrue(productSearchService.search(" & | !", 10).isEmpty());
+  }
+
+  @Test
+  void should_fillUpWithSimilarNames_whenWordsAreMisspelled() {
+    save("Adidas Runner", "Puma Suede");
+
+    List<ProductSearchHit> hits = productSearchService.search("adidsa", 10);
+
+    assertEquals(List.of("Adidas Runner"), names(hits));
+    assertTrue(hits.get(0).fuzzy());
+  }
+
+  @Test
+  void should_findRenamedProduct_andKeepFindingItAfterRebuild() {
+    Product product = save("Adidas Runner").get(0);
+    product.setName("Reebok Classic");
+    productRepository.save(product);
+
+    assertEquals(List.of("Reebok Classic"), names(productSearchService.search("reeb", 10)));
+    assertTrue(productSearchService.search("runner", 10).isEmpty());
+
+    assertEquals(2, productSearchService.rebuildIndexes().size());
+    assertEquals(List.of("Reebok Classic"), names(productSearchService.search("classic", 10)));
+  }
+
+  private List<Product> save(String... names) {
+    return productRepository.saveAll(
+        Arrays.stream(names)
+            .map(name -> Product.builder().name(name).price(BigDecimal.TEN).build())
+            .toList());
+  }
+
+  private static List<String> names(List<ProductSearchHit> hits) {
+    return hits.stream().map(ProductSearchHit::name).toList();
+  }
+}
@@ -0,0 +1,116 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.orderservice.configuration.ReactiveDatabaseConfig;
+import project.orderservice.dto.OrderDetails;
+import project.orderservice.dto.OrderSummary;
+import project.orderservice.model.DeliveryAddress;
+import project.orderservice.model.Order;
+import project.orderservice.model.OrderItem;
+import project.orderservice.model.Product;
+import project.orderservice.service.ReactiveOrderReader;
+
+/** Runs without a test transaction, the R2DBC connections only see committed orders. */
+@DataJpaTest(properties = "orderservice.r2dbc.fetch-size=2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ReactiveDatabaseConfig.class, ReactiveOrderReader.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReactiveOrderReaderTest extends BaseRepositoryTest {
+
+  @Autowired private ReactiveOrderReader reactiveOrderReader;
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because every order is emitted once with all of its items, although
+      the rows arrive two at a time
+      """)
+  void should_streamOrdersWithTheirItems() {
+    Order order1 = saveOrder("Iasi", 3);
+    Order order2 = saveOrder("Cluj", 1);
+    Order order3 = saveOrder("Iasi", 1);
+    // orders are validated to have items, an imported one may have none
+    orderItemRepository.deleteAllInBatch(order2.getOrderItemList());
+
+    List<OrderDetails> details =
+        reactiveOrderReader
+            .streamDetails(List.of(order3.getId(), order1.getId(), order2.getId()))
+            .collectList()
+            .block();
+
+    assertEquals(
+        List.of(order1.getId(), order2.getId(), order3.getId()),
+        details.stream().map(OrderDetails::id).toList());
+    assertEquals(List.of(3, 0, 1), details.stream().map(d -> d.items().size()).toList());
+    assertEquals("Cluj", details.get(1).city());
+    assertEquals(
+        List.of("Adidas 0", "Adidas 1", "Adidas 2"),
+        details.get(0).items().stream().map(OrderDetails.Line::productName).sorted().toList());
+  }
+
+  @Test
+  void should_streamSummariesNewestFirst_andFilterByDeliveryAddress() {
+    Order order1 = saveOrder("Iasi", 2);
+    Order order2 = saveOrder("Cluj", 1);
+    Order order3 = saveOrder("Iasi", 1);
+
+    List<OrderSummary> all = reactiveOrderReader.streamSummaries(null).collectList().block();
+    List<OrderSummary> ofDeliveryAddress =
+        reactiveOrderReader
+            .streamSummaries(order2.getDeliveryAddress().getId())
+            .collectList()
+            .block();
+
+    assertEquals(
+        List.of(order3.getId(), order2.getId(), order1.getId()),
+        all.stream().map(OrderSummary::id).toList());
+    assertEquals(2L, all.get(2).itemCount());
+    assertEquals(0, new BigDecimal("600.60").compareTo(all.get(2).total()));
+    assertEquals(
+        List.of(order2.getId()), ofDeliveryAddress.stream().map(OrderSummary::id).toList());
+  }
+
+  private Order saveOrder(String city, int items) {
+    return transactionTemplate.execute(
+        status -> {
+          DeliveryAddress deliveryAddress =
+              DeliveryAddress.builder()
+                  .street("Armeana 1")
+                  .city(city)
+                  .orderList(new ArrayList<>())
+                  .build();
+          Order order =
+              Order.builder()
+                  .deliveryAddress(deliveryAddress)
+                  .orderItemList(new HashSet<>())
+                  .build();
+          for (int i = 0; i < items; i++) {
+            Product product =
+                productRepository.save(
+                    Product.builder()
+                        .name("Adidas " + i)
+                        .price(BigDecimal.valueOf(300.3D))
+                        .build());
+            order.addOrderItem(OrderItem.builder().product(product).amount(BigDecimal.ONE).build());
+          }
+          orderRepository.save(order);
+          orderItemRepository.saveAll(order.getOrderItemList());
+          return order;
+        });
+  }
+}
@@ -0,0 +1,125 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+import project.orderservice.configuration.ReplicaRoutingConfig;
+import project.orderservice.datasource.ReadYourWrites;
+import project.orderservice.model.Product;
+
+/**
+ * A second container stands in for the replica. It gets the schema but none of the writes, so every
+ * read shows which database served it.
+ */
+@DataJpaTest(
+    properties = {
+      "orderservice.datasource.replicas.sticky-window=1s",
+      "orderservice.datasource.replicas.maximum-pool-size=2"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@Import(ReplicaRoutingConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReplicaRoutingTest extends BaseRepositoryTest {
+
+  static PostgreSQLContainer<?> replica =
+      new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+
+  static {
+    replica.start();
+    Flyway.configure()
+        .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+        .load()
+        .migrate();
+  }
+
+  @DynamicPropertySource
+  static void configureReplica(DynamicPropertyRegistry registry) {
+    registry.add("orderservice.datasource.replicas.urls", replica::getJdbcUrl);
+    registry.add("orderservice.datasource.replicas.username", replica::getUsername);
+    registry.add("orderservice.datasource.replicas.password", replica::getPassword);
+  }
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  private final JdbcTemplate replicaJdbcTemplate =
+      new JdbcTemplate(
+          new DriverManagerDataSource(
+              replica.getJdbcUrl(), replica.getUsername(), replica.getPassword()));
+
+  @BeforeEach
+  void seedReplica() {
+    replicaJdbcTemplate.update("DELETE FROM product");
+    replicaJdbcTemplate.update("INSERT INTO product (name, price) VALUES ('Replicated', 1)");
+  }
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because a read-only repository call is served by the replica while
+      the write of another client went to the primary
+      """)
+  void should_readFromReplica_andWriteToPrimary() throws Exception {
+    ReadYourWrites.callAs("writer", () -> productRepository.save(product("Written")));
+
+    assertEquals(List.of("Replicated"), ReadYourWrites.callAs("reader", this::productNames));
+    assertEquals(
+        List.of("Written"), jdbcTemplate.queryForList("SELECT name FROM product", String.class));
+  }
+
+  @Test
+  void should_keepWriterOnPrimary_untilStickyWindowHasPassed() throws Exception {
+    ReadYourWrites.callAs("sticky-writer", () -> productRepository.save(product("Written")));
+
+    assertEquals(List.of("Written"), ReadYourWrites.callAs("sticky-writer", this::productNames));
+    assertEquals(List.of("Replicated"), ReadYourWrites.callAs("reader", this::productNames));
+
+    Thread.sleep(1_200);
+    assertEquals(List.of("Replicated"), ReadYourWrites.callAs("sticky-writer", this::productNames));
+  }
+
+  @Test
+  void should_notStickToPrimary_whenWriteIsRolledBack() throws Exception {
+    ReadYourWrites.callAs(
+        "rolled-back-writer",
+        () ->
+            transactionTemplate.execute(
+                status -> {
+                  productRepository.save(product("Written"));
+                  status.setRollbackOnly();
+                  return null;
+                }));
+
+    assertEquals(
+        List.of("Replicated"), ReadYourWrites.callAs("rolled-back-writer", this::productNames));
+  }
+
+  private List<String> productNames() {
+    return productRepository.findAll().stream().map(Product::getName).toList();
+  }
+
+  private static Product product(String name) {
+    return Product.builder().name(name).price(BigDecimal.TEN).build();
+  }
+}
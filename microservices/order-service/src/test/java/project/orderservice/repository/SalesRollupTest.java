@@ -0,0 +1,286 @@
+package project.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.orderservice.dto.CitySales;
+import project.orderservice.dto.OrderItemRequest;
+import project.orderservice.dto.ProductSales;
+import project.orderservice.dto.ProductSalesDay;
+import project.orderservice.model.Order;
+import project.orderservice.model.Product;
+import project.orderservice.service.OptimisticRetryExecutor;
+import project.orderservice.service.OrderArchiver;
+import project.orderservice.service.OrderService;
+import project.orderservice.service.address.DeliveryAddressStore;
+import project.orderservice.service.outbox.OutboxWriter;
+import project.orderservice.service.reporting.SalesReports;
+import project.orderservice.service.reporting.SalesRollupRefresher;
+
+/** Runs without a test transaction, the refresh only folds in the changes of ended transactions. */
+@DataJpaTest(properties = "orderservice.archive.pause=0s")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({JdbcTemplateAutoConfiguration.class, JacksonAutoConfiguration.class})
+@Import({
+  OrderService.class,
+  OptimisticRetryExecutor.class,
+  OutboxWriter.class,
+  DeliveryAddressStore.class,
+  SalesRollupRefresher.class,
+  SalesReports.class,
+  OrderArchiver.class
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SalesRollupTest extends BaseRepositoryTest {
+
+  /** The rollups computed from scratch, like the initial fill of V16. */
+  private static final String PRODUCT_SALES_OF_HISTORY =
+      """
+      SELECT s.day, s.product_id, count(*) AS item_count, sum(coalesce(s.amount, 0)) AS quantity,
+             sum(coalesce(round(s.amount * s.price, 2), 0)) AS revenue
+      FROM (SELECT (i.order_created_at AT TIME ZONE 'UTC')::date AS day, i.product_id, i.amount,
+                   p.price
+            FROM order_item i
+            LEFT JOIN product p ON p.product_id = i.product_id
+            UNION ALL
+            SELECT (o.created_at AT TIME ZONE 'UTC')::date, i.product_id, i.amount, i.price
+            FROM order_item_archive i
+            JOIN orders_archive o ON o.order_id = i.order_id) s
+      WHERE s.product_id IS NOT NULL
+      GROUP BY s.day, s.product_id
+      ORDER BY s.day, s.product_id
+      """;
+
+  private static final String CITY_SALES_OF_HISTORY =
+      """
+      SELECT (s.created_at AT TIME ZONE 'UTC')::date AS day, a.city, count(*) AS order_count,
+             sum(s.item_count) AS item_count, sum(s.order_total) AS revenue
+      FROM (SELECT delivery_address_id, order_total, item_count, created_at FROM orders
+            UNION ALL
+            SELECT delivery_address_id, order_total, item_count, created_at FROM orders_archive) s
+      JOIN delivery_address a ON a.delivery_address_id = s.delivery_address_id
+      GROUP BY 1, 2
+      ORDER BY 1, 2
+      """;
+
+  private static final LocalDate TODAY = LocalDate.now(ZoneOffset.UTC);
+
+  @Autowired private OrderService orderService;
+  @Autowired private SalesRollupRefresher salesRollupRefresher;
+  @Autowired private SalesReports salesReports;
+  @Autowired private OrderArchiver orderArchiver;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void clearRollups() {
+    jdbcTemplate.update("DELETE FROM order_item_archive");
+    jdbcTemplate.update("DELETE FROM orders_archive");
+    jdbcTemplate.update("DELETE FROM product_sales_daily");
+    jdbcTemplate.update("DELETE FROM city_sales_daily");
+    jdbcTemplate.update("DELETE FROM sales_rollup_delta");
+  }
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because the rollups refreshed from the deltas of new and changed
+      items, orders and prices equal the sales computed from the whole history
+      """)
+  void should_equalTheHistory_afterInsertsUpdatesAndRepricing() {
+    Product shoes = saveProduct("Shoes", "300.30");
+    Product socks = saveProduct("Socks", "2.50");
+    Order first = createOrder("Iasi", shoes, socks);
+    createOrder("Iasi", socks);
+    Order moved = createOrder("Cluj", shoes);
+    salesRollupRefresher.refresh();
+    assertRollupsEqualHistory();
+
+    Long socksLine =
+        jdbcTemplate.queryForObject(
+            "SELECT order_item_id FROM order_item WHERE order_id = ? AND product_id = ?",
+            Long.class,
+            first.getId(),
+            socks.getId());
+    orderService.changeOrderItemAmount(first.getId(), socksLine, new BigDecimal("4"));
+    orderService.addOrderItem(moved.getId(), new OrderItemRequest(socks.getId(), BigDecimal.TEN));
+    socks.setPrice(new BigDecimal("3.00"));
+    productRepository.saveAndFlush(socks);
+    jdbcTemplate.update(
+        "UPDATE orders SET created_at = created_at - interval '1 day' WHERE order_id = ?",
+        moved.getId());
+    assertTrue(salesRollupRefresher.refresh() > 0);
+    assertRollupsEqualHistory();
+
+    assertEquals(
+        List.of(
+            new CitySales("Cluj", 1, 2, new BigDecimal("330.30")),
+            new CitySales("Iasi", 2, 3, new BigDecimal("315.30"))),
+        salesReports.topCities(TODAY.minusDays(1), TODAY, 10).rows());
+    assertEquals(
+        List.of(
+            new ProductSales(
+                shoes.getId(), "Shoes", 2, new BigDecimal("2.000"), new BigDecimal("600.60")),
+            new ProductSales(
+                socks.getId(), "Socks", 3, new BigDecimal("15.000"), new BigDecimal("45.00"))),
+        salesReports.topProducts(TODAY.minusDays(1), TODAY, 10).rows());
+    assertEquals(
+        List.of(
+            new ProductSalesDay(
+                TODAY.minusDays(1),
+                socks.getId(),
+                1,
+                new BigDecimal("10.000"),
+                new BigDecimal("30.00")),
+            new ProductSalesDay(
+                TODAY, socks.getId(), 2, new BigDecimal("5.000"), new BigDecimal("15.00"))),
+        salesReports.productDays(socks.getId(), TODAY.minusDays(1), TODAY).rows());
+    assertTrue(salesReports.topCities(TODAY.plusDays(1), TODAY.plusDays(2), 10).rows().isEmpty());
+  }
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because changes committed after a transaction that is still running
+      stay out of the rollups until it ended, and are then folded in with its own changes
+      """)
+  void should_notSkipChanges_ofTransactionsThatCommitLate() throws Exception {
+    Product product = saveProduct("Shoes", "10.00");
+    createOrder("Iasi", product);
+    CountDownLatch written = new CountDownLatch(1);
+    CountDownLatch commit = new CountDownLatch(1);
+    CompletableFuture<Void> late =
+        CompletableFuture.runAsync(
+            () ->
+                transactionTemplate.executeWithoutResult(
+                    status -> {
+                      createOrder("Cluj", product);
+                      written.countDown();
+                      await(commit);
+                    }));
+    assertTrue(written.await(10, TimeUnit.SECONDS));
+    createOrder("Iasi", product);
+
+    salesRollupRefresher.refresh();
+    assertEquals(
+        List.of(Map.of("city", "Iasi", "order_count", 1L)),
+        jdbcTemplate.queryForList("SELECT city, order_count FROM city_sales_daily"));
+
+    commit.countDown();
+    late.get(10, TimeUnit.SECONDS);
+    salesRollupRefresher.refresh();
+    assertRollupsEqualHistory();
+    assertEquals(3, count("SELECT sum(order_count) FROM city_sales_daily"));
+  }
+
+  @Test
+  void should_keepArchivedOrders_inTheRollups() {
+    Product product = saveProduct("Shoes", "10.00");
+    Order order = createOrder("Iasi", product);
+    jdbcTemplate.update(
+        "UPDATE orders SET created_at = now() - interval '3 years' WHERE order_id = ?",
+        order.getId());
+    salesRollupRefresher.refresh();
+    List<Map<String, Object>> rollups = jdbcTemplate.queryForList(PRODUCT_SALES_OF_HISTORY);
+
+    assertEquals(1, orderArchiver.archiveOlderThan(OffsetDateTime.now().minusYears(2)).chunks());
+    salesRollupRefresher.refresh();
+
+    assertEquals(0, count("SELECT count(*) FROM orders"));
+    assertEquals(rollups, jdbcTemplate.queryForList(PRODUCT_SALES_OF_HISTORY));
+    assertRollupsEqualHistory();
+  }
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because the sales of the orders and archived orders of an address move
+      to its new city, so deleting one of the orders later leaves no negative city behind
+      """)
+  void should_moveCitySales_whenTheCityOfAnAddressChanges() {
+    Product product = saveProduct("Shoes", "10.00");
+    Order archived = createOrder("Iasi", product);
+    Order deleted = createOrder("Iasi", product);
+    Order kept = createOrder("Cluj", product);
+    jdbcTemplate.update(
+        "UPDATE orders SET created_at = now() - interval '3 years' WHERE order_id = ?",
+        archived.getId());
+    orderArchiver.archiveOlderThan(OffsetDateTime.now().minusYears(2));
+    salesRollupRefresher.refresh();
+
+    jdbcTemplate.update(
+        "UPDATE delivery_address SET city = ' iasi ' WHERE delivery_address_id = ?",
+        deleted.getDeliveryAddress().getId());
+    salesRollupRefresher.refresh();
+    assertRollupsEqualHistory();
+
+    jdbcTemplate.update("DELETE FROM order_item WHERE order_id = ?", deleted.getId());
+    jdbcTemplate.update("DELETE FROM orders WHERE order_id = ?", deleted.getId());
+    // like DeliveryAddressMerger, repoints the archived order to another address
+    jdbcTemplate.update(
+        "UPDATE orders_archive SET delivery_address_id = ? WHERE order_id = ?",
+        kept.getDeliveryAddress().getId(),
+        archived.getId());
+    salesRollupRefresher.refresh();
+
+    assertRollupsEqualHistory();
+    assertEquals(
+        0, count("SELECT count(*) FROM city_sales_daily WHERE order_count < 0 OR revenue < 0"));
+  }
+
+  private void assertRollupsEqualHistory() {
+    assertEquals(
+        jdbcTemplate.queryForList(PRODUCT_SALES_OF_HISTORY),
+        jdbcTemplate.queryForList(
+            "SELECT day, product_id, item_count, quantity, revenue FROM product_sales_daily"
+                + " WHERE item_count <> 0 OR quantity <> 0 OR revenue <> 0 ORDER BY 1, 2"));
+    assertEquals(
+        jdbcTemplate.queryForList(CITY_SALES_OF_HISTORY),
+        jdbcTemplate.queryForList(
+            "SELECT day, city, order_count, item_count, revenue FROM city_sales_daily"
+                + " WHERE order_count <> 0 OR item_count <> 0 OR revenue <> 0 ORDER BY 1, 2"));
+  }
+
+  private Order createOrder(String city, Product... products) {
+    return createOrder(
+        orderRequest(
+            deliveryAddress(city),
+            Arrays.stream(products).map(Product::getId).toArray(Long[]::new)));
+  }
+
+  private long count(String sql) {
+    return jdbcTemplate.queryForObject(sql, Long.class);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
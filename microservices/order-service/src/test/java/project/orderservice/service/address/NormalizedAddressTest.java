@@ -0,0 +1,37 @@
+package project.orderservice.service.address;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class NormalizedAddressTest {
+
+  @Test
+  void should_trimAndCollapseWhitespace_andKeepCase() {
+    NormalizedAddress address =
+        NormalizedAddress.of(" Strada  Armeana \t1 ", "Iasi", "  ", "ro", " 700 123");
+
+    assertEquals(new NormalizedAddress("Strada Armeana 1", "Iasi", null, "RO", "700 123"), address);
+  }
+
+  @Test
+  void should_hashEqualAddresses_alike() {
+    String hash = NormalizedAddress.of("Armeana 1", "Iasi", "Europe", "Ro", "700-123").hash();
+
+    assertEquals(64, hash.length());
+    assertEquals(
+        hash, NormalizedAddress.of("ARMEANA  1", " iasi", "europe", "RO", "700 123").hash());
+    assertNotEquals(
+        hash, NormalizedAddress.of("Armeana 1", "Iasi", "Europe", "Ro", "700-124").hash());
+  }
+
+  @Test
+  void should_notConfuseFields_whenTextMovesBetweenThem() {
+    assertNotEquals(
+        NormalizedAddress.of("Armeana 1 Iasi", null, null, null, null).hash(),
+        NormalizedAddress.of("Armeana 1", "Iasi", null, null, null).hash());
+    assertNotEquals(
+        NormalizedAddress.of("Armeana", "", null, null, null).hash(),
+        NormalizedAddress.of(null, "Armeana", null, null, null).hash());
+  }
+}
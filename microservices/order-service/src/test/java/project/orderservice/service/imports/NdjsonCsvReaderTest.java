@@ -0,0 +1,65 @@
+package project.orderservice.service.imports;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class NdjsonCsvReaderTest {
+
+  private static final List<String> COLUMNS = ImportTarget.ORDER_ITEM.columns();
+
+  @Test
+  void should_convertEachJsonLineToOneCsvRow() throws IOException {
+    String ndjson =
+        """
+        {"order_item_id": 1, "product_id": 7, "order_id": 3, "amount": 2.50}
+
+        {"order_item_id": 2, "product_id": 8, "order_id": 3, "amount": 1}
+        """;
+
+    assertEquals("\"1\",\"7\",\"3\",\"2.50\"\n\"2\",\"8\",\"3\",\"1\"\n", convert(ndjson, COLUMNS));
+  }
+
+  @Test
+  @DisplayName(
+      """
+      Missing and null values become unquoted empty fields, which COPY reads as NULL
+      """)
+  void should_writeNull_whenValueIsMissingOrNull() throws IOException {
+    String ndjson = "{\"order_item_id\": 1, \"product_id\": null, \"amount\": 3}\n";
+
+    assertEquals("\"1\",,,\"3\"\n", convert(ndjson, COLUMNS));
+  }
+
+  @Test
+  void should_escapeQuotes_andKeepDecimalsExact() throws IOException {
+    String ndjson = "{\"product_id\": 1, \"name\": \"Air \\\"Max\\\", 90\", \"price\": 1e2}\n";
+
+    assertEquals(
+        "\"1\",\"Air \"\"Max\"\", 90\",\"100\"\n", convert(ndjson, ImportTarget.PRODUCT.columns()));
+  }
+
+  @Test
+  void should_failWithLineNumber_whenLineIsNotJson() {
+    String ndjson = "{\"order_item_id\": 1}\nnot json\n";
+
+    IOException exception = assertThrows(IOException.class, () -> convert(ndjson, COLUMNS));
+    assertTrue(exception.getMessage().contains("line 2"));
+  }
+
+  private static String convert(String ndjson, List<String> columns) throws IOException {
+    StringWriter csv = new StringWriter();
+    try (Reader reader =
+        new NdjsonCsvReader(new StringReader(ndjson), columns, new ObjectMapper())) {
+      reader.transferTo(csv);
+    }
+    return csv.toString();
+  }
+}
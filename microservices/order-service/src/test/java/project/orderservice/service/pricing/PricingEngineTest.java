@@ -0,0 +1,89 @@
+package project.orderservice.service.pricing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PricingEngineTest {
+
+  private final PricingEngine pricingEngine = new PricingEngine(1900);
+
+  @Test
+  void should_roundLineTotalHalfUp() {
+    // 0.05 * 0.500 = 0.025 -> 0.03, and symmetric for negative values
+    assertEquals(3, PricingEngine.lineTotal(5, 500));
+    assertEquals(-3, PricingEngine.lineTotal(-5, 500));
+    // 0.05 * 0.499 = 0.02495 -> 0.02
+    assertEquals(2, PricingEngine.lineTotal(5, 499));
+  }
+
+  @Test
+  void should_applyDiscountToSubtotal_andTaxToDiscountedSubtotal() {
+    OrderPrice price =
+        pricingEngine.price(new long[] {30030, 999}, new long[] {2000, 1500}, 2, 1000);
+
+    // 600.60 + 14.985 -> 14.99
+    assertEquals(61559, price.subtotal());
+    assertEquals(6156, price.discount());
+    // 19% of 554.03 = 105.2657
+    assertEquals(10527, price.tax());
+    assertEquals(65930, price.total());
+  }
+
+  @Test
+  @DisplayName(
+      """
+      The test is successful because the long based engine gives the same result as the same
+      rounding rules applied with BigDecimal
+      """)
+  void should_matchBigDecimalPricing_forRandomOrders() {
+    Random random = new Random(42);
+    for (int order = 0; order < 1_000; order++) {
+      int lines = 1 + random.nextInt(20);
+      long[] unitPrices = new long[lines];
+      long[] quantities = new long[lines];
+      BigDecimal subtotal = BigDecimal.ZERO;
+      for (int i = 0; i < lines; i++) {
+        unitPrices[i] = random.nextLong(10_000_000);
+        quantities[i] = random.nextLong(100_000);
+        subtotal =
+            subtotal.add(
+                BigDecimal.valueOf(unitPrices[i], 2)
+                    .multiply(BigDecimal.valueOf(quantities[i], 3))
+                    .setScale(2, RoundingMode.HALF_UP));
+      }
+      int discountBasisPoints = random.nextInt(10_001);
+      BigDecimal discount =
+          subtotal
+              .multiply(BigDecimal.valueOf(discountBasisPoints, 4))
+              .setScale(2, RoundingMode.HALF_UP);
+      BigDecimal tax =
+          subtotal
+              .subtract(discount)
+              .multiply(BigDecimal.valueOf(1900, 4))
+              .setScale(2, RoundingMode.HALF_UP);
+
+      OrderPrice price = pricingEngine.price(unitPrices, quantities, lines, discountBasisPoints);
+
+      assertEquals(subtotal, new Money(price.subtotal()).toBigDecimal());
+      assertEquals(discount, new Money(price.discount()).toBigDecimal());
+      assertEquals(tax, new Money(price.tax()).toBigDecimal());
+      assertEquals(subtotal.subtract(discount).add(tax), new Money(price.total()).toBigDecimal());
+    }
+  }
+
+  @Test
+  void should_convertExactly_andRejectValuesTheColumnCannotHold() {
+    assertEquals(30030, Money.of(new BigDecimal("300.3")).minorUnits());
+    assertEquals(new BigDecimal("300.30"), new Money(30030).toBigDecimal());
+    assertEquals(2500, Quantity.of(new BigDecimal("2.5")).thousandths());
+
+    assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("0.001")));
+    assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1E16")));
+    assertThrows(ArithmeticException.class, () -> PricingEngine.lineTotal(Long.MAX_VALUE, 2000));
+  }
+}